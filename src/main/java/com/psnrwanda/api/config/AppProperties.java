@@ -4,6 +4,8 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+
 /**
  * Application properties for type-safe configuration
  */
@@ -16,6 +18,13 @@ public class AppProperties {
     private final Sms sms = new Sms();
     private final Company company = new Company();
     private final File file = new File();
+    private final Notification notification = new Notification();
+    private final Idempotency idempotency = new Idempotency();
+    private final TrackingCache trackingCache = new TrackingCache();
+    private final ExportJobs exportJobs = new ExportJobs();
+    private final DashboardCache dashboardCache = new DashboardCache();
+    private final BookingEvents bookingEvents = new BookingEvents();
+    private final Campaigns campaigns = new Campaigns();
     
     /**
      * CORS configuration properties
@@ -36,6 +45,17 @@ public class AppProperties {
         private boolean enabled;
         private String apiKey;
         private String apiUrl;
+        /** Messages sent in one gateway call; 1 disables batching */
+        private int maxBatchSize = 20;
+        /** Provider quota: sustained messages per second, and the largest burst */
+        private double ratePerSecond = 5;
+        private int burst = 20;
+        private Duration connectTimeout = Duration.ofSeconds(5);
+        private Duration requestTimeout = Duration.ofSeconds(15);
+        /** Longest wait for quota before a send fails and is retried later by the outbox */
+        private Duration quotaTimeout = Duration.ofSeconds(30);
+        /** Serve a local stub gateway at /api/v1/test/sms-gateway */
+        private boolean stubEnabled;
     }
     
     /**
@@ -59,4 +79,123 @@ public class AppProperties {
     public static class File {
         private String uploadDir;
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Notification delivery properties
+     */
+    @Data
+    public static class Notification {
+        private String providerEmail;
+        private final Outbox outbox = new Outbox();
+        private final MailPool mailPool = new MailPool();
+        private final Digest digest = new Digest();
+        
+        /**
+         * Transactional outbox dispatcher properties
+         */
+        @Data
+        public static class Outbox {
+            private Duration pollInterval = Duration.ofSeconds(2);
+            private int emailWorkers = 4;
+            private int smsWorkers = 2;
+            /** Deliveries waiting for a worker, per channel; due rows stay in the outbox beyond this */
+            private int queueCapacity = 20;
+            private int batchSize = 20;
+            private int maxAttempts = 8;
+            private Duration initialBackoff = Duration.ofSeconds(30);
+            private Duration maxBackoff = Duration.ofHours(1);
+            private Duration lease = Duration.ofMinutes(5);
+        }
+        
+        /**
+         * Provider digest properties
+         */
+        @Data
+        public static class Digest {
+            private boolean enabled;
+            private int maxBookings = 20;
+            private Duration maxDelay = Duration.ofMinutes(5);
+            private Duration checkInterval = Duration.ofSeconds(5);
+        }
+        
+        /**
+         * Pooled SMTP connection properties
+         */
+        @Data
+        public static class MailPool {
+            private int maxConnections = 4;
+            private int maxMessagesPerConnection = 100;
+            private Duration maxIdleTime = Duration.ofMinutes(2);
+            private Duration validateAfterIdle = Duration.ofSeconds(5);
+            private Duration borrowTimeout = Duration.ofSeconds(30);
+        }
+    }
+    
+    /**
+     * Idempotency-Key handling properties
+     */
+    @Data
+    public static class Idempotency {
+        private int cacheSize = 10_000;
+        private Duration retention = Duration.ofHours(24);
+        private Duration inFlightTimeout = Duration.ofSeconds(30);
+        private Duration abandonedAfter = Duration.ofMinutes(5);
+    }
+    
+    /**
+     * Tracking-number lookup cache properties
+     */
+    @Data
+    public static class TrackingCache {
+        private long maxSize = 10_000;
+        /** Longest time another instance can serve a booking's previous state after a write */
+        private Duration ttl = Duration.ofSeconds(15);
+    }
+    
+    /**
+     * Background export job properties
+     */
+    @Data
+    public static class ExportJobs {
+        private String directory = "exports";
+        private int workers = 2;
+        private int queueCapacity = 20;
+        private Duration retention = Duration.ofHours(24);
+        /** How often an instance reports progress of the jobs it holds */
+        private Duration heartbeatInterval = Duration.ofMinutes(1);
+        /** Unfinished jobs not reported on for this long are failed, e.g. after their instance died */
+        private Duration stallTimeout = Duration.ofMinutes(10);
+    }
+    
+    /**
+     * Dashboard statistics cache properties
+     */
+    @Data
+    public static class DashboardCache {
+        private Duration ttl = Duration.ofSeconds(10);
+        private Duration maxStale = Duration.ofMinutes(5);
+    }
+    
+    /**
+     * Booking event listener pool properties
+     */
+    @Data
+    public static class BookingEvents {
+        private int workers = 2;
+        private int queueCapacity = 500;
+    }
+    
+    /**
+     * Bulk email campaign properties
+     */
+    @Data
+    public static class Campaigns {
+        private double ratePerSecond = 10;
+        private int burst = 20;
+        private Duration sendTimeout = Duration.ofMinutes(1);
+        private int renderThreads = Runtime.getRuntime().availableProcessors();
+        private int queueCapacity = 10;
+        private Duration lease = Duration.ofMinutes(5);
+        private Duration resumeInterval = Duration.ofMinutes(1);
+    }
+}
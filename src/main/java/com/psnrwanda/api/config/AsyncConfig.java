@@ -0,0 +1,130 @@
+package com.psnrwanda.api.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Background processing configuration: scheduling, async listeners and dedicated worker pools
+ */
+@Configuration
+@EnableScheduling
+@EnableAsync
+public class AsyncConfig {
+    
+    /**
+     * Worker pool delivering claimed email notifications. The dispatcher only claims as many
+     * notifications as the queue has room for, so due notifications wait in the outbox, not in memory.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor notificationEmailExecutor(AppProperties appProperties) {
+        AppProperties.Notification.Outbox outbox = appProperties.getNotification().getOutbox();
+        return notificationExecutor(outbox.getEmailWorkers(), outbox.getQueueCapacity(), "notification-email-");
+    }
+    
+    /**
+     * Worker pool delivering claimed SMS notifications, so a slow SMS gateway never holds up email
+     */
+    @Bean
+    public ThreadPoolTaskExecutor notificationSmsExecutor(AppProperties appProperties) {
+        AppProperties.Notification.Outbox outbox = appProperties.getNotification().getOutbox();
+        return notificationExecutor(outbox.getSmsWorkers(), outbox.getQueueCapacity(), "notification-sms-");
+    }
+    
+    /**
+     * Worker pool running booking event listeners after commit. Events are never dropped: when the
+     * queue is full the committing thread runs the listener itself, which slows writers down instead.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor bookingEventExecutor(AppProperties appProperties) {
+        AppProperties.BookingEvents bookingEvents = appProperties.getBookingEvents();
+        
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(bookingEvents.getWorkers());
+        executor.setMaxPoolSize(bookingEvents.getWorkers());
+        executor.setQueueCapacity(bookingEvents.getQueueCapacity());
+        executor.setThreadNamePrefix("booking-event-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+    
+    /**
+     * Worker pool rendering background export jobs. The queue is bounded so a burst of
+     * requests is rejected instead of piling up renders that each hold a database connection.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor exportJobExecutor(AppProperties appProperties) {
+        AppProperties.ExportJobs exportJobs = appProperties.getExportJobs();
+        
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(exportJobs.getWorkers());
+        executor.setMaxPoolSize(exportJobs.getWorkers());
+        executor.setQueueCapacity(exportJobs.getQueueCapacity());
+        executor.setThreadNamePrefix("export-job-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+    
+    /**
+     * Single worker running email campaigns one after another, so concurrent campaigns
+     * cannot add up to more than the configured sending rate.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor campaignExecutor(AppProperties appProperties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(appProperties.getCampaigns().getQueueCapacity());
+        executor.setThreadNamePrefix("campaign-");
+        // A campaign interrupted at shutdown is resumed once its lease expires
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+
+    /**
+     * Worker pool rendering campaign emails in parallel, one thread per CPU by default.
+     * The campaign worker waits for each chunk, so at most one chunk is ever queued here.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor campaignRenderExecutor(AppProperties appProperties) {
+        int threads = Math.max(1, appProperties.getCampaigns().getRenderThreads());
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("campaign-render-");
+        return executor;
+    }
+
+    /**
+     * Single worker recomputing the cached dashboard statistics in the background.
+     * At most one refresh is ever in flight, so nothing needs to queue behind it.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor dashboardRefreshExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setThreadNamePrefix("dashboard-refresh-");
+        return executor;
+    }
+    
+    private static ThreadPoolTaskExecutor notificationExecutor(int workers, int queueCapacity, String threadNamePrefix) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix(threadNamePrefix);
+        // Deliveries still queued at shutdown are retried elsewhere once their lease expires
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
@@ -0,0 +1,275 @@
+package com.psnrwanda.api.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.psnrwanda.api.exception.ApiError;
+import com.psnrwanda.api.exception.ErrorResponseFactory;
+import com.psnrwanda.api.service.IdempotencyService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.Part;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Filter honouring the Idempotency-Key header on the public booking and document upload endpoints.
+ * <p>
+ * The first request with a given key is executed and its successful response stored; retries with the
+ * same key get the stored response back (marked with {@value #REPLAYED_HEADER}) without creating another
+ * booking, storing the files again or sending more emails. Failed requests release the key so they can be retried.
+ * Keys belong to the caller, the authenticated user or else the client IP, and a key reused with a different
+ * body is answered with 422. Multipart bodies are compared part by part, since the boundary changes between retries.
+ * <p>
+ * Registered by {@link WebConfig} as a servlet filter ordered right after the Spring Security filter chain.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private static final Set<String> IDEMPOTENT_PATHS = Set.of(
+            "/api/v1/bookings/public",
+            "/api/v1/documents/upload",
+            "/api/v1/bookings/documents/upload"
+    );
+
+    private final IdempotencyService idempotencyService;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        String key = request.getHeader(IDEMPOTENCY_KEY_HEADER).trim();
+        String path = request.getRequestURI();
+
+        if (key.length() > MAX_KEY_LENGTH) {
+            writeError(response, ErrorResponseFactory.createBadRequestError(
+                    IDEMPOTENCY_KEY_HEADER + " must be at most " + MAX_KEY_LENGTH + " characters", path));
+            return;
+        }
+
+        String scope = clientScope(request);
+        HttpServletRequest body = isMultipart(request) ? request : new CachedBodyRequest(request);
+        String requestHash = hashBody(body);
+
+        IdempotencyService.Reservation reservation = idempotencyService.reserve(scope, key, request.getMethod(), path,
+                requestHash);
+        switch (reservation.getOutcome()) {
+            case REPLAY -> {
+                log.debug("Replaying stored response for idempotency key {} on {}", key, path);
+                writeStoredResponse(response, reservation.getResponse());
+                return;
+            }
+            case MISMATCH -> {
+                writeError(response, ErrorResponseFactory.createUnprocessableEntityError(
+                        IDEMPOTENCY_KEY_HEADER + " has already been used for a different request", path));
+                return;
+            }
+            case IN_PROGRESS -> {
+                writeError(response, ErrorResponseFactory.createConflictError(
+                        "A request with this " + IDEMPOTENCY_KEY_HEADER + " is still being processed", path));
+                return;
+            }
+            default -> {
+                // ACQUIRED: execute the request below
+            }
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        IdempotencyService.StoredResponse stored = null;
+        try {
+            chain.doFilter(body, wrapper);
+
+            if (wrapper.getStatus() >= 200 && wrapper.getStatus() < 300) {
+                stored = new IdempotencyService.StoredResponse(request.getMethod(), path, requestHash,
+                        wrapper.getStatus(), wrapper.getContentType(), wrapper.getContentAsByteArray());
+            }
+        } finally {
+            try {
+                idempotencyService.finish(scope, key, stored);
+            } finally {
+                wrapper.copyBodyToResponse();
+            }
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+                || !StringUtils.hasText(request.getHeader(IDEMPOTENCY_KEY_HEADER))
+                || !IDEMPOTENT_PATHS.contains(request.getRequestURI());
+    }
+
+    /**
+     * Caller an idempotency key belongs to
+     * @param request HTTP request
+     * @return User name of an authenticated caller, otherwise the client IP
+     */
+    private static String clientScope(HttpServletRequest request) {
+        // Ordered after the Spring Security filter chain, which has authenticated the JWT and still holds the context
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "user:" + authentication.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private static boolean isMultipart(HttpServletRequest request) {
+        return request.getContentType() != null
+                && request.getContentType().toLowerCase(Locale.ROOT).startsWith("multipart/");
+    }
+
+    /**
+     * Hash the request body; a multipart body is hashed from its parts' names, file names and content
+     * @param request HTTP request, whose body can still be read afterwards
+     * @return Hex SHA-256 of the body
+     */
+    private static String hashBody(HttpServletRequest request) throws IOException, ServletException {
+        MessageDigest digest = sha256();
+        if (request instanceof CachedBodyRequest cached) {
+            digest.update(cached.body);
+        } else {
+            byte[] buffer = new byte[8192];
+            for (Part part : request.getParts()) {
+                digest.update((part.getName() + '\0' + Objects.toString(part.getSubmittedFileName(), "") + '\0')
+                        .getBytes(StandardCharsets.UTF_8));
+                try (InputStream in = part.getInputStream()) {
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        digest.update(buffer, 0, read);
+                    }
+                }
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Write a previously stored response
+     * @param response HTTP response
+     * @param stored Stored response
+     */
+    private void writeStoredResponse(HttpServletResponse response, IdempotencyService.StoredResponse stored)
+            throws IOException {
+        response.setStatus(stored.getStatus());
+        if (stored.getContentType() != null) {
+            response.setContentType(stored.getContentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (stored.getBody() != null) {
+            response.setContentLength(stored.getBody().length);
+            response.getOutputStream().write(stored.getBody());
+        }
+    }
+
+    /**
+     * Write an error response
+     * @param response HTTP response
+     * @param error API error
+     */
+    private void writeError(HttpServletResponse response, ApiError error) throws IOException {
+        response.setStatus(error.getStatus());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write(objectMapper.writeValueAsString(error));
+    }
+
+    /**
+     * Request whose body has been read into memory so it can be hashed and then read again by the controller
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readAllBytes();
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException("Asynchronous reads are not supported");
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            Charset charset = getCharacterEncoding() != null
+                    ? Charset.forName(getCharacterEncoding()) : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
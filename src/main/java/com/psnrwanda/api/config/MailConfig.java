@@ -0,0 +1,50 @@
+package com.psnrwanda.api.config;
+
+import org.springframework.boot.autoconfigure.mail.MailProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Properties;
+
+/**
+ * Mail configuration: replaces Spring Boot's per-message {@code JavaMailSender} with a pooled one
+ * configured from the same {@code spring.mail.*} properties
+ */
+@Configuration
+@EnableConfigurationProperties(MailProperties.class)
+public class MailConfig {
+    
+    /**
+     * Socket timeouts applied unless configured; a hung pooled connection would otherwise hold its slot forever
+     */
+    private static final String CONNECTION_TIMEOUT = "10000";
+    private static final String READ_TIMEOUT = "30000";
+    
+    /**
+     * Pooled mail sender
+     */
+    @Bean
+    public PooledMailSender mailSender(MailProperties mailProperties, AppProperties appProperties) {
+        PooledMailSender sender = new PooledMailSender(appProperties.getNotification().getMailPool());
+        sender.setHost(mailProperties.getHost());
+        if (mailProperties.getPort() != null) {
+            sender.setPort(mailProperties.getPort());
+        }
+        sender.setUsername(mailProperties.getUsername());
+        sender.setPassword(mailProperties.getPassword());
+        sender.setProtocol(mailProperties.getProtocol());
+        if (mailProperties.getDefaultEncoding() != null) {
+            sender.setDefaultEncoding(mailProperties.getDefaultEncoding().name());
+        }
+        
+        Properties javaMailProperties = new Properties();
+        javaMailProperties.putAll(mailProperties.getProperties());
+        String prefix = "mail." + mailProperties.getProtocol() + ".";
+        javaMailProperties.putIfAbsent(prefix + "connectiontimeout", CONNECTION_TIMEOUT);
+        javaMailProperties.putIfAbsent(prefix + "timeout", READ_TIMEOUT);
+        javaMailProperties.putIfAbsent(prefix + "writetimeout", READ_TIMEOUT);
+        sender.setJavaMailProperties(javaMailProperties);
+        return sender;
+    }
+}
@@ -0,0 +1,255 @@
+package com.psnrwanda.api.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.mail.Address;
+import jakarta.mail.AuthenticationFailedException;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link JavaMailSenderImpl} that keeps authenticated SMTP connections open and reuses them.
+ * <p>
+ * The stock sender connects, authenticates, sends and disconnects for every call, so each email pays for a
+ * TCP and TLS handshake plus AUTH. This sender borrows a connected {@link Transport} from a bounded pool instead,
+ * sends every message of the call over it and hands it back. An idle connection is checked with an SMTP
+ * {@code NOOP} before reuse once it has been idle for a while, and is retired after a maximum number of messages
+ * or a maximum idle time, since servers drop long-lived sessions. Connections that fail mid-send are discarded.
+ * Pool statistics are published as {@code mail.pool.*} metrics.
+ */
+@Slf4j
+public class PooledMailSender extends JavaMailSenderImpl implements MeterBinder, DisposableBean {
+
+    private final AppProperties.Notification.MailPool settings;
+    private final Semaphore permits;
+    /** Idle connections, most recently used first */
+    private final BlockingDeque<PooledTransport> idle = new LinkedBlockingDeque<>();
+
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong reused = new AtomicLong();
+    private final AtomicLong discarded = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+
+    /**
+     * Constructor
+     * @param settings Pool settings
+     */
+    public PooledMailSender(AppProperties.Notification.MailPool settings) {
+        this.settings = settings;
+        this.permits = new Semaphore(settings.getMaxConnections(), true);
+    }
+
+    @Override
+    protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) throws MailException {
+        Map<Object, Exception> failedMessages = new LinkedHashMap<>();
+
+        PooledTransport connection;
+        try {
+            connection = borrow();
+        } catch (AuthenticationFailedException ex) {
+            throw new MailAuthenticationException(ex);
+        } catch (MessagingException | InterruptedException ex) {
+            if (ex instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            for (int i = 0; i < mimeMessages.length; i++) {
+                failedMessages.put(originalMessages != null ? originalMessages[i] : mimeMessages[i], ex);
+            }
+            throw new MailSendException("Mail server connection failed", ex, failedMessages);
+        }
+
+        boolean reusable = true;
+        try {
+            for (int i = 0; i < mimeMessages.length; i++) {
+                MimeMessage mimeMessage = mimeMessages[i];
+                try {
+                    if (mimeMessage.getSentDate() == null) {
+                        mimeMessage.setSentDate(new Date());
+                    }
+                    String messageId = mimeMessage.getMessageID();
+                    mimeMessage.saveChanges();
+                    if (messageId != null) {
+                        // Preserve an explicitly specified message id
+                        mimeMessage.setHeader("Message-ID", messageId);
+                    }
+                    Address[] addresses = mimeMessage.getAllRecipients();
+                    connection.transport.sendMessage(mimeMessage, addresses != null ? addresses : new Address[0]);
+                    connection.messages++;
+                    sent.incrementAndGet();
+                } catch (Exception ex) {
+                    // Rejected recipients leave the session usable; anything else may have broken it. A dropped
+                    // socket is also reported as SendFailedException, so check the session is still there
+                    if (!(ex instanceof SendFailedException) || !connection.transport.isConnected()) {
+                        reusable = false;
+                    }
+                    failedMessages.put(originalMessages != null ? originalMessages[i] : mimeMessage, ex);
+                }
+            }
+        } finally {
+            release(connection, reusable);
+        }
+
+        if (!failedMessages.isEmpty()) {
+            throw new MailSendException(failedMessages);
+        }
+    }
+
+    /**
+     * Close connections that have been idle for longer than the maximum idle time
+     */
+    @Scheduled(fixedDelayString = "${app.notification.mail-pool.eviction-interval:PT30S}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        Iterator<PooledTransport> iterator = idle.descendingIterator();
+        while (iterator.hasNext()) {
+            PooledTransport connection = iterator.next();
+            if (connection.isExpired(now) && idle.remove(connection)) {
+                discard(connection);
+            }
+        }
+    }
+
+    /**
+     * @return Connections currently sending
+     */
+    public int getActiveConnections() {
+        return settings.getMaxConnections() - permits.availablePermits();
+    }
+
+    /**
+     * @return Connections open and waiting to be reused
+     */
+    public int getIdleConnections() {
+        return idle.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("mail.pool.connections.active", this, PooledMailSender::getActiveConnections)
+                .description("SMTP connections currently sending")
+                .register(registry);
+        Gauge.builder("mail.pool.connections.idle", this, PooledMailSender::getIdleConnections)
+                .description("Open SMTP connections waiting to be reused")
+                .register(registry);
+        FunctionCounter.builder("mail.pool.connections.created", created, AtomicLong::get)
+                .description("SMTP connections opened and authenticated")
+                .register(registry);
+        FunctionCounter.builder("mail.pool.connections.reused", reused, AtomicLong::get)
+                .description("Sends served by an already open SMTP connection")
+                .register(registry);
+        FunctionCounter.builder("mail.pool.connections.discarded", discarded, AtomicLong::get)
+                .description("SMTP connections closed because they failed, expired or reached their message limit")
+                .register(registry);
+        FunctionCounter.builder("mail.pool.messages.sent", sent, AtomicLong::get)
+                .description("Messages sent through pooled SMTP connections")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        PooledTransport connection;
+        while ((connection = idle.pollFirst()) != null) {
+            discard(connection);
+        }
+    }
+
+    /**
+     * Take an idle connection that still works, or open a new one if none is left
+     */
+    private PooledTransport borrow() throws MessagingException, InterruptedException {
+        if (!permits.tryAcquire(settings.getBorrowTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+            throw new MessagingException("Timed out waiting for a free SMTP connection");
+        }
+
+        try {
+            long now = System.nanoTime();
+            PooledTransport connection;
+            while ((connection = idle.pollFirst()) != null) {
+                if (!connection.isExpired(now) && connection.isValid(now)) {
+                    reused.incrementAndGet();
+                    return connection;
+                }
+                discard(connection);
+            }
+
+            Transport transport = connectTransport();
+            created.incrementAndGet();
+            log.debug("Opened SMTP connection to {}:{}", getHost(), getPort());
+            return new PooledTransport(transport);
+        } catch (MessagingException | RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+
+    private void release(PooledTransport connection, boolean reusable) {
+        try {
+            if (reusable && connection.messages < settings.getMaxMessagesPerConnection()) {
+                connection.lastUsed = System.nanoTime();
+                idle.offerFirst(connection);
+            } else {
+                discard(connection);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void discard(PooledTransport connection) {
+        discarded.incrementAndGet();
+        try {
+            connection.transport.close();
+        } catch (MessagingException ex) {
+            log.debug("Error closing SMTP connection: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * An open connection and its usage
+     */
+    private final class PooledTransport {
+
+        private final Transport transport;
+        private long lastUsed = System.nanoTime();
+        private int messages;
+
+        private PooledTransport(Transport transport) {
+            this.transport = transport;
+        }
+
+        private boolean isExpired(long now) {
+            return now - lastUsed > settings.getMaxIdleTime().toNanos();
+        }
+
+        /**
+         * Connections idle for longer than the validation threshold are pinged with NOOP
+         */
+        private boolean isValid(long now) {
+            if (now - lastUsed < settings.getValidateAfterIdle().toNanos()) {
+                return true;
+            }
+            return transport.isConnected();
+        }
+    }
+}
@@ -64,8 +64,13 @@ public class SecurityConfig {
                                      "/docs/**", 
                                      "/swagger-ui/**").permitAll()
                     
-                    // Test endpoint
+                    // Test endpoints; the stub SMS gateway authenticates callers by API key itself
                     .requestMatchers("/api/v1/test/public").permitAll()
+                    .requestMatchers(HttpMethod.POST, "/api/v1/test/sms-gateway").permitAll()
+                    
+                    // Actuator: health is public, metrics are admin only
+                    .requestMatchers("/actuator/health").permitAll()
+                    .requestMatchers("/actuator/**").hasRole("ADMIN")
                     
                     // All GET operations are publicly accessible
                     .requestMatchers(HttpMethod.GET).permitAll()
@@ -132,7 +137,7 @@ public class SecurityConfig {
         // Allow all headers
         configuration.setAllowedHeaders(List.of("*"));
         // Expose the Authorization header
-        configuration.setExposedHeaders(List.of("Authorization"));
+        configuration.setExposedHeaders(List.of("Authorization", IdempotencyFilter.REPLAYED_HEADER));
         // Allow credentials (cookies, authorization headers)
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L);
@@ -1,5 +1,10 @@
 package com.psnrwanda.api.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.psnrwanda.api.service.IdempotencyService;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
@@ -19,8 +24,22 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowedOriginPatterns("*") // Use pattern matching instead of * for compatibility with allowCredentials
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "PATCH", "OPTIONS")
                 .allowedHeaders("*")
-                .exposedHeaders("Authorization")
+                .exposedHeaders("Authorization", IdempotencyFilter.REPLAYED_HEADER)
                 .allowCredentials(true)
                 .maxAge(3600); // 1 hour
     }
+    
+    /**
+     * Register the idempotency filter right after the Spring Security filter chain, so the caller
+     * is authenticated before the filter scopes the Idempotency-Key to them
+     */
+    @Bean
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(IdempotencyService idempotencyService,
+                                                                       ObjectMapper objectMapper,
+                                                                       SecurityProperties securityProperties) {
+        FilterRegistrationBean<IdempotencyFilter> registration =
+                new FilterRegistrationBean<>(new IdempotencyFilter(idempotencyService, objectMapper));
+        registration.setOrder(securityProperties.getFilter().getOrder() + 1);
+        return registration;
+    }
 } 
\ No newline at end of file
@@ -2,10 +2,12 @@ package com.psnrwanda.api.controller;
 
 import com.psnrwanda.api.dto.BookingDto;
 import com.psnrwanda.api.dto.PaginatedResponse;
+import com.psnrwanda.api.service.BookingImportService;
 import com.psnrwanda.api.service.BookingService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -14,10 +16,12 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -30,7 +34,11 @@ import java.util.List;
 @Slf4j
 public class BookingController {
     
+    private static final String CURSOR_DESCRIPTION = "Pass cursor (empty for the first page) to page by cursor: " +
+            "the response then carries nextCursor instead of page totals, and deep pages are as fast as the first";
+    
     private final BookingService bookingService;
+    private final BookingImportService bookingImportService;
     
     /**
      * Create a public booking (no authentication required)
@@ -47,11 +55,17 @@ public class BookingController {
      * Track bookings by phone number (no authentication required)
      */
     @PostMapping("/track")
-    @Operation(summary = "Track bookings by phone number", description = "Get bookings by phone number without authentication")
+    @Operation(summary = "Track bookings by phone number", description = "Get bookings by phone number without authentication. " + CURSOR_DESCRIPTION)
     public ResponseEntity<PaginatedResponse<BookingDto>> trackBookingsByPhoneNumber(
             @Valid @RequestBody BookingDto.TrackBookingDto trackBookingDto,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor) {
+        
+        if (cursor != null) {
+            return ResponseEntity.ok(bookingService.getBookingsByPhoneNumberAfter(
+                    trackBookingDto.getPhoneNumber(), cursor, size));
+        }
         
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
         Page<BookingDto> bookingsPage = bookingService.getBookingsByPhoneNumber(
@@ -89,13 +103,18 @@ public class BookingController {
     @GetMapping("/my-bookings")
     @Operation(
             summary = "Get my bookings", 
-            description = "Get bookings for the authenticated user",
+            description = "Get bookings for the authenticated user. " + CURSOR_DESCRIPTION,
             security = @SecurityRequirement(name = "bearerAuth")
     )
     @PreAuthorize("hasRole('USER')")
     public ResponseEntity<PaginatedResponse<BookingDto>> getMyBookings(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor) {
+        
+        if (cursor != null) {
+            return ResponseEntity.ok(bookingService.getMyBookingsAfter(cursor, size));
+        }
         
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
         Page<BookingDto> bookingsPage = bookingService.getMyBookings(pageable);
@@ -148,14 +167,21 @@ public class BookingController {
     @GetMapping
     @Operation(
             summary = "Get all bookings", 
-            description = "Get all bookings with pagination (admin only)",
+            description = "Get all bookings with pagination (admin only). " + CURSOR_DESCRIPTION,
             security = @SecurityRequirement(name = "bearerAuth")
     )
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<PaginatedResponse<BookingDto>> getAllBookings(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(required = false) String status) {
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String cursor) {
+        
+        if (cursor != null) {
+            return ResponseEntity.ok(status != null && !status.isEmpty()
+                    ? bookingService.getBookingsByStatusAfter(status, cursor, size)
+                    : bookingService.getAllBookingsAfter(cursor, size));
+        }
         
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
         Page<BookingDto> bookingsPage;
@@ -176,6 +202,28 @@ public class BookingController {
         return ResponseEntity.ok(response);
     }
     
+    /**
+     * Bulk import bookings (admin only)
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    @Operation(
+            summary = "Import bookings", 
+            description = "Bulk import bookings from a CSV body with a header row, or from NDJSON. " +
+                    "Fields: serviceId, phoneNumber, email, fullName, notes, status, createdAt. " +
+                    "Invalid rows are skipped and reported per row (admin only)",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BookingDto.BookingImportResultDto> importBookings(HttpServletRequest request) throws IOException {
+        BookingImportService.ImportFormat format = MediaType.APPLICATION_NDJSON
+                .isCompatibleWith(MediaType.parseMediaType(request.getContentType()))
+                ? BookingImportService.ImportFormat.NDJSON
+                : BookingImportService.ImportFormat.CSV;
+        
+        BookingDto.BookingImportResultDto result = bookingImportService.importBookings(request.getInputStream(), format);
+        return ResponseEntity.ok(result);
+    }
+    
     /**
      * Delete booking (admin only)
      */
@@ -0,0 +1,114 @@
+package com.psnrwanda.api.controller;
+
+import com.psnrwanda.api.dto.CampaignDto;
+import com.psnrwanda.api.dto.PaginatedResponse;
+import com.psnrwanda.api.service.EmailCampaignService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controller for bulk email campaigns
+ */
+@RestController
+@RequestMapping("/api/v1/campaigns")
+@RequiredArgsConstructor
+@Tag(name = "Campaigns", description = "APIs for bulk email campaigns")
+public class CampaignController {
+
+    private final EmailCampaignService emailCampaignService;
+    
+    /**
+     * Create a campaign and queue it for sending
+     * @param request Campaign parameters
+     * @return The queued campaign
+     */
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+            summary = "Create an email campaign", 
+            description = "Email every enabled user (USERS) or every customer with a booking (BOOKINGS, optionally " +
+                    "filtered by service and booking status) in the background (admin only)",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    public ResponseEntity<CampaignDto> createCampaign(@Valid @RequestBody CampaignDto.CreateCampaignDto request) {
+        CampaignDto campaign = emailCampaignService.create(request);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(campaign);
+    }
+    
+    /**
+     * Get campaigns
+     * @param page Page number
+     * @param size Page size
+     * @return Paginated campaigns, newest first
+     */
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+            summary = "Get email campaigns", 
+            description = "Get email campaigns with their progress, newest first (admin only)",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    public ResponseEntity<PaginatedResponse<CampaignDto>> getCampaigns(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        Page<CampaignDto> campaigns = emailCampaignService.getCampaigns(
+                PageRequest.of(page, size, Sort.by("createdAt").descending()));
+        
+        PaginatedResponse<CampaignDto> response = PaginatedResponse.<CampaignDto>builder()
+                .data(campaigns.getContent())
+                .currentPage(campaigns.getNumber())
+                .totalItems(campaigns.getTotalElements())
+                .totalPages(campaigns.getTotalPages())
+                .build();
+        
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Get the status and progress of a campaign
+     * @param id Campaign ID
+     * @return The campaign
+     */
+    @GetMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+            summary = "Get an email campaign", 
+            description = "Get the status, progress and sent, failed and pending counts of a campaign (admin only)",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    public ResponseEntity<CampaignDto> getCampaign(@PathVariable Long id) {
+        return ResponseEntity.ok(emailCampaignService.getCampaign(id));
+    }
+    
+    /**
+     * Resume a failed campaign
+     * @param id Campaign ID
+     * @return The queued campaign
+     */
+    @PostMapping("/{id}/resume")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+            summary = "Resume an email campaign", 
+            description = "Queue a campaign paused by a mail server failure again; recipients already sent are skipped (admin only)",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    public ResponseEntity<CampaignDto> resumeCampaign(@PathVariable Long id) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(emailCampaignService.resume(id));
+    }
+}
@@ -1,17 +1,25 @@
 package com.psnrwanda.api.controller;
 
 import com.psnrwanda.api.dto.NotificationDto;
+import com.psnrwanda.api.dto.PaginatedResponse;
+import com.psnrwanda.api.service.NotificationOutboxService;
 import com.psnrwanda.api.service.NotificationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 /**
@@ -24,6 +32,7 @@ import org.springframework.web.bind.annotation.RestController;
 public class NotificationController {
 
     private final NotificationService notificationService;
+    private final NotificationOutboxService notificationOutboxService;
     
     /**
      * Send SMS notification
@@ -60,4 +69,51 @@ public class NotificationController {
         NotificationDto.NotificationResponseDto response = notificationService.sendEmail(emailDto);
         return ResponseEntity.ok(response);
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Get notifications that exhausted their delivery attempts
+     * @param page Page number
+     * @param size Page size
+     * @param includeReplayed Whether to include dead letters already replayed
+     * @return Paginated dead letters, most recent failure first
+     */
+    @GetMapping("/dead-letters")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+            summary = "Get failed notifications", 
+            description = "Get notifications that exhausted their delivery attempts (admin only)",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    public ResponseEntity<PaginatedResponse<NotificationDto.DeadLetterDto>> getDeadLetters(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeReplayed) {
+        Page<NotificationDto.DeadLetterDto> deadLetters = notificationOutboxService.getDeadLetters(
+                includeReplayed, PageRequest.of(page, size, Sort.by("failedAt").descending()));
+        
+        PaginatedResponse<NotificationDto.DeadLetterDto> response = PaginatedResponse.<NotificationDto.DeadLetterDto>builder()
+                .data(deadLetters.getContent())
+                .currentPage(deadLetters.getNumber())
+                .totalItems(deadLetters.getTotalElements())
+                .totalPages(deadLetters.getTotalPages())
+                .build();
+        
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Queue a failed notification for delivery again
+     * @param id Dead letter ID
+     * @return The replayed dead letter
+     */
+    @PostMapping("/dead-letters/{id}/replay")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+            summary = "Replay failed notification", 
+            description = "Queue a notification that exhausted its delivery attempts for delivery again (admin only)",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    public ResponseEntity<NotificationDto.DeadLetterDto> replayDeadLetter(@PathVariable Long id) {
+        return ResponseEntity.ok(notificationOutboxService.replayDeadLetter(id));
+    }
+}
@@ -1,19 +1,39 @@
 package com.psnrwanda.api.controller;
 
 import com.psnrwanda.api.dto.ReportDto;
+import com.psnrwanda.api.model.common.ExportFormat;
+import com.psnrwanda.api.repository.BookingExportRepository;
+import com.psnrwanda.api.service.DashboardStatsCache;
+import com.psnrwanda.api.service.ExportJobService;
 import com.psnrwanda.api.service.ReportService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Controller for report operations
@@ -24,10 +44,18 @@ import java.time.format.DateTimeFormatter;
 @Tag(name = "Reports", description = "APIs for generating reports")
 public class ReportController {
 
+    private static final String SENDFILE_SUPPORTED_ATTRIBUTE = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTRIBUTE = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTRIBUTE = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTRIBUTE = "org.apache.tomcat.sendfile.end";
+    
     private final ReportService reportService;
+    private final ExportJobService exportJobService;
     
     /**
-     * Get dashboard statistics
+     * Get dashboard statistics.
+     * Served from a short-lived shared cache; a request whose If-None-Match matches the current ETag gets 304.
+     * @param request Web request
      * @return Dashboard statistics
      */
     @GetMapping("/dashboard")
@@ -37,14 +65,98 @@ public class ReportController {
             description = "Get dashboard statistics for bookings and services (admin only)",
             security = @SecurityRequirement(name = "bearerAuth")
     )
-    public ResponseEntity<ReportDto.DashboardStatsDto> getDashboardStats() {
-        ReportDto.DashboardStatsDto stats = reportService.getDashboardStats();
-        return ResponseEntity.ok(stats);
+    public ResponseEntity<ReportDto.DashboardStatsDto> getDashboardStats(WebRequest request) {
+        DashboardStatsCache.Snapshot snapshot = reportService.getCachedDashboardStats();
+        if (request.checkNotModified(snapshot.getEtag())) {
+            // 304 with the ETag has been set; nothing is serialized
+            return null;
+        }
+        
+        return ResponseEntity.ok()
+                .eTag(snapshot.getEtag())
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(snapshot.getStats());
+    }
+    
+    /**
+     * Get booking trends
+     * @param startDate Start date (yyyy-MM-dd)
+     * @param endDate End date (yyyy-MM-dd)
+     * @param granularity Bucket size (day, week or month)
+     * @param serviceId Optional service filter
+     * @param status Optional status filter
+     * @return Booking counts per bucket
+     */
+    @GetMapping("/trends")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+            summary = "Get booking trends", 
+            description = "Get the number of bookings created per day, week or month in a date range (admin only)",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    public ResponseEntity<List<ReportDto.BookingTrendDto>> getBookingTrends(
+            @RequestParam(required = false) String startDate,
+            @RequestParam(required = false) String endDate,
+            @RequestParam(required = false, defaultValue = "day") String granularity,
+            @RequestParam(required = false) Long serviceId,
+            @RequestParam(required = false) String status) {
+        List<ReportDto.BookingTrendDto> trends = reportService.getBookingTrends(
+                startDate, endDate, granularity, serviceId, status);
+        return ResponseEntity.ok(trends);
+    }
+    
+    /**
+     * Rebuild the booking trend rollup from the bookings table
+     * @return Number of rollup rows written
+     */
+    @PostMapping("/trends/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+            summary = "Rebuild booking trends", 
+            description = "Recompute the daily booking statistics from all bookings (admin only)",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    public ResponseEntity<Map<String, Integer>> rebuildBookingTrends() {
+        int rows = reportService.rebuildBookingTrends();
+        return ResponseEntity.ok(Map.of("rows", rows));
+    }
+    
+    /**
+     * Get booking turnaround times per service
+     * @param serviceId Optional service filter
+     * @return p50, p90 and p99 time to complete and time spent in each status, per service
+     */
+    @GetMapping("/turnaround")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+            summary = "Get booking turnaround times", 
+            description = "Get time-to-complete and time-in-status percentiles per service (admin only)",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    public ResponseEntity<List<ReportDto.ServiceTurnaroundDto>> getTurnaroundTimes(
+            @RequestParam(required = false) Long serviceId) {
+        return ResponseEntity.ok(reportService.getTurnaroundTimes(serviceId));
+    }
+    
+    /**
+     * Rebuild the turnaround histograms from the booking status history
+     * @return Number of histogram rows written
+     */
+    @PostMapping("/turnaround/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+            summary = "Rebuild booking turnaround times", 
+            description = "Recompute the turnaround histograms from the booking status history (admin only)",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    public ResponseEntity<Map<String, Integer>> rebuildTurnaroundTimes() {
+        int rows = reportService.rebuildTurnaroundTimes();
+        return ResponseEntity.ok(Map.of("rows", rows));
     }
     
     /**
      * Export bookings
-     * @param format Export format (csv or pdf)
+     * @param format Export format (csv, xlsx or pdf)
      * @param startDate Start date (yyyy-MM-dd)
      * @param endDate End date (yyyy-MM-dd)
      * @param status Optional status filter
@@ -54,7 +166,7 @@ public class ReportController {
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(
             summary = "Export bookings", 
-            description = "Export bookings as CSV or PDF (admin only)",
+            description = "Export bookings as CSV, Excel (xlsx) or PDF (admin only)",
             security = @SecurityRequirement(name = "bearerAuth")
     )
     public ResponseEntity<?> exportBookings(
@@ -75,19 +187,129 @@ public class ReportController {
         // Create filename with date range
         String filename = "bookings_" + startDate + "_to_" + endDate;
         
-        if ("pdf".equalsIgnoreCase(format)) {
-            byte[] pdfContent = reportService.exportBookingsAsPdf(startDate, endDate, status);
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename + ".pdf")
-                    .contentType(MediaType.APPLICATION_PDF)
-                    .body(pdfContent);
-        } else {
-            // Default to CSV
-            String csvContent = reportService.exportBookingsAsCsv(startDate, endDate, status);
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename + ".csv")
-                    .contentType(MediaType.parseMediaType("text/csv"))
-                    .body(csvContent);
+        // Exports are streamed straight from the database cursor
+        ExportFormat exportFormat = ExportFormat.parse(format);
+        BookingExportRepository.Filter filter = reportService.createExportFilter(startDate, endDate, status);
+        StreamingResponseBody body = out -> reportService.writeBookings(exportFormat, filter, out, rows -> { });
+        
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=" + filename + "." + exportFormat.getExtension())
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .body(body);
+    }
+    
+    /**
+     * Queue a background export
+     * @param request Export parameters
+     * @return The queued job
+     */
+    @PostMapping("/export-jobs")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+            summary = "Queue a booking export", 
+            description = "Render a CSV, Excel (xlsx) or PDF export in the background and return the job (admin only)",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    public ResponseEntity<ReportDto.ExportJobDto> submitExportJob(@RequestBody ReportDto.ExportRequestDto request) {
+        ReportDto.ExportJobDto job = exportJobService.submit(request);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+    
+    /**
+     * Get the status and progress of a background export
+     * @param id Job ID
+     * @return The job
+     */
+    @GetMapping("/export-jobs/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+            summary = "Get a booking export job", 
+            description = "Get the status, progress and row counts of a background export (admin only)",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    public ResponseEntity<ReportDto.ExportJobDto> getExportJob(@PathVariable Long id) {
+        return ResponseEntity.ok(exportJobService.getJob(id));
+    }
+    
+    /**
+     * Download the file of a completed background export.
+     * Supports single-range requests so interrupted downloads can be resumed.
+     * @param id Job ID
+     * @param request HTTP request
+     * @param response HTTP response
+     * @throws IOException If the file cannot be sent
+     */
+    @GetMapping("/export-jobs/{id}/download")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+            summary = "Download a booking export", 
+            description = "Download the file of a completed background export; supports Range requests (admin only)",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    public void downloadExportJob(@PathVariable Long id, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        ExportJobService.ExportArtifact artifact = exportJobService.getArtifact(id);
+        long length = Files.size(artifact.getPath());
+        
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + artifact.getFileName());
+        response.setContentType(artifact.getContentType());
+        
+        long start = 0;
+        long end = length - 1;
+        List<HttpRange> ranges = parseRanges(request.getHeader(HttpHeaders.RANGE));
+        // Multi-range requests are answered with the whole file, which RFC 9110 allows
+        if (ranges.size() == 1) {
+            HttpRange range = ranges.get(0);
+            if (length == 0 || range.getRangeStart(length) >= length) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                return;
+            }
+            start = range.getRangeStart(length);
+            end = range.getRangeEnd(length);
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+        response.setContentLengthLong(end - start + 1);
+        
+        sendFile(artifact.getPath(), start, end + 1, request, response);
+    }
+    
+    /**
+     * Send a byte range of a file without copying it through the heap.
+     * Under Tomcat the range is handed to the connector, which writes it with the operating system's sendfile;
+     * otherwise the file channel is transferred to the response.
+     */
+    private static void sendFile(Path path, long start, long end, HttpServletRequest request,
+                                 HttpServletResponse response) throws IOException {
+        if (end <= start) {
+            return;
+        }
+        
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED_ATTRIBUTE))) {
+            request.setAttribute(SENDFILE_FILENAME_ATTRIBUTE, path.toString());
+            request.setAttribute(SENDFILE_START_ATTRIBUTE, start);
+            request.setAttribute(SENDFILE_END_ATTRIBUTE, end);
+            return;
+        }
+        
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position < end) {
+                position += channel.transferTo(position, end - position, target);
+            }
+        }
+    }
+    
+    private static List<HttpRange> parseRanges(String header) {
+        try {
+            return HttpRange.parseRanges(header);
+        } catch (IllegalArgumentException e) {
+            // A malformed Range header is ignored and the whole file is sent
+            return List.of();
         }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,63 @@
+package com.psnrwanda.api.controller;
+
+import com.psnrwanda.api.config.AppProperties;
+import com.psnrwanda.api.dto.NotificationDto;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Local stand-in for the SMS gateway, enabled with {@code app.sms.stub-enabled}.
+ * It accepts the same requests as the real gateway and only logs the messages,
+ * so SMS delivery can be exercised end to end without a provider account.
+ * Like the real gateway, it refuses a whole call with 400 if any number is not in E.164 form.
+ */
+@RestController
+@RequestMapping("/api/v1/test/sms-gateway")
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.sms", name = "stub-enabled", havingValue = "true")
+@Tag(name = "Test", description = "Endpoints for testing features")
+@Slf4j
+public class SmsGatewayStubController {
+
+    private static final Pattern E164 = Pattern.compile("^\\+[1-9][0-9]{7,14}$");
+
+    private final AppProperties appProperties;
+
+    @PostMapping
+    @Operation(summary = "Stub SMS gateway", description = "Accepts SMS gateway requests and logs the messages instead of sending them")
+    public ResponseEntity<Map<String, Object>> send(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestBody NotificationDto.SmsGatewayRequestDto request) {
+        if (!("Bearer " + appProperties.getSms().getApiKey()).equals(authorization)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Invalid API key"));
+        }
+        if (request.getMessages() == null || request.getMessages().isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "No messages"));
+        }
+        List<String> invalid = request.getMessages().stream()
+                .map(NotificationDto.SmsGatewayMessageDto::getTo)
+                .filter(to -> to == null || !E164.matcher(to).matches())
+                .toList();
+        if (!invalid.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Invalid phone numbers", "invalid", invalid));
+        }
+
+        request.getMessages().forEach(message -> log.info("Stub SMS to {}: {}", message.getTo(), message.getText()));
+        return ResponseEntity.ok(Map.of("accepted", request.getMessages().size()));
+    }
+}
@@ -88,6 +88,11 @@ public class BookingDto {
         
         private String notes;
         
+        /**
+         * Notify the provider immediately, even when provider notifications are sent as digests
+         */
+        private boolean urgent;
+        
         @Builder.Default
         private List<String> documentIds = new ArrayList<>();
     }
@@ -135,4 +140,45 @@ public class BookingDto {
         @Pattern(regexp = "^\\+?[0-9]+$", message = "Invalid phone number format")
         private String phoneNumber;
     }
-} 
\ No newline at end of file
+    
+    /**
+     * DTO for the result of a bulk booking import
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BookingImportResultDto {
+        
+        private long totalRows;
+        
+        private long importedRows;
+        
+        private long failedRows;
+        
+        /**
+         * True when more rows failed than are listed in errors
+         */
+        private boolean errorsTruncated;
+        
+        @Builder.Default
+        private List<BookingImportErrorDto> errors = new ArrayList<>();
+    }
+    
+    /**
+     * DTO describing a rejected row of a bulk booking import
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BookingImportErrorDto {
+        
+        /**
+         * 1-based data row number (the CSV header is not counted)
+         */
+        private long row;
+        
+        private String message;
+    }
+}
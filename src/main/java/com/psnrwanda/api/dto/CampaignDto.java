@@ -0,0 +1,108 @@
+package com.psnrwanda.api.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for bulk email campaigns
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CampaignDto {
+
+    private Long id;
+
+    private String name;
+
+    private String subject;
+
+    private String template;
+
+    private String segment;
+
+    private Long serviceId;
+
+    private String bookingStatus;
+
+    private String status;
+
+    /**
+     * Distinct recipients in the segment; null until the campaign has started
+     */
+    private Integer totalRecipients;
+
+    private int sent;
+
+    private int failed;
+
+    /**
+     * Recipients whose email was in flight when a previous run stopped; they are not sent again
+     */
+    private int unknown;
+
+    private Integer pending;
+
+    /**
+     * Percentage of recipients processed, 0-100; null until the recipient count is known
+     */
+    private Integer progress;
+
+    private String error;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime completedAt;
+
+    /**
+     * DTO for creating a campaign
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CreateCampaignDto {
+
+        @NotBlank(message = "Name is required")
+        @Size(max = 100, message = "Name must not exceed 100 characters")
+        private String name;
+
+        @NotBlank(message = "Subject is required")
+        @Size(max = 200, message = "Subject must not exceed 200 characters")
+        private String subject;
+
+        @NotBlank(message = "Message is required")
+        @Size(max = 10000, message = "Message must not exceed 10000 characters")
+        private String message;
+
+        /**
+         * USERS or BOOKINGS
+         */
+        @NotBlank(message = "Segment is required")
+        private String segment;
+
+        /**
+         * Optional service filter of the BOOKINGS segment
+         */
+        private Long serviceId;
+
+        /**
+         * Optional booking status filter of the BOOKINGS segment
+         */
+        private String bookingStatus;
+
+        /**
+         * Email template; defaults to the generic campaign template
+         */
+        private String template;
+    }
+}
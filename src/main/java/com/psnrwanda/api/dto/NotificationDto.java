@@ -9,6 +9,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -35,6 +37,32 @@ public class NotificationDto {
         private String message;
     }
     
+    /**
+     * Request body of the SMS gateway: one or more messages sent in a single call
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SmsGatewayRequestDto {
+        
+        private List<SmsGatewayMessageDto> messages;
+    }
+    
+    /**
+     * One message of an SMS gateway request
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SmsGatewayMessageDto {
+        
+        private String to;
+        
+        private String text;
+    }
+    
     /**
      * DTO for email notifications
      */
@@ -81,4 +109,32 @@ public class NotificationDto {
         
         private String timestamp;
     }
+    
+    /**
+     * DTO for notifications that exhausted their delivery attempts
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DeadLetterDto {
+        
+        private Long id;
+        
+        private String type;
+        
+        private String channel;
+        
+        private String recipient;
+        
+        private Long bookingId;
+        
+        private int attempts;
+        
+        private String lastError;
+        
+        private LocalDateTime failedAt;
+        
+        private LocalDateTime replayedAt;
+    }
 } 
\ No newline at end of file
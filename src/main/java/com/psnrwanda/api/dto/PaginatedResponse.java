@@ -1,5 +1,6 @@
 package com.psnrwanda.api.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -8,10 +9,12 @@ import lombok.NoArgsConstructor;
 import java.util.List;
 
 /**
- * Generic paginated response for API endpoints
+ * Generic paginated response for API endpoints.
+ * Offset pages carry currentPage, totalItems and totalPages; cursor pages carry nextCursor instead.
  * @param <T> Type of data in the response
  */
 @Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
@@ -25,15 +28,20 @@ public class PaginatedResponse<T> {
     /**
      * Current page number (0-based)
      */
-    private int currentPage;
+    private Integer currentPage;
     
     /**
      * Total number of items across all pages
      */
-    private long totalItems;
+    private Long totalItems;
     
     /**
      * Total number of pages
      */
-    private int totalPages;
+    private Integer totalPages;
+    
+    /**
+     * Opaque cursor of the next page in cursor mode, absent on the last page
+     */
+    private String nextCursor;
 }
\ No newline at end of file
@@ -5,6 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -70,4 +71,89 @@ public class ReportDto {
         
         private String format;
     }
-} 
\ No newline at end of file
+    
+    /**
+     * DTO for a background export job
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ExportJobDto {
+        
+        private Long id;
+        
+        private String format;
+        
+        private String status;
+        
+        private String startDate;
+        
+        private String endDate;
+        
+        private String bookingStatus;
+        
+        private Long totalRows;
+        
+        private long rowsWritten;
+        
+        /**
+         * Percentage of rows written, 0-100; null until the row count is known
+         */
+        private Integer progress;
+        
+        private Long fileSize;
+        
+        private String error;
+        
+        private LocalDateTime createdAt;
+        
+        private LocalDateTime startedAt;
+        
+        private LocalDateTime completedAt;
+        
+        private LocalDateTime expiresAt;
+    }
+    
+    /**
+     * DTO for booking turnaround times of a service
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ServiceTurnaroundDto {
+        
+        private Long serviceId;
+        
+        private String serviceName;
+        
+        /**
+         * Time from creation to completion
+         */
+        private LatencyDto timeToComplete;
+        
+        /**
+         * Time spent in each status before leaving it, by status
+         */
+        private Map<String, LatencyDto> timeInStatus;
+    }
+    
+    /**
+     * DTO for latency percentiles, in seconds, accurate to within 10%
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LatencyDto {
+        
+        private long count;
+        
+        private Long p50Seconds;
+        
+        private Long p90Seconds;
+        
+        private Long p99Seconds;
+    }
+}
@@ -0,0 +1,15 @@
+package com.psnrwanda.api.event;
+
+import com.psnrwanda.api.model.Booking;
+import lombok.Value;
+
+/**
+ * A booking has been created
+ */
+@Value
+public class BookingCreatedEvent implements BookingEvent {
+    Long bookingId;
+    String trackingNumber;
+    Long serviceId;
+    Booking.BookingStatus status;
+}
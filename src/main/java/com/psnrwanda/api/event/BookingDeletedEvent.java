@@ -0,0 +1,19 @@
+package com.psnrwanda.api.event;
+
+import com.psnrwanda.api.model.Booking;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * A booking has been deleted, together with its document records
+ */
+@Value
+public class BookingDeletedEvent implements BookingEvent {
+    Long bookingId;
+    String trackingNumber;
+    Long serviceId;
+    Booking.BookingStatus status;
+    /** Storage paths of the documents that were attached to the booking */
+    List<String> documentPaths;
+}
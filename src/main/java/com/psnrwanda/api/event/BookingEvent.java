@@ -0,0 +1,22 @@
+package com.psnrwanda.api.event;
+
+/**
+ * Booking lifecycle event.
+ * <p>
+ * Events are published by {@code BookingService} inside the transaction that changes the booking and are
+ * delivered to {@code @TransactionalEventListener}s once it has committed, on the booking event executor.
+ * Writes that must commit atomically with the booking (counters, trends, status history, the notification
+ * outbox) stay in the transaction; listeners are for side effects that may lag slightly behind the write.
+ */
+public interface BookingEvent {
+
+    /**
+     * @return ID of the booking
+     */
+    Long getBookingId();
+
+    /**
+     * @return Tracking number of the booking
+     */
+    String getTrackingNumber();
+}
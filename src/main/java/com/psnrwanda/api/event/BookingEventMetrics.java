@@ -0,0 +1,66 @@
+package com.psnrwanda.api.event;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Runs booking event listeners and times them.
+ * Every run is recorded in {@code booking.events.listener{listener, event, outcome}}, with the outcome
+ * success, error or coalesced; a failing listener is logged and does not affect the other listeners of the event.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookingEventMetrics {
+
+    private static final String TIMER_NAME = "booking.events.listener";
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Run a listener for an event
+     *
+     * @param listener Listener name used as metric tag
+     * @param event Event being handled
+     * @param handler Listener body
+     */
+    public void handle(String listener, BookingEvent event, Runnable handler) {
+        handle(listener, event, () -> {
+            handler.run();
+            return true;
+        });
+    }
+
+    /**
+     * Run a listener that may fold the event into work already in progress instead of handling it itself
+     *
+     * @param listener Listener name used as metric tag
+     * @param event Event being handled
+     * @param handler Listener body; returns false if the event was coalesced
+     */
+    public void handle(String listener, BookingEvent event, BooleanSupplier handler) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            if (!handler.getAsBoolean()) {
+                outcome = "coalesced";
+            }
+        } catch (RuntimeException e) {
+            outcome = "error";
+            log.error("Booking event listener {} failed on {} for booking {}",
+                    listener, event.getClass().getSimpleName(), event.getBookingId(), e);
+        } finally {
+            sample.stop(Timer.builder(TIMER_NAME)
+                    .description("Time spent by booking event listeners")
+                    .tag("listener", listener)
+                    .tag("event", event.getClass().getSimpleName())
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.psnrwanda.api.event;
+
+import com.psnrwanda.api.model.Booking;
+import lombok.Value;
+
+/**
+ * The status of a booking has changed
+ */
+@Value
+public class BookingStatusChangedEvent implements BookingEvent {
+    Long bookingId;
+    String trackingNumber;
+    Long serviceId;
+    Booking.BookingStatus oldStatus;
+    Booking.BookingStatus newStatus;
+}
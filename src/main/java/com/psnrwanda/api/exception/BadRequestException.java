@@ -0,0 +1,19 @@
+package com.psnrwanda.api.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception thrown when a request is rejected because its parameters are invalid
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class BadRequestException extends RuntimeException {
+    
+    /**
+     * Constructor
+     * @param message Error message
+     */
+    public BadRequestException(String message) {
+        super(message);
+    }
+}
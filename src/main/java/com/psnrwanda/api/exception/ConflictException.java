@@ -0,0 +1,19 @@
+package com.psnrwanda.api.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception thrown when a request conflicts with the current state of a resource
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class ConflictException extends RuntimeException {
+    
+    /**
+     * Constructor
+     * @param message Error message
+     */
+    public ConflictException(String message) {
+        super(message);
+    }
+}
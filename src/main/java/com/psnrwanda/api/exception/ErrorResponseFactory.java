@@ -117,4 +117,21 @@ public class ErrorResponseFactory {
                 .timestamp(LocalDateTime.now().format(FORMATTER))
                 .build();
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Create an unprocessable entity error
+     *
+     * @param message error message
+     * @param path request path
+     * @return ApiError object
+     */
+    public static ApiError createUnprocessableEntityError(String message, String path) {
+        return ApiError.builder()
+                .status(HttpStatus.UNPROCESSABLE_ENTITY.value())
+                .error(HttpStatus.UNPROCESSABLE_ENTITY.getReasonPhrase())
+                .message(message)
+                .path(path)
+                .timestamp(LocalDateTime.now().format(FORMATTER))
+                .build();
+    }
+}
\ No newline at end of file
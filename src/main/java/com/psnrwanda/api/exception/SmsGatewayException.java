@@ -0,0 +1,36 @@
+package com.psnrwanda.api.exception;
+
+/**
+ * Exception thrown when the SMS gateway cannot be reached or does not accept a request
+ */
+public class SmsGatewayException extends RuntimeException {
+
+    /** HTTP status the gateway answered with, or 0 if there was no answer */
+    private final int status;
+
+    public SmsGatewayException(String message) {
+        this(message, 0);
+    }
+
+    public SmsGatewayException(String message, int status) {
+        super(message);
+        this.status = status;
+    }
+
+    public SmsGatewayException(String message, Throwable cause) {
+        super(message, cause);
+        this.status = 0;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * @return Whether the gateway refused the content of the request (400 or 422), e.g. because of an
+     *         invalid phone number, so sending it again unchanged cannot succeed
+     */
+    public boolean isRejected() {
+        return status == 400 || status == 422;
+    }
+}
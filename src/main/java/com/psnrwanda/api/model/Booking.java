@@ -1,6 +1,7 @@
 package com.psnrwanda.api.model;
 
 import com.psnrwanda.api.model.common.BaseEntity;
+import com.psnrwanda.api.model.common.PhoneNumbers;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -36,6 +37,12 @@ public class Booking extends BaseEntity {
     @Column(name = "phone_number", nullable = false, length = 20)
     private String phoneNumber;
     
+    /**
+     * E.164 form of the phone number used for tracking lookups, maintained from phoneNumber
+     */
+    @Column(name = "phone_normalized", nullable = false, length = 20)
+    private String phoneNormalized;
+    
     @Column(name = "email", length = 100, nullable = true)
     private String email;
     
@@ -69,6 +76,15 @@ public class Booking extends BaseEntity {
     @OneToMany(mappedBy = "booking", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<BookingDocument> documents = new ArrayList<>();
     
+    /**
+     * Keep the normalized phone number in sync with the phone number
+     */
+    @PrePersist
+    @PreUpdate
+    protected void normalizePhoneNumber() {
+        phoneNormalized = PhoneNumbers.normalize(phoneNumber);
+    }
+    
     /**
      * Add a document to this booking
      * @param document The document to add
@@ -0,0 +1,110 @@
+package com.psnrwanda.api.model;
+
+import com.psnrwanda.api.model.common.BaseEntity;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Bulk email sent to every customer of a segment.
+ * The recipients are snapshotted into {@code email_campaign_recipients} when the campaign starts; the counters
+ * here are updated after every chunk so progress survives a restart. A running campaign holds a lease that it
+ * renews as it goes, and a campaign whose lease has expired is resumed by the next scheduled check.
+ */
+@Entity
+@Table(name = "email_campaigns")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EmailCampaign extends BaseEntity {
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    /**
+     * Who receives the campaign
+     */
+    public enum Segment {
+        /** Every enabled registered user */
+        USERS,
+        /** Every customer with a booking, optionally restricted to a service and a booking status */
+        BOOKINGS
+    }
+
+    @Column(name = "name", nullable = false, length = 100)
+    private String name;
+
+    @Column(name = "subject", nullable = false, length = 200)
+    private String subject;
+
+    /**
+     * Email template name, without directory and extension
+     */
+    @Column(name = "template", nullable = false, length = 50)
+    private String template;
+
+    @Column(name = "message", nullable = false, columnDefinition = "TEXT")
+    private String message;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "segment", nullable = false, length = 20)
+    private Segment segment;
+
+    /**
+     * Optional service filter of the BOOKINGS segment
+     */
+    @Column(name = "service_id")
+    private Long serviceId;
+
+    /**
+     * Optional booking status filter of the BOOKINGS segment
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "booking_status", length = 20)
+    private Booking.BookingStatus bookingStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    @Builder.Default
+    private Status status = Status.QUEUED;
+
+    /**
+     * Distinct addresses in the segment when the campaign started; null until then
+     */
+    @Column(name = "total_recipients")
+    private Integer totalRecipients;
+
+    @Column(name = "sent_count", nullable = false)
+    private int sentCount;
+
+    @Column(name = "failed_count", nullable = false)
+    private int failedCount;
+
+    /**
+     * Recipients whose email was being sent when a previous run stopped; they are not sent again
+     */
+    @Column(name = "unknown_count", nullable = false)
+    private int unknownCount;
+
+    /**
+     * Until when the instance running the campaign owns it
+     */
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+
+    @Column(name = "error", columnDefinition = "TEXT")
+    private String error;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+}
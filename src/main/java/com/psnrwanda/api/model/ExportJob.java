@@ -0,0 +1,91 @@
+package com.psnrwanda.api.model;
+
+import com.psnrwanda.api.model.common.BaseEntity;
+import com.psnrwanda.api.model.common.ExportFormat;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Booking export rendered in the background.
+ * The finished file is kept on disk until {@code expiresAt}, after which the retention sweep deletes it with the row.
+ */
+@Entity
+@Table(name = "export_jobs")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExportJob extends BaseEntity {
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "format", nullable = false, length = 10)
+    private ExportFormat format;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    @Builder.Default
+    private Status status = Status.QUEUED;
+
+    /**
+     * First day of the exported range, inclusive
+     */
+    @Column(name = "start_date", nullable = false)
+    private LocalDate startDate;
+
+    /**
+     * Last day of the exported range, inclusive
+     */
+    @Column(name = "end_date", nullable = false)
+    private LocalDate endDate;
+
+    /**
+     * Optional booking status filter
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "booking_status", length = 20)
+    private Booking.BookingStatus bookingStatus;
+
+    /**
+     * Bookings matching the filter when the job started
+     */
+    @Column(name = "total_rows")
+    private Long totalRows;
+
+    @Column(name = "rows_written", nullable = false)
+    private long rowsWritten;
+
+    /**
+     * Name of the finished file in the export directory
+     */
+    @Column(name = "file_name")
+    private String fileName;
+
+    @Column(name = "file_size")
+    private Long fileSize;
+
+    @Column(name = "error", columnDefinition = "TEXT")
+    private String error;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    /**
+     * When the job and its file are deleted; set once the job has finished
+     */
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+}
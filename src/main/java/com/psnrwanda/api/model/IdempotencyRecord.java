@@ -0,0 +1,61 @@
+package com.psnrwanda.api.model;
+
+import com.psnrwanda.api.model.common.BaseEntity;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity recording the outcome of a request sent with an Idempotency-Key header,
+ * so that retries of the same request can be answered without executing it again
+ */
+@Entity
+@Table(name = "idempotency_keys", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_idempotency_keys_scope_key", columnNames = {"client_scope", "idempotency_key"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyRecord extends BaseEntity {
+
+    public enum Status {
+        IN_PROGRESS,
+        COMPLETED
+    }
+
+    /** Caller the key belongs to: user name, or client IP for anonymous requests */
+    @Column(name = "client_scope", nullable = false, length = 100)
+    private String clientScope;
+
+    @Column(name = "idempotency_key", nullable = false)
+    private String idempotencyKey;
+
+    @Column(name = "request_method", nullable = false, length = 10)
+    private String requestMethod;
+
+    @Column(name = "request_path", nullable = false)
+    private String requestPath;
+
+    /** Hex SHA-256 of the request body */
+    @Column(name = "request_hash", length = 64)
+    private String requestHash;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private Status status;
+
+    @Column(name = "response_status")
+    private Integer responseStatus;
+
+    @Column(name = "response_content_type")
+    private String responseContentType;
+
+    @Column(name = "response_body")
+    private byte[] responseBody;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
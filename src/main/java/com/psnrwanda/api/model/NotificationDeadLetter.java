@@ -0,0 +1,59 @@
+package com.psnrwanda.api.model;
+
+import com.psnrwanda.api.model.common.BaseEntity;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Notification that exhausted its delivery attempts.
+ * It is moved here out of the outbox so it is no longer retried, and can be replayed by an admin.
+ */
+@Entity
+@Table(name = "notification_dead_letter")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NotificationDeadLetter extends BaseEntity {
+
+    /**
+     * ID the notification had in the outbox
+     */
+    @Column(name = "outbox_id", nullable = false)
+    private Long outboxId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "notification_type", nullable = false, length = 50)
+    private OutboxNotification.NotificationType type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "channel", nullable = false, length = 10)
+    private OutboxNotification.Channel channel;
+
+    @Column(name = "recipient", nullable = false)
+    private String recipient;
+
+    @Column(name = "booking_id")
+    private Long bookingId;
+
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(name = "failed_at", nullable = false)
+    private LocalDateTime failedAt;
+
+    /**
+     * When an admin queued the notification again, null while it is still dead
+     */
+    @Column(name = "replayed_at")
+    private LocalDateTime replayedAt;
+}
@@ -0,0 +1,106 @@
+package com.psnrwanda.api.model;
+
+import com.psnrwanda.api.model.common.BaseEntity;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Notification queued in the transactional outbox.
+ * Rows are written in the same transaction as the booking that triggers them
+ * and delivered afterwards by the outbox dispatcher.
+ */
+@Entity
+@Table(name = "notification_outbox")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxNotification extends BaseEntity {
+
+    /**
+     * Delivery channel; each channel is dispatched by its own worker pool
+     */
+    public enum Channel {
+        EMAIL,
+        SMS
+    }
+
+    public enum NotificationType {
+        BOOKING_CONFIRMATION(Channel.EMAIL),
+        ADMIN_BOOKING_NOTIFICATION(Channel.EMAIL),
+        /** Summary of several new bookings for the provider; the payload is a JSON array of bookings */
+        ADMIN_BOOKING_DIGEST(Channel.EMAIL),
+        BOOKING_CONFIRMATION_SMS(Channel.SMS),
+        BOOKING_STATUS_SMS(Channel.SMS);
+
+        private final Channel channel;
+
+        NotificationType(Channel channel) {
+            this.channel = channel;
+        }
+
+        public Channel getChannel() {
+            return channel;
+        }
+    }
+
+    /**
+     * Notifications that exhaust their attempts are moved to the dead-letter table instead of staying here
+     */
+    public enum DeliveryStatus {
+        /** Waiting to be flushed into a provider digest; never claimed by the dispatcher */
+        BUFFERED,
+        PENDING,
+        PROCESSING,
+        SENT,
+        /** Not delivered because its channel is disabled; final, like SENT */
+        SKIPPED
+    }
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "notification_type", nullable = false, length = 50)
+    private NotificationType type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "channel", nullable = false, length = 10)
+    private Channel channel;
+
+    @Column(name = "recipient", nullable = false)
+    private String recipient;
+
+    /**
+     * The booking this notification is about (informational, not a foreign key)
+     */
+    @Column(name = "booking_id")
+    private Long bookingId;
+
+    /**
+     * JSON payload used to render the notification
+     */
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    @Builder.Default
+    private DeliveryStatus status = DeliveryStatus.PENDING;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    /**
+     * When the notification becomes due. While PROCESSING this is the lease expiry,
+     * after which another dispatcher may reclaim the row.
+     */
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+}
@@ -8,7 +8,9 @@ import lombok.Getter;
 import lombok.Setter;
 
 /**
- * Base entity class with ID and auditing fields
+ * Base entity class with ID and auditing fields.
+ * IDs come from a per-entity sequence ({@code <entity>_seq}, incremented by 50) with a pooled-lo
+ * optimizer, so Hibernate can assign IDs in memory and batch inserts.
  */
 @Getter
 @Setter
@@ -16,6 +18,6 @@ import lombok.Setter;
 public abstract class BaseEntity extends Auditable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
     private Long id;
 } 
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.psnrwanda.api.model.common;
+
+import com.psnrwanda.api.exception.BadRequestException;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * File formats supported by the booking exports
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ExportFormat {
+
+    CSV("csv", "text/csv"),
+    XLSX("xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"),
+    PDF("pdf", "application/pdf");
+
+    private final String extension;
+    private final String contentType;
+
+    /**
+     * Parse a format name
+     * @param format Format name, case insensitive; null or empty for CSV
+     * @return Export format
+     * @throws BadRequestException If the format is not supported
+     */
+    public static ExportFormat parse(String format) {
+        if (format == null || format.isEmpty()) {
+            return CSV;
+        }
+        try {
+            return valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid export format: " + format);
+        }
+    }
+}
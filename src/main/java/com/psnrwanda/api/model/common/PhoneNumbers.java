@@ -0,0 +1,50 @@
+package com.psnrwanda.api.model.common;
+
+/**
+ * Phone number normalization for matching the same customer across input formats.
+ * Rwandan numbers written as {@code 0788 123 456}, {@code 250788123456}, {@code 788123456} or
+ * {@code +250 788 123 456} all normalize to the E.164 form {@code +250788123456}.
+ * Must stay in sync with the backfill in the V11 migration.
+ */
+public final class PhoneNumbers {
+
+    private static final String RWANDA_COUNTRY_CODE = "250";
+
+    private PhoneNumbers() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Normalize a phone number to E.164, assuming Rwanda when no country code is given
+     * @param phoneNumber Phone number as entered
+     * @return Normalized phone number, or the trimmed input if it has no digits
+     */
+    public static String normalize(String phoneNumber) {
+        if (phoneNumber == null) {
+            return null;
+        }
+
+        String trimmed = phoneNumber.trim();
+        String digits = trimmed.replaceAll("[^0-9]", "");
+        if (digits.isEmpty()) {
+            return trimmed;
+        }
+
+        if (trimmed.startsWith("+")) {
+            return "+" + digits;
+        }
+        if (digits.startsWith("00")) {
+            return "+" + digits.substring(2);
+        }
+        if (digits.length() == 12 && digits.startsWith(RWANDA_COUNTRY_CODE)) {
+            return "+" + digits;
+        }
+        if (digits.length() == 10 && digits.startsWith("0")) {
+            return "+" + RWANDA_COUNTRY_CODE + digits.substring(1);
+        }
+        if (digits.length() == 9) {
+            return "+" + RWANDA_COUNTRY_CODE + digits;
+        }
+        return digits;
+    }
+}
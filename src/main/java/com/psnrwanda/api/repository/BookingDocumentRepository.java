@@ -1,9 +1,15 @@
 package com.psnrwanda.api.repository;
 
+import com.psnrwanda.api.model.Booking;
 import com.psnrwanda.api.model.BookingDocument;
+import com.psnrwanda.api.repository.projection.BookingDocumentRow;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -18,4 +24,25 @@ public interface BookingDocumentRepository extends JpaRepository<BookingDocument
      * @return List of documents
      */
     List<BookingDocument> findByBookingId(Long bookingId);
-} 
\ No newline at end of file
+    
+    /**
+     * Link unattached documents to a booking in a single statement.
+     * Pending inserts are flushed first so the booking row exists for the foreign key.
+     * @param booking The booking
+     * @param ids Document IDs
+     * @return Number of documents linked
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE BookingDocument d SET d.booking = :booking WHERE d.id IN :ids AND d.booking IS NULL")
+    int attachToBooking(@Param("booking") Booking booking, @Param("ids") Collection<Long> ids);
+    
+    /**
+     * Find the documents of several bookings in a single query
+     * @param bookingIds Booking IDs
+     * @return Document rows, ordered by booking and upload order
+     */
+    @Query("SELECT new com.psnrwanda.api.repository.projection.BookingDocumentRow(" +
+            "d.booking.id, d.id, d.fileName, d.filePath, d.fileType, d.fileSize) " +
+            "FROM BookingDocument d WHERE d.booking.id IN :bookingIds ORDER BY d.booking.id, d.id")
+    List<BookingDocumentRow> findRowsByBookingIdIn(@Param("bookingIds") Collection<Long> bookingIds);
+}
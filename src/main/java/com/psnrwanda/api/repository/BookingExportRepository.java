@@ -0,0 +1,114 @@
+package com.psnrwanda.api.repository;
+
+import com.psnrwanda.api.model.Booking;
+import com.psnrwanda.api.repository.projection.BookingExportRow;
+import lombok.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Repository streaming bookings for report exports.
+ * <p>
+ * Rows are read through a forward-only cursor: the PostgreSQL driver only fetches {@link #FETCH_SIZE}
+ * rows at a time when the statement runs inside a transaction, so exports of any size use a flat heap.
+ */
+@Repository
+public class BookingExportRepository {
+
+    /**
+     * Rows fetched per round trip while streaming
+     */
+    static final int FETCH_SIZE = 1000;
+
+    private static final String SELECT_SQL = "SELECT b.id, b.tracking_number, b.phone_number, b.service_id, " +
+            "s.title AS service_name, b.email, b.full_name, b.status, b.notes, b.created_at, b.updated_at " +
+            "FROM bookings b JOIN services s ON s.id = b.service_id";
+    private static final String COUNT_SQL = "SELECT COUNT(*) FROM bookings b";
+    private static final String WHERE_SQL = " WHERE b.created_at >= ? AND b.created_at < ?";
+    private static final String STATUS_SQL = " AND b.status = ?";
+    private static final String ORDER_SQL = " ORDER BY b.created_at DESC, b.id DESC";
+
+    /**
+     * Export filter
+     */
+    @Value
+    public static class Filter {
+        /** Inclusive lower bound of the creation time */
+        LocalDateTime from;
+        /** Exclusive upper bound of the creation time */
+        LocalDateTime to;
+        /** Optional status */
+        Booking.BookingStatus status;
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructor
+     * @param dataSource Data source
+     */
+    public BookingExportRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+    }
+
+    /**
+     * Stream the bookings matching a filter, newest first
+     * @param filter Export filter
+     * @param consumer Called for every row, in order
+     */
+    @Transactional(readOnly = true)
+    public void forEach(Filter filter, Consumer<BookingExportRow> consumer) {
+        StringBuilder sql = new StringBuilder(SELECT_SQL);
+        List<Object> args = appendWhere(sql, filter);
+        sql.append(ORDER_SQL);
+
+        jdbcTemplate.query(sql.toString(), rs -> {
+            Timestamp updatedAt = rs.getTimestamp("updated_at");
+            consumer.accept(new BookingExportRow(
+                    rs.getLong("id"),
+                    rs.getString("tracking_number"),
+                    rs.getString("phone_number"),
+                    rs.getLong("service_id"),
+                    rs.getString("service_name"),
+                    rs.getString("email"),
+                    rs.getString("full_name"),
+                    rs.getString("status"),
+                    rs.getString("notes"),
+                    rs.getTimestamp("created_at").toLocalDateTime(),
+                    updatedAt != null ? updatedAt.toLocalDateTime() : null));
+        }, args.toArray());
+    }
+
+    /**
+     * Count the bookings matching a filter
+     * @param filter Export filter
+     * @return Number of bookings
+     */
+    public long count(Filter filter) {
+        StringBuilder sql = new StringBuilder(COUNT_SQL);
+        List<Object> args = appendWhere(sql, filter);
+        Long count = jdbcTemplate.queryForObject(sql.toString(), Long.class, args.toArray());
+        return count != null ? count : 0;
+    }
+
+    private static List<Object> appendWhere(StringBuilder sql, Filter filter) {
+        sql.append(WHERE_SQL);
+        List<Object> args = new ArrayList<>();
+        args.add(Timestamp.valueOf(filter.getFrom()));
+        args.add(Timestamp.valueOf(filter.getTo()));
+        if (filter.getStatus() != null) {
+            sql.append(STATUS_SQL);
+            args.add(filter.getStatus().name());
+        }
+        return args;
+    }
+}
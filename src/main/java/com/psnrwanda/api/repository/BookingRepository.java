@@ -2,11 +2,15 @@ package com.psnrwanda.api.repository;
 
 import com.psnrwanda.api.model.Booking;
 import com.psnrwanda.api.model.User;
+import com.psnrwanda.api.repository.projection.BookingRow;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,20 +21,20 @@ import java.util.Optional;
 public interface BookingRepository extends JpaRepository<Booking, Long> {
     
     /**
-     * Find all bookings by user
-     * @param user The user
-     * @param pageable Pagination information
-     * @return Page of bookings
+     * Select clause shared by the booking row projections.
+     * The service is joined for its title; the user ID is read from the foreign key column.
      */
-    Page<Booking> findByUser(User user, Pageable pageable);
+    String BOOKING_ROW_SELECT = "SELECT new com.psnrwanda.api.repository.projection.BookingRow(" +
+            "b.id, b.trackingNumber, b.phoneNumber, s.id, s.title, b.email, b.fullName, b.notes, b.status, " +
+            "b.user.id, b.createdAt, b.updatedAt) FROM Booking b JOIN b.service s";
     
     /**
-     * Find all bookings by phone number
-     * @param phoneNumber The phone number
+     * Find all bookings by user
+     * @param user The user
      * @param pageable Pagination information
      * @return Page of bookings
      */
-    Page<Booking> findByPhoneNumber(String phoneNumber, Pageable pageable);
+    Page<Booking> findByUser(User user, Pageable pageable);
     
     /**
      * Find all bookings by status
@@ -54,14 +58,6 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
      */
     Long countByStatus(Booking.BookingStatus status);
     
-    /**
-     * Find bookings by phone number ordered by creation date descending
-     *
-     * @param phoneNumber the phone number
-     * @return list of bookings
-     */
-    List<Booking> findByPhoneNumberOrderByCreatedAtDesc(String phoneNumber);
-    
     /**
      * Find bookings by user ID ordered by creation date descending
      *
@@ -70,16 +66,128 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
      */
     List<Booking> findByUserIdOrderByCreatedAtDesc(Long userId);
     
-    /**
-     * Find the booking with the highest tracking number
-     * @return Optional booking with the highest tracking number
-     */
-    Optional<Booking> findTopByOrderByTrackingNumberDesc();
-    
     /**
      * Find a booking by its tracking number
      * @param trackingNumber The tracking number
      * @return Optional booking
      */
     Optional<Booking> findByTrackingNumber(String trackingNumber);
-} 
\ No newline at end of file
+    
+    /**
+     * Find the booking row for a tracking number
+     * @param trackingNumber The tracking number
+     * @return Optional booking row
+     */
+    @Query(BOOKING_ROW_SELECT + " WHERE b.trackingNumber = :trackingNumber")
+    Optional<BookingRow> findRowByTrackingNumber(@Param("trackingNumber") String trackingNumber);
+    
+    /**
+     * Find a page of booking rows
+     * @param pageable Pagination information
+     * @return Page of booking rows
+     */
+    @Query(value = BOOKING_ROW_SELECT,
+            countQuery = "SELECT count(b) FROM Booking b")
+    Page<BookingRow> findAllRows(Pageable pageable);
+    
+    /**
+     * Find a page of booking rows by status
+     * @param status The booking status
+     * @param pageable Pagination information
+     * @return Page of booking rows
+     */
+    @Query(value = BOOKING_ROW_SELECT + " WHERE b.status = :status",
+            countQuery = "SELECT count(b) FROM Booking b WHERE b.status = :status")
+    Page<BookingRow> findRowsByStatus(@Param("status") Booking.BookingStatus status, Pageable pageable);
+    
+    /**
+     * Find a page of booking rows by user
+     * @param userId The user ID
+     * @param pageable Pagination information
+     * @return Page of booking rows
+     */
+    @Query(value = BOOKING_ROW_SELECT + " WHERE b.user.id = :userId",
+            countQuery = "SELECT count(b) FROM Booking b WHERE b.user.id = :userId")
+    Page<BookingRow> findRowsByUserId(@Param("userId") Long userId, Pageable pageable);
+    
+    /**
+     * Find a page of booking rows by normalized phone number
+     * @param phoneNormalized The phone number in E.164 form
+     * @param pageable Pagination information
+     * @return Page of booking rows
+     */
+    @Query(value = BOOKING_ROW_SELECT + " WHERE b.phoneNormalized = :phoneNormalized",
+            countQuery = "SELECT count(b) FROM Booking b WHERE b.phoneNormalized = :phoneNormalized")
+    Page<BookingRow> findRowsByPhoneNormalized(@Param("phoneNormalized") String phoneNormalized, Pageable pageable);
+    
+    /**
+     * Find booking rows by normalized phone number, newest first
+     * @param phoneNormalized The phone number in E.164 form
+     * @return List of booking rows
+     */
+    @Query(BOOKING_ROW_SELECT + " WHERE b.phoneNormalized = :phoneNormalized ORDER BY b.createdAt DESC, b.id DESC")
+    List<BookingRow> findRowsByPhoneNormalizedOrderByCreatedAtDesc(@Param("phoneNormalized") String phoneNormalized);
+    
+    /**
+     * Find booking rows by user ID, newest first
+     * @param userId The user ID
+     * @return List of booking rows
+     */
+    @Query(BOOKING_ROW_SELECT + " WHERE b.user.id = :userId ORDER BY b.createdAt DESC")
+    List<BookingRow> findRowsByUserIdOrderByCreatedAtDesc(@Param("userId") Long userId);
+    
+    /**
+     * Keyset condition and order shared by the cursor queries; matches the idx_bookings_*_created_at_id indexes
+     */
+    String KEYSET_SEEK = " (b.createdAt, b.id) < (:createdAt, :id) ORDER BY b.createdAt DESC, b.id DESC";
+    
+    /**
+     * Find booking rows after a keyset cursor, without counting
+     * @param createdAt Creation time of the last row of the previous page
+     * @param id ID of the last row of the previous page
+     * @param limit Page carrying the maximum number of rows
+     * @return Booking rows, newest first
+     */
+    @Query(BOOKING_ROW_SELECT + " WHERE" + KEYSET_SEEK)
+    List<BookingRow> findRowsBefore(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+                                    Pageable limit);
+    
+    /**
+     * Find booking rows by status after a keyset cursor, without counting
+     * @param status The booking status
+     * @param createdAt Creation time of the last row of the previous page
+     * @param id ID of the last row of the previous page
+     * @param limit Page carrying the maximum number of rows
+     * @return Booking rows, newest first
+     */
+    @Query(BOOKING_ROW_SELECT + " WHERE b.status = :status AND" + KEYSET_SEEK)
+    List<BookingRow> findRowsByStatusBefore(@Param("status") Booking.BookingStatus status,
+                                            @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+                                            Pageable limit);
+    
+    /**
+     * Find booking rows by user after a keyset cursor, without counting
+     * @param userId The user ID
+     * @param createdAt Creation time of the last row of the previous page
+     * @param id ID of the last row of the previous page
+     * @param limit Page carrying the maximum number of rows
+     * @return Booking rows, newest first
+     */
+    @Query(BOOKING_ROW_SELECT + " WHERE b.user.id = :userId AND" + KEYSET_SEEK)
+    List<BookingRow> findRowsByUserIdBefore(@Param("userId") Long userId,
+                                            @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+                                            Pageable limit);
+    
+    /**
+     * Find booking rows by normalized phone number after a keyset cursor, without counting
+     * @param phoneNormalized The phone number in E.164 form
+     * @param createdAt Creation time of the last row of the previous page
+     * @param id ID of the last row of the previous page
+     * @param limit Page carrying the maximum number of rows
+     * @return Booking rows, newest first
+     */
+    @Query(BOOKING_ROW_SELECT + " WHERE b.phoneNormalized = :phoneNormalized AND" + KEYSET_SEEK)
+    List<BookingRow> findRowsByPhoneNormalizedBefore(@Param("phoneNormalized") String phoneNormalized,
+                                                     @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+                                                     Pageable limit);
+}
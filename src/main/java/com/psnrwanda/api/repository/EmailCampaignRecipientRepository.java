@@ -0,0 +1,168 @@
+package com.psnrwanda.api.repository;
+
+import com.psnrwanda.api.model.Booking;
+import lombok.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Repository of the recipients of email campaigns.
+ * <p>
+ * A recipient moves from PENDING to SENDING in its own committed statement before its email is handed to the
+ * mail server, and to SENT or FAILED once the server has answered. Rows left in SENDING by a run that stopped
+ * are marked UNKNOWN when the campaign resumes, so no address is ever sent the same campaign twice.
+ */
+@Repository
+public class EmailCampaignRecipientRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO email_campaign_recipients (campaign_id, email, full_name) ";
+    /** Enabled users; emails are unique per user but compared case-insensitively across the segment */
+    private static final String USERS_SQL = "SELECT DISTINCT ON (lower(u.email)) ?, u.email, u.full_name " +
+            "FROM users u WHERE u.enabled = TRUE " +
+            "ORDER BY lower(u.email), u.id";
+    /** Customers with a booking, named after their most recent one */
+    private static final String BOOKINGS_SQL = "SELECT DISTINCT ON (lower(b.email)) ?, b.email, b.full_name " +
+            "FROM bookings b WHERE b.email IS NOT NULL AND b.email <> ''";
+    private static final String SERVICE_SQL = " AND b.service_id = ?";
+    private static final String STATUS_SQL = " AND b.status = ?";
+    private static final String BOOKINGS_ORDER_SQL = " ORDER BY lower(b.email), b.created_at DESC, b.id DESC";
+    private static final String CONFLICT_SQL = " ON CONFLICT DO NOTHING";
+
+    /**
+     * Keyset page of pending recipients, claimed in the same statement. Starting after the last claimed ID
+     * keeps the index scan from walking over the entries of rows already sent in this run.
+     */
+    private static final String CLAIM_SQL = "UPDATE email_campaign_recipients SET status = 'SENDING' " +
+            "WHERE id IN (SELECT id FROM email_campaign_recipients " +
+            "WHERE campaign_id = ? AND status = 'PENDING' AND id > ? ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "RETURNING id, email, full_name";
+
+    /**
+     * A recipient claimed for sending
+     */
+    @Value
+    public static class Recipient {
+        Long id;
+        String email;
+        String fullName;
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructor
+     * @param dataSource Data source
+     */
+    public EmailCampaignRecipientRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Snapshot the enabled users as recipients of a campaign
+     * @param campaignId Campaign ID
+     * @return Number of recipients added
+     */
+    public int snapshotUsers(Long campaignId) {
+        return jdbcTemplate.update(INSERT_SQL + USERS_SQL + CONFLICT_SQL, campaignId);
+    }
+
+    /**
+     * Snapshot the customers with a matching booking as recipients of a campaign, one per address
+     * @param campaignId Campaign ID
+     * @param serviceId Optional service
+     * @param status Optional booking status
+     * @return Number of recipients added
+     */
+    public int snapshotBookings(Long campaignId, Long serviceId, Booking.BookingStatus status) {
+        StringBuilder sql = new StringBuilder(INSERT_SQL).append(BOOKINGS_SQL);
+        List<Object> args = new ArrayList<>();
+        args.add(campaignId);
+        if (serviceId != null) {
+            sql.append(SERVICE_SQL);
+            args.add(serviceId);
+        }
+        if (status != null) {
+            sql.append(STATUS_SQL);
+            args.add(status.name());
+        }
+        sql.append(BOOKINGS_ORDER_SQL).append(CONFLICT_SQL);
+        return jdbcTemplate.update(sql.toString(), args.toArray());
+    }
+
+    /**
+     * Claim the next pending recipients of a campaign for sending.
+     * Runs as its own statement, so the claim is committed before any email is sent.
+     *
+     * @param campaignId Campaign ID
+     * @param afterId Only recipients with a larger ID are claimed
+     * @param limit Maximum number of recipients
+     * @return Claimed recipients in ID order
+     */
+    public List<Recipient> claimPending(Long campaignId, long afterId, int limit) {
+        List<Recipient> recipients = jdbcTemplate.query(CLAIM_SQL,
+                (rs, rowNum) -> new Recipient(rs.getLong("id"), rs.getString("email"), rs.getString("full_name")),
+                campaignId, afterId, limit);
+        recipients.sort(Comparator.comparing(Recipient::getId));
+        return recipients;
+    }
+
+    /**
+     * Mark the recipients left in SENDING by a run that stopped as UNKNOWN
+     * @param campaignId Campaign ID
+     * @return Number of recipients marked
+     */
+    public int markInFlightUnknown(Long campaignId) {
+        return jdbcTemplate.update("UPDATE email_campaign_recipients SET status = 'UNKNOWN' " +
+                "WHERE campaign_id = ? AND status = 'SENDING'", campaignId);
+    }
+
+    /**
+     * Mark recipients whose email the mail server accepted as sent
+     * @param ids Recipient IDs
+     * @param sentAt Time of sending
+     * @return Number of recipients marked
+     */
+    public int markSent(List<Long> ids, LocalDateTime sentAt) {
+        Timestamp timestamp = Timestamp.valueOf(sentAt);
+        return sum(jdbcTemplate.batchUpdate("UPDATE email_campaign_recipients SET status = 'SENT', sent_at = ?, error = NULL " +
+                        "WHERE id = ? AND status = 'SENDING'",
+                ids.stream().map(id -> new Object[]{timestamp, id}).toList()));
+    }
+
+    /**
+     * Mark recipients whose email could not be built or was rejected as failed
+     * @param errors Error message by recipient ID
+     * @return Number of recipients marked
+     */
+    public int markFailed(Map<Long, String> errors) {
+        return sum(jdbcTemplate.batchUpdate("UPDATE email_campaign_recipients SET status = 'FAILED', error = ? " +
+                        "WHERE id = ? AND status = 'SENDING'",
+                errors.entrySet().stream().map(e -> new Object[]{e.getValue(), e.getKey()}).toList()));
+    }
+
+    /**
+     * Return claimed recipients whose email was never delivered to the mail server to PENDING
+     * @param ids Recipient IDs
+     */
+    public void release(List<Long> ids) {
+        jdbcTemplate.batchUpdate("UPDATE email_campaign_recipients SET status = 'PENDING' " +
+                        "WHERE id = ? AND status = 'SENDING'",
+                ids.stream().map(id -> new Object[]{id}).toList());
+    }
+
+    private static int sum(int[] updateCounts) {
+        int total = 0;
+        for (int count : updateCounts) {
+            total += Math.max(count, 0);
+        }
+        return total;
+    }
+}
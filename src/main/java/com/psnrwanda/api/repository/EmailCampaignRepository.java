@@ -0,0 +1,47 @@
+package com.psnrwanda.api.repository;
+
+import com.psnrwanda.api.model.EmailCampaign;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository for EmailCampaign entity
+ */
+@Repository
+public interface EmailCampaignRepository extends JpaRepository<EmailCampaign, Long> {
+
+    /**
+     * Find the campaigns waiting to run: queued ones, and running ones whose lease has expired
+     * @param now Current time
+     * @return Campaign IDs, oldest first
+     */
+    @Query(value = "SELECT id FROM email_campaigns " +
+            "WHERE status = 'QUEUED' OR (status = 'RUNNING' AND lease_until < :now) " +
+            "ORDER BY id", nativeQuery = true)
+    List<Long> findRunnableIds(@Param("now") LocalDateTime now);
+
+    /**
+     * Lock a campaign, unless another instance holds the lock
+     * @param id Campaign ID
+     * @return The locked campaign, or empty if it does not exist or is locked
+     */
+    @Query(value = "SELECT * FROM email_campaigns WHERE id = :id FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    Optional<EmailCampaign> lockById(@Param("id") Long id);
+
+    /**
+     * Lock a campaign, waiting for another instance holding the lock
+     * @param id Campaign ID
+     * @return The locked campaign
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM EmailCampaign c WHERE c.id = :id")
+    Optional<EmailCampaign> findByIdForUpdate(@Param("id") Long id);
+}
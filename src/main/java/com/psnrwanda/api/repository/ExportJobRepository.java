@@ -0,0 +1,101 @@
+package com.psnrwanda.api.repository;
+
+import com.psnrwanda.api.model.ExportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository for ExportJob entity.
+ * <p>
+ * Status changes of a job are conditional updates on its current status, so an instance finishing a job
+ * and another instance failing it as stalled cannot overwrite each other.
+ */
+@Repository
+public interface ExportJobRepository extends JpaRepository<ExportJob, Long> {
+
+    /**
+     * Find finished jobs whose retention period has passed
+     * @param now Current time
+     * @return Expired jobs
+     */
+    List<ExportJob> findByExpiresAtBefore(LocalDateTime now);
+
+    /**
+     * Find jobs in the given states last updated before a point in time
+     * @param statuses Job statuses
+     * @param updatedBefore Last update time bound
+     * @return Matching jobs
+     */
+    List<ExportJob> findByStatusInAndUpdatedAtBefore(Collection<ExportJob.Status> statuses, LocalDateTime updatedBefore);
+
+    /**
+     * Record that an unfinished job is still alive on its instance, with its progress
+     * @param id Job ID
+     * @param rowsWritten Rows written so far
+     * @param now Current time
+     * @return 1, or 0 if the job is no longer unfinished
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE export_jobs SET rows_written = :rowsWritten, updated_at = :now " +
+            "WHERE id = :id AND status IN ('QUEUED', 'RUNNING')", nativeQuery = true)
+    int heartbeat(@Param("id") Long id, @Param("rowsWritten") long rowsWritten, @Param("now") LocalDateTime now);
+
+    /**
+     * Move a queued job to running
+     * @param id Job ID
+     * @param totalRows Rows the export will write
+     * @param now Current time
+     * @return 1, or 0 if the job is no longer queued
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE export_jobs SET status = 'RUNNING', total_rows = :totalRows, started_at = :now, " +
+            "updated_at = :now WHERE id = :id AND status = 'QUEUED'", nativeQuery = true)
+    int start(@Param("id") Long id, @Param("totalRows") long totalRows, @Param("now") LocalDateTime now);
+
+    /**
+     * Complete a running job
+     * @param id Job ID
+     * @param rowsWritten Rows written
+     * @param fileName Name of the export file
+     * @param fileSize Size of the export file
+     * @param now Current time
+     * @param expiresAt End of the retention period
+     * @return 1, or 0 if the job is no longer running, e.g. because it was failed as stalled
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE export_jobs SET status = 'COMPLETED', rows_written = :rowsWritten, file_name = :fileName, " +
+            "file_size = :fileSize, completed_at = :now, expires_at = :expiresAt, updated_at = :now " +
+            "WHERE id = :id AND status = 'RUNNING'", nativeQuery = true)
+    int complete(@Param("id") Long id, @Param("rowsWritten") long rowsWritten, @Param("fileName") String fileName,
+                 @Param("fileSize") long fileSize, @Param("now") LocalDateTime now,
+                 @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Fail an unfinished job whose instance has stopped reporting on it
+     * @param id Job ID
+     * @param error Failure description
+     * @param stalledBefore The job is only failed if it was last updated before this time
+     * @param now Current time
+     * @param expiresAt End of the retention period
+     * @return 1, or 0 if the job has finished or reported meanwhile
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE export_jobs SET status = 'FAILED', error = :error, completed_at = :now, " +
+            "expires_at = :expiresAt, updated_at = :now " +
+            "WHERE id = :id AND status IN ('QUEUED', 'RUNNING') AND updated_at < :stalledBefore", nativeQuery = true)
+    int failStalled(@Param("id") Long id, @Param("error") String error,
+                    @Param("stalledBefore") LocalDateTime stalledBefore, @Param("now") LocalDateTime now,
+                    @Param("expiresAt") LocalDateTime expiresAt);
+}
@@ -0,0 +1,45 @@
+package com.psnrwanda.api.repository;
+
+import com.psnrwanda.api.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Repository for IdempotencyRecord entity
+ */
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+
+    /**
+     * Find the record for an idempotency key
+     * @param clientScope Caller the key belongs to
+     * @param idempotencyKey The client supplied key
+     * @return Optional record
+     */
+    Optional<IdempotencyRecord> findByClientScopeAndIdempotencyKey(String clientScope, String idempotencyKey);
+
+    /**
+     * Delete the record for an idempotency key
+     * @param clientScope Caller the key belongs to
+     * @param idempotencyKey The client supplied key
+     * @return Number of records deleted
+     */
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.clientScope = :scope AND r.idempotencyKey = :key")
+    int deleteByKey(@Param("scope") String clientScope, @Param("key") String idempotencyKey);
+
+    /**
+     * Delete records whose retention period has passed
+     * @param now Current time
+     * @return Number of records deleted
+     */
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,21 @@
+package com.psnrwanda.api.repository;
+
+import com.psnrwanda.api.model.NotificationDeadLetter;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for NotificationDeadLetter entity
+ */
+@Repository
+public interface NotificationDeadLetterRepository extends JpaRepository<NotificationDeadLetter, Long> {
+
+    /**
+     * Find the dead letters that have not been replayed yet
+     * @param pageable Pagination information
+     * @return Page of dead letters
+     */
+    Page<NotificationDeadLetter> findByReplayedAtIsNull(Pageable pageable);
+}
@@ -0,0 +1,46 @@
+package com.psnrwanda.api.repository;
+
+import com.psnrwanda.api.model.OutboxNotification;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository for OutboxNotification entity
+ */
+@Repository
+public interface OutboxNotificationRepository extends JpaRepository<OutboxNotification, Long> {
+
+    /**
+     * Lock due notifications of a channel for delivery, skipping rows already locked by other dispatchers.
+     * Rows stuck in PROCESSING are picked up again once their lease has expired.
+     * @param channel Channel name
+     * @param now Current time
+     * @param limit Maximum number of rows to lock
+     * @return Locked notifications
+     */
+    @Query(value = "SELECT * FROM notification_outbox " +
+            "WHERE channel = :channel AND status IN ('PENDING', 'PROCESSING') AND next_attempt_at <= :now " +
+            "ORDER BY next_attempt_at " +
+            "LIMIT :limit " +
+            "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxNotification> lockDue(@Param("channel") String channel,
+                                     @Param("now") LocalDateTime now,
+                                     @Param("limit") int limit);
+
+    /**
+     * Lock the oldest notifications buffered for a digest, skipping rows already locked by other instances
+     * @param limit Maximum number of rows to lock
+     * @return Locked notifications, oldest first
+     */
+    @Query(value = "SELECT * FROM notification_outbox " +
+            "WHERE status = 'BUFFERED' " +
+            "ORDER BY created_at, id " +
+            "LIMIT :limit " +
+            "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxNotification> lockBuffered(@Param("limit") int limit);
+}
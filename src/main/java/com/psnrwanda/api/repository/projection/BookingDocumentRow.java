@@ -0,0 +1,16 @@
+package com.psnrwanda.api.repository.projection;
+
+import lombok.Value;
+
+/**
+ * Flat read model of a booking document, keyed by the booking it belongs to
+ */
+@Value
+public class BookingDocumentRow {
+    Long bookingId;
+    Long id;
+    String fileName;
+    String filePath;
+    String fileType;
+    Long fileSize;
+}
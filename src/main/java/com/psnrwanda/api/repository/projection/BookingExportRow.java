@@ -0,0 +1,23 @@
+package com.psnrwanda.api.repository.projection;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat read model of a booking as written to report exports
+ */
+@Value
+public class BookingExportRow {
+    Long id;
+    String trackingNumber;
+    String phoneNumber;
+    Long serviceId;
+    String serviceName;
+    String email;
+    String fullName;
+    String status;
+    String notes;
+    LocalDateTime createdAt;
+    LocalDateTime updatedAt;
+}
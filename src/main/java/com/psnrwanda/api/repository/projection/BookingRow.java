@@ -0,0 +1,26 @@
+package com.psnrwanda.api.repository.projection;
+
+import com.psnrwanda.api.model.Booking;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat read model of a booking together with its service title and user ID,
+ * loaded by a single JPQL constructor expression instead of lazy associations
+ */
+@Value
+public class BookingRow {
+    Long id;
+    String trackingNumber;
+    String phoneNumber;
+    Long serviceId;
+    String serviceName;
+    String email;
+    String fullName;
+    String notes;
+    Booking.BookingStatus status;
+    Long userId;
+    LocalDateTime createdAt;
+    LocalDateTime updatedAt;
+}
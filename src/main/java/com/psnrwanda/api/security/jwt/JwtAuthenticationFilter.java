@@ -89,8 +89,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         String uri = request.getRequestURI();
         String method = request.getMethod();
         
-        // All GET requests should bypass authentication checks
-        if ("GET".equals(method)) {
+        // All GET requests should bypass authentication checks, except the admin-only actuator endpoints
+        if ("GET".equals(method) && !uri.startsWith("/actuator")) {
             log.debug("Bypassing JWT filter for GET request: {}", uri);
             return true;
         }
@@ -118,8 +118,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return true;
         }
         
-        // Test email endpoints
-        if (uri.contains("/api/v1/test/email/")) {
+        // Test email endpoints, and the stub SMS gateway which is called with the SMS API key
+        if (uri.contains("/api/v1/test/email/") || uri.equals("/api/v1/test/sms-gateway")) {
             return true;
         }
         
@@ -0,0 +1,277 @@
+package com.psnrwanda.api.service;
+
+import com.psnrwanda.api.model.Booking;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Booking counts per (service, status) maintained in memory for the dashboard.
+ * <p>
+ * Booking writes adjust striped {@link LongAdder}s once their transaction commits, so reading any
+ * count costs no query. The counters are loaded from the {@code booking_counters} snapshot table on
+ * startup, reconciled against the bookings table with one {@code GROUP BY} right after, since the snapshot
+ * may be as old as the last reconciliation of any instance, and then periodically. Reconciling also folds
+ * in writes made by other application instances and upserts the snapshot, so instances reconciling at the
+ * same time never conflict.
+ * Between reconciliations the counts are therefore exact for this instance's writes and may lag
+ * behind other instances' writes by up to the reconcile interval.
+ * <p>
+ * While a reconciliation runs, this instance's writes are collected in a fresh set of counters, to which the
+ * recount is then added before it replaces the current counters, so writes committing during the recount are
+ * neither lost nor counted twice. The only exception is a booking whose commit and after-commit callback
+ * straddle the start of a reconciliation: it is counted twice until the next one. Readers see the previous
+ * counters until the reconciliation completes.
+ */
+@Slf4j
+@Component
+public class BookingCounters {
+
+    private static final String LOAD_SNAPSHOT_SQL = "SELECT service_id, status, booking_count FROM booking_counters";
+    private static final String COUNT_BOOKINGS_SQL = "SELECT service_id, status, count(*) AS booking_count " +
+            "FROM bookings GROUP BY service_id, status";
+    private static final String UPSERT_SNAPSHOT_SQL = "INSERT INTO booking_counters " +
+            "(service_id, status, booking_count, reconciled_at) VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT (service_id, status) DO UPDATE " +
+            "SET booking_count = EXCLUDED.booking_count, reconciled_at = EXCLUDED.reconciled_at";
+    /** Pairs left out of the latest snapshot no longer have bookings */
+    private static final String DELETE_STALE_SNAPSHOT_SQL = "DELETE FROM booking_counters WHERE reconciled_at < ?";
+
+    /**
+     * Counter key
+     */
+    @Value
+    public static class Key {
+        Long serviceId;
+        Booking.BookingStatus status;
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private volatile ConcurrentMap<Key, LongAdder> counts = new ConcurrentHashMap<>();
+    /** Writes made while a reconciliation runs, null otherwise */
+    private volatile ConcurrentMap<Key, LongAdder> pending;
+    /** Shared by writes, exclusive while a reconciliation switches where writes go */
+    private final ReadWriteLock switchLock = new ReentrantReadWriteLock();
+
+    /**
+     * Constructor
+     * @param jdbcTemplate JDBC template
+     * @param transactionManager Transaction manager
+     */
+    public BookingCounters(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Record a created booking once the current transaction commits
+     * @param serviceId Service ID
+     * @param status Booking status
+     */
+    public void recordCreated(Long serviceId, Booking.BookingStatus status) {
+        addAfterCommit(Map.of(new Key(serviceId, status), 1L));
+    }
+
+    /**
+     * Record several created bookings once the current transaction commits
+     * @param created Number of bookings created per key
+     */
+    public void recordCreated(Map<Key, Long> created) {
+        addAfterCommit(created);
+    }
+
+    /**
+     * Record a status change once the current transaction commits
+     * @param serviceId Service ID
+     * @param oldStatus Previous status
+     * @param newStatus New status
+     */
+    public void recordStatusChanged(Long serviceId, Booking.BookingStatus oldStatus, Booking.BookingStatus newStatus) {
+        if (oldStatus == newStatus) {
+            return;
+        }
+        Map<Key, Long> deltas = new HashMap<>();
+        deltas.put(new Key(serviceId, oldStatus), -1L);
+        deltas.put(new Key(serviceId, newStatus), 1L);
+        addAfterCommit(deltas);
+    }
+
+    /**
+     * Record a deleted booking once the current transaction commits
+     * @param serviceId Service ID
+     * @param status Booking status
+     */
+    public void recordDeleted(Long serviceId, Booking.BookingStatus status) {
+        addAfterCommit(Map.of(new Key(serviceId, status), -1L));
+    }
+
+    /**
+     * Total number of bookings
+     * @return Booking count
+     */
+    public long total() {
+        return counts.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    /**
+     * Number of bookings per status, including statuses without bookings
+     * @return Booking count by status
+     */
+    public Map<Booking.BookingStatus, Long> countsByStatus() {
+        Map<Booking.BookingStatus, Long> result = new HashMap<>();
+        for (Booking.BookingStatus status : Booking.BookingStatus.values()) {
+            result.put(status, 0L);
+        }
+        counts.forEach((key, count) -> result.merge(key.getStatus(), count.sum(), Long::sum));
+        return result;
+    }
+
+    /**
+     * Number of bookings per service ID
+     * @return Booking count by service ID
+     */
+    public Map<Long, Long> countsByService() {
+        Map<Long, Long> result = new HashMap<>();
+        counts.forEach((key, count) -> result.merge(key.getServiceId(), count.sum(), Long::sum));
+        return result;
+    }
+
+    /**
+     * Load the counters from the snapshot table, then bring them up to date with the bookings table
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadSnapshot() {
+        Map<Key, Long> snapshot = query(LOAD_SNAPSHOT_SQL);
+        replaceCounts(snapshot);
+        log.info("Loaded booking counters for {} service/status pairs", snapshot.size());
+
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            log.warn("Could not reconcile booking counters on startup, serving the snapshot until the next run", e);
+        }
+    }
+
+    /**
+     * Recount bookings from the bookings table, correct the in-memory counters and rewrite the snapshot
+     */
+    @Scheduled(fixedDelayString = "${app.booking-counters.reconcile-interval:PT5M}",
+            initialDelayString = "${app.booking-counters.reconcile-interval:PT5M}")
+    public synchronized void reconcile() {
+        // Writes committed from here on may be missing from the recount, so they are collected separately
+        ConcurrentMap<Key, LongAdder> since = new ConcurrentHashMap<>();
+        switchTo(since, counts);
+        Map<Key, Long> actual;
+        try {
+            actual = query(COUNT_BOOKINGS_SQL);
+        } catch (RuntimeException e) {
+            // Fold the collected writes back in and keep the current counters
+            ConcurrentMap<Key, LongAdder> current = counts;
+            switchTo(null, current);
+            since.forEach((key, delta) -> add(current, key, delta.sum()));
+            throw e;
+        }
+
+        // Adders are commutative, so writes still arriving in the collected counters are kept
+        actual.forEach((key, count) -> add(since, key, count));
+        Map<Key, LongAdder> previous = counts;
+        switchTo(null, since);
+
+        long corrected = since.entrySet().stream()
+                .filter(entry -> {
+                    LongAdder before = previous.get(entry.getKey());
+                    return (before == null ? 0 : before.sum()) != entry.getValue().sum();
+                })
+                .count();
+        if (corrected > 0) {
+            log.debug("Reconciled booking counters, corrected {} service/status pairs", corrected);
+        }
+
+        writeSnapshot(actual);
+    }
+
+    private void writeSnapshot(Map<Key, Long> snapshot) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = snapshot.entrySet().stream()
+                .map(entry -> new Object[] {
+                        entry.getKey().getServiceId(), entry.getKey().getStatus().name(), entry.getValue(), now })
+                .toList();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(UPSERT_SNAPSHOT_SQL, rows);
+            jdbcTemplate.update(DELETE_STALE_SNAPSHOT_SQL, now);
+        });
+    }
+
+    private Map<Key, Long> query(String sql) {
+        Map<Key, Long> result = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            result.put(new Key(rs.getLong("service_id"), Booking.BookingStatus.valueOf(rs.getString("status"))),
+                    rs.getLong("booking_count"));
+        });
+        return result;
+    }
+
+    private void replaceCounts(Map<Key, Long> values) {
+        ConcurrentMap<Key, LongAdder> loaded = new ConcurrentHashMap<>();
+        values.forEach((key, count) -> add(loaded, key, count));
+        counts = loaded;
+    }
+
+    private void switchTo(ConcurrentMap<Key, LongAdder> newPending, ConcurrentMap<Key, LongAdder> newCounts) {
+        switchLock.writeLock().lock();
+        try {
+            pending = newPending;
+            counts = newCounts;
+        } finally {
+            switchLock.writeLock().unlock();
+        }
+    }
+
+    private void add(Key key, long delta) {
+        switchLock.readLock().lock();
+        try {
+            ConcurrentMap<Key, LongAdder> since = pending;
+            add(since != null ? since : counts, key, delta);
+        } finally {
+            switchLock.readLock().unlock();
+        }
+    }
+
+    private static void add(ConcurrentMap<Key, LongAdder> target, Key key, long delta) {
+        target.computeIfAbsent(key, k -> new LongAdder()).add(delta);
+    }
+
+    private void addAfterCommit(Map<Key, Long> deltas) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            deltas.forEach(this::add);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                deltas.forEach(BookingCounters.this::add);
+            }
+        });
+    }
+}
@@ -0,0 +1,326 @@
+package com.psnrwanda.api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.opencsv.CSVReader;
+import com.opencsv.CSVWriter;
+import com.opencsv.exceptions.CsvValidationException;
+import com.psnrwanda.api.dto.BookingDto;
+import com.psnrwanda.api.exception.BadRequestException;
+import com.psnrwanda.api.model.Booking;
+import com.psnrwanda.api.model.common.PhoneNumbers;
+import com.psnrwanda.api.repository.ServiceRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Service for bulk importing bookings (e.g. re-keyed paper bookings from walk-in offices).
+ * <p>
+ * Rows are parsed and validated one at a time as the request body is streamed, and valid rows are
+ * written straight into a PostgreSQL {@code COPY bookings FROM STDIN} stream. Memory use therefore
+ * does not depend on the number of rows, apart from the capped list of reported errors.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BookingImportService {
+
+    /**
+     * Supported import formats
+     */
+    public enum ImportFormat {
+        CSV,
+        NDJSON
+    }
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final String COPY_SQL = "COPY bookings (tracking_number, phone_number, phone_normalized, " +
+            "service_id, email, full_name, status, notes, created_at, updated_at, created_by) FROM STDIN WITH (FORMAT csv)";
+
+    private final DataSource dataSource;
+    private final ServiceRepository serviceRepository;
+    private final TrackingNumberAllocator trackingNumberAllocator;
+    private final BookingCounters bookingCounters;
+    private final BookingTrendService bookingTrendService;
+    private final BookingStatusHistoryService bookingStatusHistoryService;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Import bookings from a CSV or NDJSON stream.
+     * Invalid rows are skipped and reported; valid rows are committed together.
+     *
+     * @param input Request body
+     * @param format Format of the request body
+     * @return Import result with per-row errors
+     */
+    @Transactional
+    public BookingDto.BookingImportResultDto importBookings(InputStream input, ImportFormat format) {
+        Set<Long> activeServiceIds = serviceRepository.findByActiveTrue().stream()
+                .map(com.psnrwanda.api.model.Service::getId)
+                .collect(Collectors.toSet());
+
+        long lastBookingId = bookingStatusHistoryService.lastBookingId();
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            PGCopyOutputStream copyStream = new PGCopyOutputStream(
+                    connection.unwrap(PGConnection.class), COPY_SQL, COPY_BUFFER_SIZE);
+            try {
+                CSVWriter copyWriter = new CSVWriter(new OutputStreamWriter(copyStream, StandardCharsets.UTF_8));
+                ImportRun run = new ImportRun(copyWriter, activeServiceIds, currentUsername());
+
+                Reader reader = new InputStreamReader(input, StandardCharsets.UTF_8);
+                if (format == ImportFormat.NDJSON) {
+                    readNdjson(reader, run);
+                } else {
+                    readCsv(reader, run);
+                }
+
+                copyWriter.flush();
+                long copied = copyStream.endCopy();
+                bookingCounters.recordCreated(run.created);
+                bookingTrendService.recordCreated(run.createdPerDay);
+                bookingStatusHistoryService.recordImported(lastBookingId);
+                log.info("Imported {} of {} bookings ({} rejected)", copied, run.totalRows, run.failedRows);
+                return run.toResult();
+            } catch (IOException | RuntimeException e) {
+                if (copyStream.isActive()) {
+                    copyStream.cancelCopy();
+                }
+                throw e;
+            }
+        } catch (IOException | SQLException e) {
+            throw new IllegalStateException("Bulk booking import failed: " + e.getMessage(), e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    private void readCsv(Reader reader, ImportRun run) throws IOException {
+        try (CSVReader csvReader = new CSVReader(reader)) {
+            String[] header = csvReader.readNext();
+            if (header == null) {
+                return;
+            }
+
+            Map<String, Integer> columns = new HashMap<>();
+            for (int i = 0; i < header.length; i++) {
+                columns.put(normalizeColumnName(header[i]), i);
+            }
+
+            String[] record;
+            while ((record = csvReader.readNext()) != null) {
+                Map<String, String> values = new HashMap<>();
+                for (Map.Entry<String, Integer> column : columns.entrySet()) {
+                    if (column.getValue() < record.length) {
+                        values.put(column.getKey(), record[column.getValue()]);
+                    }
+                }
+                run.accept(values);
+            }
+        } catch (CsvValidationException e) {
+            throw new BadRequestException("Malformed CSV at line " + e.getLineNumber() + ": " + e.getMessage());
+        }
+    }
+
+    private void readNdjson(Reader reader, ImportRun run) throws IOException {
+        BufferedReader lines = new BufferedReader(reader);
+        String line;
+        while ((line = lines.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+
+            Map<String, String> values = new HashMap<>();
+            try {
+                JsonNode node = objectMapper.readTree(line);
+                node.fields().forEachRemaining(field -> values.put(normalizeColumnName(field.getKey()),
+                        field.getValue().isNull() ? null : field.getValue().asText()));
+            } catch (JsonProcessingException e) {
+                run.reject("Malformed JSON: " + e.getOriginalMessage());
+                continue;
+            }
+            run.accept(values);
+        }
+    }
+
+    private static String normalizeColumnName(String name) {
+        if (name == null) {
+            return "";
+        }
+        // Spreadsheet exports often prefix the header with a byte order mark
+        return name.replace("\uFEFF", "").replace("_", "").replace(" ", "").trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : null;
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    /**
+     * State of a single import: validates rows and feeds valid ones into the COPY stream
+     */
+    private final class ImportRun {
+
+        private final CSVWriter copyWriter;
+        private final Set<Long> activeServiceIds;
+        private final String username;
+        private final List<BookingDto.BookingImportErrorDto> errors = new ArrayList<>();
+        private final Map<BookingCounters.Key, Long> created = new HashMap<>();
+        private final Map<BookingTrendService.Key, Long> createdPerDay = new HashMap<>();
+
+        private long totalRows;
+        private long importedRows;
+        private long failedRows;
+
+        private ImportRun(CSVWriter copyWriter, Set<Long> activeServiceIds, String username) {
+            this.copyWriter = copyWriter;
+            this.activeServiceIds = activeServiceIds;
+            this.username = username;
+        }
+
+        private void accept(Map<String, String> values) {
+            totalRows++;
+
+            BookingDto.CreateBookingDto row = BookingDto.CreateBookingDto.builder()
+                    .phoneNumber(blankToNull(values.get("phonenumber")))
+                    .email(blankToNull(values.get("email")))
+                    .fullName(blankToNull(values.get("fullname")))
+                    .notes(blankToNull(values.get("notes")))
+                    .build();
+
+            String serviceId = blankToNull(values.get("serviceid"));
+            try {
+                row.setServiceId(serviceId == null ? null : Long.valueOf(serviceId));
+            } catch (NumberFormatException e) {
+                fail("Invalid service ID: " + serviceId);
+                return;
+            }
+
+            Set<ConstraintViolation<BookingDto.CreateBookingDto>> violations = validator.validate(row);
+            if (!violations.isEmpty()) {
+                fail(violations.stream()
+                        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+                return;
+            }
+
+            if (!activeServiceIds.contains(row.getServiceId())) {
+                fail("Service " + row.getServiceId() + " does not exist or is not active");
+                return;
+            }
+
+            Booking.BookingStatus status;
+            LocalDateTime createdAt;
+            try {
+                String statusValue = blankToNull(values.get("status"));
+                status = statusValue == null
+                        ? Booking.BookingStatus.PENDING
+                        : Booking.BookingStatus.valueOf(statusValue.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                fail("Invalid status: " + values.get("status"));
+                return;
+            }
+            try {
+                createdAt = parseCreatedAt(blankToNull(values.get("createdat")));
+            } catch (DateTimeParseException e) {
+                fail("Invalid createdAt (expected yyyy-MM-dd or yyyy-MM-dd HH:mm:ss): " + values.get("createdat"));
+                return;
+            }
+
+            String timestamp = createdAt.format(DATE_TIME_FORMATTER);
+            copyWriter.writeNext(new String[] {
+                    trackingNumberAllocator.nextTrackingNumber(),
+                    row.getPhoneNumber(),
+                    PhoneNumbers.normalize(row.getPhoneNumber()),
+                    String.valueOf(row.getServiceId()),
+                    row.getEmail(),
+                    row.getFullName(),
+                    status.name(),
+                    row.getNotes(),
+                    timestamp,
+                    timestamp,
+                    username
+            });
+            importedRows++;
+            created.merge(new BookingCounters.Key(row.getServiceId(), status), 1L, Long::sum);
+            createdPerDay.merge(new BookingTrendService.Key(createdAt.toLocalDate(), row.getServiceId(), status),
+                    1L, Long::sum);
+        }
+
+        private void reject(String message) {
+            totalRows++;
+            fail(message);
+        }
+
+        private void fail(String message) {
+            failedRows++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(BookingDto.BookingImportErrorDto.builder()
+                        .row(totalRows)
+                        .message(message)
+                        .build());
+            }
+        }
+
+        private LocalDateTime parseCreatedAt(String value) {
+            if (value == null) {
+                return LocalDateTime.now();
+            }
+            if (value.length() == 10) {
+                return LocalDate.parse(value).atStartOfDay();
+            }
+            return LocalDateTime.parse(value.replace('T', ' '), DATE_TIME_FORMATTER);
+        }
+
+        private BookingDto.BookingImportResultDto toResult() {
+            return BookingDto.BookingImportResultDto.builder()
+                    .totalRows(totalRows)
+                    .importedRows(importedRows)
+                    .failedRows(failedRows)
+                    .errorsTruncated(failedRows > errors.size())
+                    .errors(errors)
+                    .build();
+        }
+    }
+}
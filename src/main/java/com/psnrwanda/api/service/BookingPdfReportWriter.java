@@ -0,0 +1,244 @@
+package com.psnrwanda.api.service;
+
+import com.itextpdf.text.BaseColor;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.Element;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.FontFactory;
+import com.itextpdf.text.PageSize;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.Phrase;
+import com.itextpdf.text.pdf.ColumnText;
+import com.itextpdf.text.pdf.PdfPCell;
+import com.itextpdf.text.pdf.PdfPTable;
+import com.itextpdf.text.pdf.PdfPageEventHelper;
+import com.itextpdf.text.pdf.PdfWriter;
+import com.psnrwanda.api.config.AppProperties;
+import com.psnrwanda.api.repository.BookingExportRepository;
+import com.psnrwanda.api.repository.projection.BookingExportRow;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.LongConsumer;
+
+/**
+ * Writes the booking PDF report with iText.
+ * <p>
+ * Rows are added to a {@link PdfPTable} marked incomplete and the table is handed to the document every
+ * {@link #CHUNK_SIZE} rows, which lays out and writes the finished pages and releases their rows.
+ * Memory use therefore stays flat however many bookings are exported. Per-status and per-service
+ * totals are accumulated in the same pass and printed on summary pages at the end.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookingPdfReportWriter {
+
+    /**
+     * Rows buffered before the table is flushed to the document
+     */
+    static final int CHUNK_SIZE = 200;
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    private static final String[] HEADERS = {
+            "Tracking #", "Phone Number", "Service", "Full Name", "Email", "Status", "Created At"
+    };
+    private static final float[] COLUMN_WIDTHS = { 9, 11, 20, 16, 20, 10, 12 };
+
+    private static final Font TITLE_FONT = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 14);
+    private static final Font SUBTITLE_FONT = FontFactory.getFont(FontFactory.HELVETICA, 9, BaseColor.DARK_GRAY);
+    private static final Font HEADER_FONT = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 8, BaseColor.WHITE);
+    private static final Font CELL_FONT = FontFactory.getFont(FontFactory.HELVETICA, 8);
+    private static final Font FOOTER_FONT = FontFactory.getFont(FontFactory.HELVETICA, 7, BaseColor.GRAY);
+    private static final BaseColor HEADER_BACKGROUND = new BaseColor(33, 64, 110);
+
+    private final BookingExportRepository bookingExportRepository;
+    private final AppProperties appProperties;
+
+    /**
+     * Write the report for the bookings matching a filter
+     *
+     * @param filter Export filter
+     * @param out Output stream; not closed
+     * @param progress Called with the number of bookings written so far after every row
+     * @return Number of bookings written
+     * @throws IOException If the report cannot be written
+     */
+    public long write(BookingExportRepository.Filter filter, OutputStream out, LongConsumer progress) throws IOException {
+        Document document = new Document(PageSize.A4.rotate(), 28, 28, 36, 36);
+        try {
+            PdfWriter writer = PdfWriter.getInstance(document, out);
+            writer.setCloseStream(false);
+            writer.setPageEvent(new Footer());
+            document.open();
+
+            document.add(new Paragraph(appProperties.getCompany().getName() + " - Bookings Report", TITLE_FONT));
+            document.add(new Paragraph(describe(filter), SUBTITLE_FONT));
+            document.add(new Paragraph(" "));
+
+            ReportPass pass = new ReportPass(document, progress);
+            bookingExportRepository.forEach(filter, pass::add);
+            pass.finish();
+
+            writeSummary(document, pass);
+            document.close();
+
+            log.info("Wrote PDF report with {} bookings", pass.rows);
+            return pass.rows;
+        } catch (DocumentException e) {
+            throw new IOException("Failed to write PDF report", e);
+        } catch (UncheckedDocumentException e) {
+            throw new IOException("Failed to write PDF report", e.getCause());
+        }
+    }
+
+    private void writeSummary(Document document, ReportPass pass) throws DocumentException {
+        document.newPage();
+        document.add(new Paragraph("Summary", TITLE_FONT));
+        document.add(new Paragraph("Total bookings: " + pass.rows, SUBTITLE_FONT));
+        document.add(new Paragraph(" "));
+
+        document.add(new Paragraph("Bookings by status", SUBTITLE_FONT));
+        document.add(totalsTable("Status", pass.byStatus));
+        document.add(new Paragraph(" "));
+
+        document.add(new Paragraph("Bookings by service", SUBTITLE_FONT));
+        document.add(totalsTable("Service", pass.byService));
+    }
+
+    private static PdfPTable totalsTable(String label, Map<String, Long> totals) throws DocumentException {
+        PdfPTable table = new PdfPTable(2);
+        table.setWidthPercentage(50);
+        table.setHorizontalAlignment(Element.ALIGN_LEFT);
+        table.setWidths(new float[] { 4, 1 });
+        table.setHeaderRows(1);
+        table.addCell(headerCell(label));
+        table.addCell(headerCell("Bookings"));
+        totals.forEach((key, count) -> {
+            table.addCell(cell(key));
+            PdfPCell countCell = cell(String.valueOf(count));
+            countCell.setHorizontalAlignment(Element.ALIGN_RIGHT);
+            table.addCell(countCell);
+        });
+        return table;
+    }
+
+    private static PdfPCell headerCell(String text) {
+        PdfPCell cell = new PdfPCell(new Phrase(text, HEADER_FONT));
+        cell.setBackgroundColor(HEADER_BACKGROUND);
+        cell.setPadding(4);
+        return cell;
+    }
+
+    private static PdfPCell cell(String text) {
+        PdfPCell cell = new PdfPCell(new Phrase(text != null ? text : "", CELL_FONT));
+        cell.setPadding(3);
+        return cell;
+    }
+
+    private static String describe(BookingExportRepository.Filter filter) {
+        String range = filter.getFrom().format(DATE_FORMATTER) + " to " + filter.getTo().minusDays(1).format(DATE_FORMATTER);
+        String status = filter.getStatus() != null ? ", status " + filter.getStatus().name() : "";
+        return "Bookings created " + range + status + " - generated " + LocalDateTime.now().format(DATE_TIME_FORMATTER);
+    }
+
+    /**
+     * State of one report: the open data table and the totals accumulated while rows stream in
+     */
+    private static final class ReportPass {
+
+        private final Document document;
+        private final LongConsumer progress;
+        private final PdfPTable table;
+        private final Map<String, Long> byStatus = new TreeMap<>();
+        private final Map<String, Long> byService = new TreeMap<>();
+        private long rows;
+
+        private ReportPass(Document document, LongConsumer progress) throws DocumentException {
+            this.document = document;
+            this.progress = progress;
+            this.table = new PdfPTable(HEADERS.length);
+            table.setWidthPercentage(100);
+            table.setWidths(COLUMN_WIDTHS);
+            table.setHeaderRows(1);
+            table.setComplete(false);
+            for (String header : HEADERS) {
+                table.addCell(headerCell(header));
+            }
+        }
+
+        private void add(BookingExportRow booking) {
+            table.addCell(cell(booking.getTrackingNumber()));
+            table.addCell(cell(booking.getPhoneNumber()));
+            table.addCell(cell(booking.getServiceName()));
+            table.addCell(cell(booking.getFullName()));
+            table.addCell(cell(booking.getEmail()));
+            table.addCell(cell(booking.getStatus()));
+            table.addCell(cell(booking.getCreatedAt().format(DATE_TIME_FORMATTER)));
+
+            byStatus.merge(booking.getStatus(), 1L, Long::sum);
+            byService.merge(booking.getServiceName(), 1L, Long::sum);
+
+            if (++rows % CHUNK_SIZE == 0) {
+                flush();
+            }
+            progress.accept(rows);
+        }
+
+        private void finish() throws DocumentException {
+            if (rows == 0) {
+                table.addCell(emptyCell());
+            }
+            table.setComplete(true);
+            document.add(table);
+        }
+
+        private void flush() {
+            try {
+                // Lays out and writes the rows added since the last flush; the header row is kept for the next page
+                document.add(table);
+            } catch (DocumentException e) {
+                throw new UncheckedDocumentException(e);
+            }
+        }
+
+        private static PdfPCell emptyCell() {
+            PdfPCell cell = cell("No bookings match the selected filters");
+            cell.setColspan(HEADERS.length);
+            return cell;
+        }
+    }
+
+    /**
+     * Page footer with the page number
+     */
+    private static final class Footer extends PdfPageEventHelper {
+
+        @Override
+        public void onEndPage(PdfWriter writer, Document document) {
+            ColumnText.showTextAligned(writer.getDirectContent(), Element.ALIGN_RIGHT,
+                    new Phrase("Page " + writer.getPageNumber(), FOOTER_FONT),
+                    document.right(), document.bottom() - 18, 0);
+        }
+    }
+
+    /**
+     * Carries a {@link DocumentException} out of the row callback
+     */
+    private static final class UncheckedDocumentException extends RuntimeException {
+
+        private UncheckedDocumentException(DocumentException cause) {
+            super(cause);
+        }
+    }
+}
@@ -1,30 +1,47 @@
 package com.psnrwanda.api.service;
 
 import com.psnrwanda.api.dto.BookingDto;
+import com.psnrwanda.api.dto.PaginatedResponse;
+import com.psnrwanda.api.event.BookingCreatedEvent;
+import com.psnrwanda.api.event.BookingDeletedEvent;
+import com.psnrwanda.api.event.BookingStatusChangedEvent;
+import com.psnrwanda.api.exception.BadRequestException;
 import com.psnrwanda.api.exception.ResourceNotFoundException;
 import com.psnrwanda.api.model.Booking;
 import com.psnrwanda.api.model.BookingDocument;
 import com.psnrwanda.api.model.Service;
 import com.psnrwanda.api.model.User;
+import com.psnrwanda.api.model.common.PhoneNumbers;
 import com.psnrwanda.api.repository.BookingDocumentRepository;
 import com.psnrwanda.api.repository.BookingRepository;
 import com.psnrwanda.api.repository.ServiceRepository;
 import com.psnrwanda.api.repository.UserRepository;
+import com.psnrwanda.api.repository.projection.BookingDocumentRow;
+import com.psnrwanda.api.repository.projection.BookingRow;
 import com.psnrwanda.api.service.common.AbstractCrudService;
-import com.psnrwanda.api.dto.NotificationDto;
+import com.psnrwanda.api.service.common.KeysetCursor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -36,14 +53,18 @@ import java.util.stream.Collectors;
 public class BookingService extends AbstractCrudService<Booking, BookingRepository> {
     
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-    private static final String TRACKING_NUMBER_PREFIX = "PSN-";
-    private static final Object TRACKING_NUMBER_LOCK = new Object();
     
     private final ServiceRepository serviceRepository;
     private final UserRepository userRepository;
     private final BookingDocumentRepository bookingDocumentRepository;
     private final FileStorageService fileStorageService;
-    private final NotificationService notificationService;
+    private final NotificationOutboxService notificationOutboxService;
+    private final TrackingNumberAllocator trackingNumberAllocator;
+    private final BookingTrackingCache bookingTrackingCache;
+    private final BookingCounters bookingCounters;
+    private final BookingTrendService bookingTrendService;
+    private final BookingStatusHistoryService bookingStatusHistoryService;
+    private final ApplicationEventPublisher eventPublisher;
     
     /**
      * Constructor
@@ -52,56 +73,55 @@ public class BookingService extends AbstractCrudService<Booking, BookingReposito
      * @param userRepository User repository
      * @param bookingDocumentRepository Booking document repository
      * @param fileStorageService File storage service
-     * @param notificationService Notification service
+     * @param notificationOutboxService Notification outbox service
+     * @param trackingNumberAllocator Tracking number allocator
+     * @param bookingTrackingCache Tracking number lookup cache
+     * @param bookingCounters Dashboard booking counters
+     * @param bookingTrendService Booking trend rollup service
+     * @param bookingStatusHistoryService Booking status history service
+     * @param eventPublisher Publisher of booking lifecycle events
      */
     public BookingService(BookingRepository repository, 
                          ServiceRepository serviceRepository, 
                          UserRepository userRepository,
                          BookingDocumentRepository bookingDocumentRepository,
                          FileStorageService fileStorageService,
-                         NotificationService notificationService) {
+                         NotificationOutboxService notificationOutboxService,
+                         TrackingNumberAllocator trackingNumberAllocator,
+                         BookingTrackingCache bookingTrackingCache,
+                         BookingCounters bookingCounters,
+                         BookingTrendService bookingTrendService,
+                         BookingStatusHistoryService bookingStatusHistoryService,
+                         ApplicationEventPublisher eventPublisher) {
         super(repository, "Booking");
         this.serviceRepository = serviceRepository;
         this.userRepository = userRepository;
         this.bookingDocumentRepository = bookingDocumentRepository;
         this.fileStorageService = fileStorageService;
-        this.notificationService = notificationService;
-    }
-    
-    /**
-     * Generate a new tracking number for bookings
-     * @return The generated tracking number in format PSN-001
-     */
-    private String generateTrackingNumber() {
-        synchronized (TRACKING_NUMBER_LOCK) {
-            // Find the highest tracking number
-            String highestTrackingNumber = repository.findTopByOrderByTrackingNumberDesc()
-                    .map(Booking::getTrackingNumber)
-                    .orElse(null);
-            
-            int nextNumber = 1;
-            if (highestTrackingNumber != null && highestTrackingNumber.startsWith(TRACKING_NUMBER_PREFIX)) {
-                try {
-                    String numberPart = highestTrackingNumber.substring(TRACKING_NUMBER_PREFIX.length());
-                    nextNumber = Integer.parseInt(numberPart) + 1;
-                } catch (NumberFormatException e) {
-                    log.warn("Could not parse tracking number: {}", highestTrackingNumber);
-                }
-            }
-            
-            // Format the number with leading zeros: PSN-001, PSN-002, etc.
-            return String.format("%s%03d", TRACKING_NUMBER_PREFIX, nextNumber);
-        }
+        this.notificationOutboxService = notificationOutboxService;
+        this.trackingNumberAllocator = trackingNumberAllocator;
+        this.bookingTrackingCache = bookingTrackingCache;
+        this.bookingCounters = bookingCounters;
+        this.bookingTrendService = bookingTrendService;
+        this.bookingStatusHistoryService = bookingStatusHistoryService;
+        this.eventPublisher = eventPublisher;
     }
     
     @Override
     public Booking create(Booking booking) {
         // Generate tracking number
         if (booking.getTrackingNumber() == null) {
-            booking.setTrackingNumber(generateTrackingNumber());
+            booking.setTrackingNumber(trackingNumberAllocator.nextTrackingNumber());
         }
         
-        return super.create(booking);
+        Booking savedBooking = super.create(booking);
+        bookingCounters.recordCreated(savedBooking.getService().getId(), savedBooking.getStatus());
+        bookingTrendService.recordCreated(savedBooking.getCreatedAt().toLocalDate(),
+                savedBooking.getService().getId(), savedBooking.getStatus());
+        bookingStatusHistoryService.recordCreated(savedBooking);
+        eventPublisher.publishEvent(new BookingCreatedEvent(savedBooking.getId(), savedBooking.getTrackingNumber(),
+                savedBooking.getService().getId(), savedBooking.getStatus()));
+        return savedBooking;
     }
     
     /**
@@ -116,7 +136,7 @@ public class BookingService extends AbstractCrudService<Booking, BookingReposito
         
         // Check if service is active
         if (!service.isActive()) {
-            throw new IllegalArgumentException("The selected service is not available at the moment");
+            throw new BadRequestException("The selected service is not available at the moment");
         }
         
         // Create booking
@@ -132,34 +152,25 @@ public class BookingService extends AbstractCrudService<Booking, BookingReposito
         Optional<User> currentUser = getCurrentUser();
         currentUser.ifPresent(booking::setUser);
         
+        // Resolve referenced documents before anything is written, so bad IDs are rejected as a batch
+        List<BookingDocument> documents = resolveDocumentsToAttach(createBookingDto.getDocumentIds());
+        
         // Save booking (tracking number will be generated in create method)
         Booking savedBooking = create(booking);
         
-        // Process document IDs if present
-        if (createBookingDto.getDocumentIds() != null && !createBookingDto.getDocumentIds().isEmpty()) {
-            for (String documentId : createBookingDto.getDocumentIds()) {
-                try {
-                    BookingDocument document = bookingDocumentRepository.findById(Long.parseLong(documentId))
-                            .orElseThrow(() -> new ResourceNotFoundException("Document", "id", documentId));
-                    savedBooking.addDocument(document);
-                } catch (NumberFormatException e) {
-                    log.error("Invalid document ID: {}", documentId);
-                }
-            }
-            savedBooking = update(savedBooking.getId(), savedBooking);
-        }
+        // Link all documents to the booking with a single bulk update
+        attachDocuments(savedBooking, documents);
         
         // Convert to response DTO
         BookingDto bookingDto = convertToDto(savedBooking);
+        bookingDto.setDocuments(documents.stream()
+                .map(this::convertToDocumentDto)
+                .collect(Collectors.toList()));
         
-        // Send notifications to both client and provider
+        // Queue notifications to both client and provider; they are delivered after commit by the outbox dispatcher
         if (createBookingDto.getEmail() != null && !createBookingDto.getEmail().isEmpty()) {
-            try {
-                notificationService.sendBookingConfirmationWithProviderNotification(bookingDto, createBookingDto.getEmail());
-            } catch (Exception e) {
-                log.error("Failed to send booking notifications: {}", e.getMessage());
-                // Don't prevent booking creation if notification fails
-            }
+            notificationOutboxService.enqueueBookingConfirmation(bookingDto, createBookingDto.getEmail(),
+                    createBookingDto.isUrgent());
         }
         
         return BookingDto.BookingResponseDto.builder()
@@ -174,12 +185,13 @@ public class BookingService extends AbstractCrudService<Booking, BookingReposito
      * @return List of booking document DTOs
      */
     public List<BookingDto.BookingDocumentDto> uploadDocuments(List<MultipartFile> files) {
-        return files.stream()
-                .map(file -> {
-                    BookingDocument document = fileStorageService.storeFile(file);
-                    document = bookingDocumentRepository.save(document);
-                    return convertToDocumentDto(document);
-                })
+        List<BookingDocument> documents = files.stream()
+                .map(fileStorageService::storeFile)
+                .collect(Collectors.toList());
+        
+        // Saved together so the inserts go out as one JDBC batch on flush
+        return bookingDocumentRepository.saveAll(documents).stream()
+                .map(this::convertToDocumentDto)
                 .collect(Collectors.toList());
     }
     
@@ -199,7 +211,7 @@ public class BookingService extends AbstractCrudService<Booking, BookingReposito
         
         // Check if service is active
         if (!service.isActive()) {
-            throw new IllegalArgumentException("The selected service is not available at the moment");
+            throw new BadRequestException("The selected service is not available at the moment");
         }
         
         // Create booking
@@ -212,34 +224,25 @@ public class BookingService extends AbstractCrudService<Booking, BookingReposito
         booking.setStatus(Booking.BookingStatus.PENDING);
         booking.setUser(user);
         
+        // Resolve referenced documents before anything is written, so bad IDs are rejected as a batch
+        List<BookingDocument> documents = resolveDocumentsToAttach(createBookingDto.getDocumentIds());
+        
         // Save booking (tracking number will be generated in create method)
         Booking savedBooking = create(booking);
         
-        // Process document IDs if present
-        if (createBookingDto.getDocumentIds() != null && !createBookingDto.getDocumentIds().isEmpty()) {
-            for (String documentId : createBookingDto.getDocumentIds()) {
-                try {
-                    BookingDocument document = bookingDocumentRepository.findById(Long.parseLong(documentId))
-                            .orElseThrow(() -> new ResourceNotFoundException("Document", "id", documentId));
-                    savedBooking.addDocument(document);
-                } catch (NumberFormatException e) {
-                    log.error("Invalid document ID: {}", documentId);
-                }
-            }
-            savedBooking = update(savedBooking.getId(), savedBooking);
-        }
+        // Link all documents to the booking with a single bulk update
+        attachDocuments(savedBooking, documents);
         
         // Convert to response DTO
         BookingDto bookingDto = convertToDto(savedBooking);
+        bookingDto.setDocuments(documents.stream()
+                .map(this::convertToDocumentDto)
+                .collect(Collectors.toList()));
         
-        // Send notifications to both client and provider
+        // Queue notifications to both client and provider; they are delivered after commit by the outbox dispatcher
         if (createBookingDto.getEmail() != null && !createBookingDto.getEmail().isEmpty()) {
-            try {
-                notificationService.sendBookingConfirmationWithProviderNotification(bookingDto, createBookingDto.getEmail());
-            } catch (Exception e) {
-                log.error("Failed to send booking notifications: {}", e.getMessage());
-                // Don't prevent booking creation if notification fails
-            }
+            notificationOutboxService.enqueueBookingConfirmation(bookingDto, createBookingDto.getEmail(),
+                    createBookingDto.isUrgent());
         }
         
         return BookingDto.BookingResponseDto.builder()
@@ -259,8 +262,7 @@ public class BookingService extends AbstractCrudService<Booking, BookingReposito
         User user = getCurrentUser()
                 .orElseThrow(() -> new IllegalStateException("User is not authenticated"));
         
-        return repository.findByUser(user, pageable)
-                .map(this::convertToDto);
+        return toDtoPage(repository.findRowsByUserId(user.getId(), pageable));
     }
     
     /**
@@ -273,20 +275,29 @@ public class BookingService extends AbstractCrudService<Booking, BookingReposito
         Booking booking = findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Booking", "id", id));
         
-        try {
-            Booking.BookingStatus newStatus = Booking.BookingStatus.valueOf(statusDto.getStatus().toUpperCase());
-            booking.setStatus(newStatus);
-            
-            if (statusDto.getNotes() != null) {
-                booking.setNotes(statusDto.getNotes());
-            }
-            
-            Booking updatedBooking = update(id, booking);
-            return convertToDto(updatedBooking);
-            
-        } catch (IllegalArgumentException e) {
-            throw new IllegalArgumentException("Invalid status: " + statusDto.getStatus());
+        Booking.BookingStatus oldStatus = booking.getStatus();
+        Booking.BookingStatus newStatus = parseStatus(statusDto.getStatus());
+        booking.setStatus(newStatus);
+        
+        if (statusDto.getNotes() != null) {
+            booking.setNotes(statusDto.getNotes());
         }
+        
+        Booking updatedBooking = update(id, booking);
+        bookingTrackingCache.evict(updatedBooking.getTrackingNumber());
+        bookingCounters.recordStatusChanged(updatedBooking.getService().getId(), oldStatus, newStatus);
+        bookingTrendService.recordStatusChanged(updatedBooking.getCreatedAt().toLocalDate(),
+                updatedBooking.getService().getId(), oldStatus, newStatus);
+        bookingStatusHistoryService.recordStatusChanged(updatedBooking, oldStatus, newStatus);
+        
+        BookingDto bookingDto = convertToDto(updatedBooking);
+        if (oldStatus != newStatus) {
+            // Delivered after commit by the outbox dispatcher
+            notificationOutboxService.enqueueBookingStatusUpdate(bookingDto);
+            eventPublisher.publishEvent(new BookingStatusChangedEvent(updatedBooking.getId(),
+                    updatedBooking.getTrackingNumber(), updatedBooking.getService().getId(), oldStatus, newStatus));
+        }
+        return bookingDto;
     }
     
     /**
@@ -309,8 +320,7 @@ public class BookingService extends AbstractCrudService<Booking, BookingReposito
      */
     @Transactional(readOnly = true)
     public Page<BookingDto> getBookingsByPhoneNumber(String phoneNumber, Pageable pageable) {
-        return repository.findByPhoneNumber(phoneNumber, pageable)
-                .map(this::convertToDto);
+        return toDtoPage(repository.findRowsByPhoneNormalized(PhoneNumbers.normalize(phoneNumber), pageable));
     }
     
     /**
@@ -320,8 +330,7 @@ public class BookingService extends AbstractCrudService<Booking, BookingReposito
      */
     @Transactional(readOnly = true)
     public Page<BookingDto> getAllBookings(Pageable pageable) {
-        return repository.findAll(pageable)
-                .map(this::convertToDto);
+        return toDtoPage(repository.findAllRows(pageable));
     }
     
     /**
@@ -332,13 +341,63 @@ public class BookingService extends AbstractCrudService<Booking, BookingReposito
      */
     @Transactional(readOnly = true)
     public Page<BookingDto> getBookingsByStatus(String status, Pageable pageable) {
-        try {
-            Booking.BookingStatus bookingStatus = Booking.BookingStatus.valueOf(status.toUpperCase());
-            return repository.findByStatus(bookingStatus, pageable)
-                    .map(this::convertToDto);
-        } catch (IllegalArgumentException e) {
-            throw new IllegalArgumentException("Invalid status: " + status);
-        }
+        return toDtoPage(repository.findRowsByStatus(parseStatus(status), pageable));
+    }
+    
+    /**
+     * Get the page of bookings after a cursor, newest first (admin only)
+     * @param cursor Opaque cursor from the previous page; blank for the first page
+     * @param size Page size
+     * @return Cursor page of booking DTOs
+     */
+    @Transactional(readOnly = true)
+    public PaginatedResponse<BookingDto> getAllBookingsAfter(String cursor, int size) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        return toCursorPage(repository.findRowsBefore(after.getCreatedAt(), after.getId(), cursorLimit(size)), size);
+    }
+    
+    /**
+     * Get the page of bookings with a status after a cursor, newest first (admin only)
+     * @param status Booking status
+     * @param cursor Opaque cursor from the previous page; blank for the first page
+     * @param size Page size
+     * @return Cursor page of booking DTOs
+     */
+    @Transactional(readOnly = true)
+    public PaginatedResponse<BookingDto> getBookingsByStatusAfter(String status, String cursor, int size) {
+        Booking.BookingStatus bookingStatus = parseStatus(status);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        return toCursorPage(repository.findRowsByStatusBefore(
+                bookingStatus, after.getCreatedAt(), after.getId(), cursorLimit(size)), size);
+    }
+    
+    /**
+     * Get the page of the current user's bookings after a cursor, newest first
+     * @param cursor Opaque cursor from the previous page; blank for the first page
+     * @param size Page size
+     * @return Cursor page of booking DTOs
+     */
+    @Transactional(readOnly = true)
+    public PaginatedResponse<BookingDto> getMyBookingsAfter(String cursor, int size) {
+        User user = getCurrentUser()
+                .orElseThrow(() -> new IllegalStateException("User is not authenticated"));
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        return toCursorPage(repository.findRowsByUserIdBefore(
+                user.getId(), after.getCreatedAt(), after.getId(), cursorLimit(size)), size);
+    }
+    
+    /**
+     * Get the page of bookings for a phone number after a cursor, newest first
+     * @param phoneNumber Phone number
+     * @param cursor Opaque cursor from the previous page; blank for the first page
+     * @param size Page size
+     * @return Cursor page of booking DTOs
+     */
+    @Transactional(readOnly = true)
+    public PaginatedResponse<BookingDto> getBookingsByPhoneNumberAfter(String phoneNumber, String cursor, int size) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        return toCursorPage(repository.findRowsByPhoneNormalizedBefore(
+                PhoneNumbers.normalize(phoneNumber), after.getCreatedAt(), after.getId(), cursorLimit(size)), size);
     }
     
     /**
@@ -350,10 +409,7 @@ public class BookingService extends AbstractCrudService<Booking, BookingReposito
     @Transactional(readOnly = true)
     public List<BookingDto> findBookingsByPhoneNumber(String phoneNumber) {
         log.info("Finding bookings for phone number: {}", phoneNumber);
-        List<Booking> bookings = repository.findByPhoneNumberOrderByCreatedAtDesc(phoneNumber);
-        return bookings.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return toDtos(repository.findRowsByPhoneNormalizedOrderByCreatedAtDesc(PhoneNumbers.normalize(phoneNumber)));
     }
 
     /**
@@ -365,10 +421,77 @@ public class BookingService extends AbstractCrudService<Booking, BookingReposito
     @Transactional(readOnly = true)
     public List<BookingDto> findBookingsByUserId(Long userId) {
         log.info("Finding bookings for user ID: {}", userId);
-        List<Booking> bookings = repository.findByUserIdOrderByCreatedAtDesc(userId);
-        return bookings.stream()
-                .map(this::convertToDto)
+        return toDtos(repository.findRowsByUserIdOrderByCreatedAtDesc(userId));
+    }
+    
+    /**
+     * Load every document referenced by a booking request in a single query
+     * @param documentIds Document IDs from the request
+     * @return Documents to attach, in request order
+     * @throws ResourceNotFoundException If any ID is malformed or unknown
+     * @throws BadRequestException If any document already belongs to a booking
+     */
+    private List<BookingDocument> resolveDocumentsToAttach(List<String> documentIds) {
+        if (documentIds == null || documentIds.isEmpty()) {
+            return List.of();
+        }
+        
+        Set<Long> ids = new LinkedHashSet<>();
+        List<String> unknownIds = new ArrayList<>();
+        for (String documentId : documentIds) {
+            try {
+                ids.add(Long.parseLong(String.valueOf(documentId).trim()));
+            } catch (NumberFormatException e) {
+                unknownIds.add(String.valueOf(documentId));
+            }
+        }
+        
+        Map<Long, BookingDocument> documentsById = bookingDocumentRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(BookingDocument::getId, Function.identity()));
+        
+        List<Long> attachedIds = new ArrayList<>();
+        List<BookingDocument> documents = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            BookingDocument document = documentsById.get(id);
+            if (document == null) {
+                unknownIds.add(String.valueOf(id));
+            } else if (document.getBooking() != null) {
+                attachedIds.add(id);
+            } else {
+                documents.add(document);
+            }
+        }
+        
+        if (!unknownIds.isEmpty()) {
+            throw new ResourceNotFoundException("Document", "id", String.join(", ", unknownIds));
+        }
+        if (!attachedIds.isEmpty()) {
+            throw new BadRequestException("Documents are already attached to a booking: " + attachedIds);
+        }
+        
+        return documents;
+    }
+    
+    /**
+     * Link documents to a newly created booking with one bulk update
+     * @param booking The saved booking
+     * @param documents Documents returned by {@link #resolveDocumentsToAttach(List)}
+     */
+    private void attachDocuments(Booking booking, List<BookingDocument> documents) {
+        if (documents.isEmpty()) {
+            return;
+        }
+        
+        List<Long> ids = documents.stream()
+                .map(BookingDocument::getId)
                 .collect(Collectors.toList());
+        
+        int attached = bookingDocumentRepository.attachToBooking(booking, ids);
+        if (attached != ids.size()) {
+            // Another booking claimed one of the documents after we validated them
+            throw new BadRequestException("Documents are already attached to a booking: " + ids);
+        }
+        bookingTrackingCache.evict(booking.getTrackingNumber());
     }
     
     /**
@@ -415,6 +538,126 @@ public class BookingService extends AbstractCrudService<Booking, BookingReposito
         return dto;
     }
     
+    /**
+     * Convert a page of booking rows to DTOs, loading all of their documents with one query
+     * @param rows Page of booking rows
+     * @return Page of booking DTOs
+     */
+    private Page<BookingDto> toDtoPage(Page<BookingRow> rows) {
+        return new PageImpl<>(toDtos(rows.getContent()), rows.getPageable(), rows.getTotalElements());
+    }
+    
+    /**
+     * Convert the rows of a cursor query to a cursor page.
+     * The query fetches one row more than the page size to find out whether a next page exists.
+     * @param rows Booking rows, at most size + 1
+     * @param size Page size
+     * @return Cursor page of booking DTOs
+     */
+    private PaginatedResponse<BookingDto> toCursorPage(List<BookingRow> rows, int size) {
+        boolean hasNext = rows.size() > size;
+        List<BookingRow> page = hasNext ? rows.subList(0, size) : rows;
+        
+        String nextCursor = null;
+        if (hasNext) {
+            BookingRow last = page.get(page.size() - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        
+        return PaginatedResponse.<BookingDto>builder()
+                .data(toDtos(page))
+                .nextCursor(nextCursor)
+                .build();
+    }
+    
+    /**
+     * Row limit for a cursor query: the page size plus one look-ahead row
+     * @param size Page size
+     * @return Unsorted page request carrying the limit
+     */
+    private static Pageable cursorLimit(int size) {
+        if (size < 1) {
+            throw new BadRequestException("Page size must be at least 1");
+        }
+        return PageRequest.of(0, size + 1);
+    }
+    
+    /**
+     * Parse a booking status
+     * @param status Status name, case insensitive
+     * @return Booking status
+     */
+    private static Booking.BookingStatus parseStatus(String status) {
+        try {
+            return Booking.BookingStatus.valueOf(status.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid status: " + status);
+        }
+    }
+    
+    /**
+     * Convert booking rows to DTOs, loading all of their documents with one query
+     * @param rows Booking rows
+     * @return Booking DTOs in row order
+     */
+    private List<BookingDto> toDtos(List<BookingRow> rows) {
+        if (rows.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        List<Long> bookingIds = rows.stream()
+                .map(BookingRow::getId)
+                .collect(Collectors.toList());
+        
+        Map<Long, List<BookingDto.BookingDocumentDto>> documentsByBooking =
+                bookingDocumentRepository.findRowsByBookingIdIn(bookingIds).stream()
+                        .collect(Collectors.groupingBy(BookingDocumentRow::getBookingId,
+                                Collectors.mapping(this::convertRowToDocumentDto, Collectors.toList())));
+        
+        return rows.stream()
+                .map(row -> convertRowToDto(row, documentsByBooking.getOrDefault(row.getId(), new ArrayList<>())))
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Convert booking row to DTO
+     * @param row Booking row
+     * @param documents Document DTOs of the booking
+     * @return Booking DTO
+     */
+    private BookingDto convertRowToDto(BookingRow row, List<BookingDto.BookingDocumentDto> documents) {
+        return BookingDto.builder()
+                .id(row.getId())
+                .trackingNumber(row.getTrackingNumber())
+                .phoneNumber(row.getPhoneNumber())
+                .serviceId(row.getServiceId())
+                .serviceName(row.getServiceName())
+                .email(row.getEmail())
+                .fullName(row.getFullName())
+                .status(row.getStatus().name())
+                .notes(row.getNotes())
+                .userId(row.getUserId())
+                .createdAt(row.getCreatedAt() != null ? row.getCreatedAt().format(FORMATTER) : null)
+                .updatedAt(row.getUpdatedAt() != null ? row.getUpdatedAt().format(FORMATTER) : null)
+                .documents(documents)
+                .build();
+    }
+    
+    /**
+     * Convert booking document row to DTO
+     * @param document Booking document row
+     * @return Booking document DTO
+     */
+    private BookingDto.BookingDocumentDto convertRowToDocumentDto(BookingDocumentRow document) {
+        return BookingDto.BookingDocumentDto.builder()
+                .id(document.getId())
+                .fileName(document.getFileName())
+                .filePath(document.getFilePath())
+                .fileType(document.getFileType())
+                .fileSize(document.getFileSize())
+                .build();
+    }
+    
     /**
      * Convert booking document entity to DTO
      * @param document Booking document entity
@@ -457,23 +700,34 @@ public class BookingService extends AbstractCrudService<Booking, BookingReposito
     public void deleteBooking(Long id) {
         log.info("Deleting booking with ID: {}", id);
         
-        if (!existsById(id)) {
-            throw new ResourceNotFoundException("Booking", "id", id);
-        }
+        Booking booking = findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Booking", "id", id));
         
-        repository.deleteById(id);
+        List<String> documentPaths = booking.getDocuments().stream()
+                .map(BookingDocument::getFilePath)
+                .collect(Collectors.toList());
+        
+        repository.delete(booking);
+        bookingTrackingCache.evict(booking.getTrackingNumber());
+        bookingCounters.recordDeleted(booking.getService().getId(), booking.getStatus());
+        bookingTrendService.recordDeleted(booking.getCreatedAt().toLocalDate(),
+                booking.getService().getId(), booking.getStatus());
+        eventPublisher.publishEvent(new BookingDeletedEvent(booking.getId(), booking.getTrackingNumber(),
+                booking.getService().getId(), booking.getStatus(), documentPaths));
         log.info("Booking with ID: {} deleted successfully", id);
     }
     
     /**
-     * Get booking by tracking number
+     * Get booking by tracking number.
+     * Served from the tracking cache; a miss loads the booking with the row projection and one document query.
+     * No transaction is opened, so cache hits do not touch the database.
      * @param trackingNumber The tracking number
      * @return Booking DTO
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public BookingDto getBookingByTrackingNumber(String trackingNumber) {
-        return repository.findByTrackingNumber(trackingNumber)
-                .map(this::convertToDto)
+        return bookingTrackingCache.get(trackingNumber, key -> repository.findRowByTrackingNumber(key)
+                        .map(row -> toDtos(List.of(row)).get(0)))
                 .orElseThrow(() -> new ResourceNotFoundException("Booking", "trackingNumber", trackingNumber));
     }
 } 
\ No newline at end of file
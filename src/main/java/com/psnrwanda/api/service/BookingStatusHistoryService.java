@@ -0,0 +1,112 @@
+package com.psnrwanda.api.service;
+
+import com.psnrwanda.api.model.Booking;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Service appending booking status transitions to {@code booking_status_history}.
+ * <p>
+ * Every write runs in the transaction that changes the booking, so the history never disagrees with the
+ * bookings table. Rows are only ever inserted, and the history of a deleted booking is kept. Each transition
+ * is also fed to {@link TurnaroundAnalyticsService} so the latency histograms stay current.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BookingStatusHistoryService {
+
+    private static final String INSERT_SQL = "INSERT INTO booking_status_history " +
+            "(booking_id, service_id, from_status, to_status, changed_at, changed_by) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String LAST_CHANGE_SQL = "SELECT changed_at FROM booking_status_history " +
+            "WHERE booking_id = ? ORDER BY changed_at DESC, id DESC LIMIT 1";
+    private static final String MAX_BOOKING_ID_SQL = "SELECT COALESCE(MAX(id), 0) FROM bookings";
+    private static final String INSERT_IMPORTED_SQL = "INSERT INTO booking_status_history " +
+            "(booking_id, service_id, from_status, to_status, changed_at, changed_by) " +
+            "SELECT b.id, b.service_id, NULL, b.status, b.created_at, b.created_by FROM bookings b " +
+            "WHERE b.id > ? AND NOT EXISTS (SELECT 1 FROM booking_status_history h WHERE h.booking_id = b.id)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TurnaroundAnalyticsService turnaroundAnalyticsService;
+
+    /**
+     * Record the creation of a booking. Must run in the transaction that creates it.
+     * @param booking Saved booking
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCreated(Booking booking) {
+        insert(booking, null, booking.getStatus(), booking.getCreatedAt());
+    }
+
+    /**
+     * Record a status change and add its latency samples. Must run in the transaction that changes the booking.
+     * @param booking Updated booking
+     * @param oldStatus Previous status
+     * @param newStatus New status
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordStatusChanged(Booking booking, Booking.BookingStatus oldStatus, Booking.BookingStatus newStatus) {
+        if (oldStatus == newStatus) {
+            return;
+        }
+
+        List<Timestamp> lastChange = jdbcTemplate.queryForList(LAST_CHANGE_SQL, Timestamp.class, booking.getId());
+        LocalDateTime enteredAt = lastChange.isEmpty() ? booking.getCreatedAt() : lastChange.get(0).toLocalDateTime();
+        LocalDateTime changedAt = LocalDateTime.now();
+
+        insert(booking, oldStatus, newStatus, changedAt);
+        turnaroundAnalyticsService.recordTransition(booking.getService().getId(), oldStatus, newStatus,
+                enteredAt, booking.getCreatedAt(), changedAt);
+    }
+
+    /**
+     * Highest booking ID committed so far; taken before a bulk import so its bookings can be found afterwards
+     * @return Highest booking ID, or 0
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long lastBookingId() {
+        Long id = jdbcTemplate.queryForObject(MAX_BOOKING_ID_SQL, Long.class);
+        return id != null ? id : 0;
+    }
+
+    /**
+     * Record the creation of bookings bulk-inserted without going through {@link #recordCreated(Booking)}.
+     * Must run in the transaction that inserted them.
+     * @param afterId Value of {@link #lastBookingId()} before the bookings were inserted
+     * @return Number of history rows written
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int recordImported(long afterId) {
+        return jdbcTemplate.update(INSERT_IMPORTED_SQL, afterId);
+    }
+
+    private void insert(Booking booking, Booking.BookingStatus fromStatus, Booking.BookingStatus toStatus,
+                        LocalDateTime changedAt) {
+        jdbcTemplate.update(INSERT_SQL,
+                booking.getId(),
+                booking.getService().getId(),
+                fromStatus != null ? fromStatus.name() : null,
+                toStatus.name(),
+                Timestamp.valueOf(changedAt),
+                currentUsername());
+    }
+
+    private static String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
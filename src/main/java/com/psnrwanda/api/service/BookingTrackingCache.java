@@ -0,0 +1,85 @@
+package com.psnrwanda.api.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.psnrwanda.api.config.AppProperties;
+import com.psnrwanda.api.dto.BookingDto;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of rendered bookings keyed by tracking number, serving the public
+ * {@code /track/number/{trackingNumber}} lookups.
+ * <p>
+ * Entries are evicted by size and by age. Writes that change a booking must call {@link #evict(String)}:
+ * the entry is dropped immediately and again after the transaction commits, so a lookup running concurrently
+ * with the write cannot put the old state back. Eviction only reaches this instance's cache, so the TTL is
+ * kept to seconds: another instance serves a booking's previous state for at most {@code app.tracking-cache.ttl}
+ * after the write commits, which still absorbs a customer refreshing the tracking page.
+ * Metrics are published as {@code cache.*{cache=booking.tracking}} plus {@code cache.hit.ratio}.
+ */
+@Component
+public class BookingTrackingCache {
+
+    private static final String CACHE_NAME = "booking.tracking";
+
+    private final Cache<String, BookingDto> cache;
+
+    /**
+     * Constructor
+     * @param appProperties Application properties
+     * @param meterRegistry Meter registry
+     */
+    public BookingTrackingCache(AppProperties appProperties, MeterRegistry meterRegistry) {
+        AppProperties.TrackingCache settings = appProperties.getTrackingCache();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(settings.getMaxSize())
+                .expireAfterWrite(settings.getTtl())
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        Gauge.builder("cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .tag("cache", CACHE_NAME)
+                .description("Fraction of lookups served from the cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Get a booking by tracking number, loading it on a miss. Unknown tracking numbers are not cached.
+     *
+     * @param trackingNumber Tracking number
+     * @param loader Loads the booking on a miss
+     * @return The booking, if it exists
+     */
+    public Optional<BookingDto> get(String trackingNumber, Function<String, Optional<BookingDto>> loader) {
+        return Optional.ofNullable(cache.get(trackingNumber, key -> loader.apply(key).orElse(null)));
+    }
+
+    /**
+     * Evict a booking now and again once the current transaction has committed
+     * @param trackingNumber Tracking number
+     */
+    public void evict(String trackingNumber) {
+        if (trackingNumber == null) {
+            return;
+        }
+
+        cache.invalidate(trackingNumber);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidate(trackingNumber);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.psnrwanda.api.service;
+
+import com.psnrwanda.api.dto.ReportDto;
+import com.psnrwanda.api.exception.BadRequestException;
+import com.psnrwanda.api.model.Booking;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service maintaining the {@code booking_daily_stats} rollup and answering booking trend queries from it.
+ * <p>
+ * Booking writes adjust the row for (creation date, service, status) in their own transaction,
+ * so the rollup always agrees with the bookings table. A trend query for any range and granularity
+ * is a single range scan over the rollup's primary key followed by bucketing in the database.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BookingTrendService {
+
+    /**
+     * Trend bucket size
+     */
+    public enum Granularity {
+        DAY,
+        WEEK,
+        MONTH
+    }
+
+    /**
+     * Rollup key
+     */
+    @Value
+    public static class Key {
+        LocalDate date;
+        Long serviceId;
+        Booking.BookingStatus status;
+    }
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final int MAX_BUCKETS = 3660;
+    private static final Comparator<Key> KEY_ORDER = Comparator.comparing(Key::getDate)
+            .thenComparing(Key::getServiceId)
+            .thenComparing(Key::getStatus);
+
+    private static final String UPSERT_SQL = "INSERT INTO booking_daily_stats " +
+            "(stat_date, service_id, status, booking_count) VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT (stat_date, service_id, status) " +
+            "DO UPDATE SET booking_count = booking_daily_stats.booking_count + EXCLUDED.booking_count";
+    private static final String DELETE_ALL_SQL = "DELETE FROM booking_daily_stats";
+    private static final String REBUILD_SQL = "INSERT INTO booking_daily_stats " +
+            "(stat_date, service_id, status, booking_count) " +
+            "SELECT created_at::date, service_id, status, count(*) FROM bookings " +
+            "GROUP BY created_at::date, service_id, status";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Count a created booking. Must run in the transaction that creates it.
+     * @param date Creation date
+     * @param serviceId Service ID
+     * @param status Booking status
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCreated(LocalDate date, Long serviceId, Booking.BookingStatus status) {
+        adjust(Map.of(new Key(date, serviceId, status), 1L));
+    }
+
+    /**
+     * Count several created bookings with one batch. Must run in the transaction that creates them.
+     * @param created Number of bookings created per key
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCreated(Map<Key, Long> created) {
+        adjust(created);
+    }
+
+    /**
+     * Move a booking between statuses. Must run in the transaction that changes it.
+     * @param date Creation date
+     * @param serviceId Service ID
+     * @param oldStatus Previous status
+     * @param newStatus New status
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordStatusChanged(LocalDate date, Long serviceId,
+                                    Booking.BookingStatus oldStatus, Booking.BookingStatus newStatus) {
+        if (oldStatus == newStatus) {
+            return;
+        }
+        Map<Key, Long> deltas = new HashMap<>();
+        deltas.put(new Key(date, serviceId, oldStatus), -1L);
+        deltas.put(new Key(date, serviceId, newStatus), 1L);
+        adjust(deltas);
+    }
+
+    /**
+     * Uncount a deleted booking. Must run in the transaction that deletes it.
+     * @param date Creation date
+     * @param serviceId Service ID
+     * @param status Booking status
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDeleted(LocalDate date, Long serviceId, Booking.BookingStatus status) {
+        adjust(Map.of(new Key(date, serviceId, status), -1L));
+    }
+
+    /**
+     * Rebuild the whole rollup from the bookings table
+     * @return Number of rollup rows written
+     */
+    @Transactional
+    public int rebuild() {
+        // Block booking writes while the rollup is recomputed so no increment is lost
+        jdbcTemplate.execute("LOCK TABLE booking_daily_stats IN EXCLUSIVE MODE");
+        jdbcTemplate.update(DELETE_ALL_SQL);
+        int rows = jdbcTemplate.update(REBUILD_SQL);
+        log.info("Rebuilt booking daily stats: {} rows", rows);
+        return rows;
+    }
+
+    /**
+     * Get booking counts per bucket, including empty buckets, for bookings created in [from, to]
+     *
+     * @param from First day (inclusive)
+     * @param to Last day (inclusive)
+     * @param granularity Bucket size
+     * @param serviceId Optional service filter
+     * @param status Optional status filter
+     * @return One trend entry per bucket, dated by the first day of the bucket
+     */
+    @Transactional(readOnly = true)
+    public List<ReportDto.BookingTrendDto> getTrends(LocalDate from, LocalDate to, Granularity granularity,
+                                                     Long serviceId, Booking.BookingStatus status) {
+        if (to.isBefore(from)) {
+            throw new BadRequestException("End date must not be before start date");
+        }
+        LocalDate firstBucket = bucketStart(from, granularity);
+        if (unit(granularity).between(firstBucket, to) >= MAX_BUCKETS) {
+            throw new BadRequestException("Date range is too large for " + granularity.name().toLowerCase() + " granularity");
+        }
+
+        StringBuilder sql = new StringBuilder("SELECT date_trunc('")
+                .append(granularity.name().toLowerCase())
+                .append("', stat_date)::date AS bucket, sum(booking_count) AS booking_count ")
+                .append("FROM booking_daily_stats WHERE stat_date BETWEEN ? AND ?");
+        List<Object> args = new ArrayList<>(List.of(Date.valueOf(from), Date.valueOf(to)));
+        if (serviceId != null) {
+            sql.append(" AND service_id = ?");
+            args.add(serviceId);
+        }
+        if (status != null) {
+            sql.append(" AND status = ?");
+            args.add(status.name());
+        }
+        sql.append(" GROUP BY bucket");
+
+        Map<LocalDate, Long> counts = new HashMap<>();
+        jdbcTemplate.query(sql.toString(), rs -> {
+            counts.put(rs.getDate("bucket").toLocalDate(), rs.getLong("booking_count"));
+        }, args.toArray());
+
+        List<ReportDto.BookingTrendDto> trends = new ArrayList<>();
+        for (LocalDate bucket = firstBucket; !bucket.isAfter(to); bucket = bucket.plus(1, unit(granularity))) {
+            trends.add(ReportDto.BookingTrendDto.builder()
+                    .date(bucket.format(DATE_FORMATTER))
+                    .count(counts.getOrDefault(bucket, 0L))
+                    .build());
+        }
+        return trends;
+    }
+
+    private void adjust(Map<Key, Long> deltas) {
+        // Rows are always locked in key order so concurrent writers cannot deadlock
+        List<Object[]> rows = deltas.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(KEY_ORDER))
+                .map(entry -> new Object[] {
+                        Date.valueOf(entry.getKey().getDate()), entry.getKey().getServiceId(),
+                        entry.getKey().getStatus().name(), entry.getValue() })
+                .toList();
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+    }
+
+    private static LocalDate bucketStart(LocalDate date, Granularity granularity) {
+        return switch (granularity) {
+            case DAY -> date;
+            case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> date.withDayOfMonth(1);
+        };
+    }
+
+    private static ChronoUnit unit(Granularity granularity) {
+        return switch (granularity) {
+            case DAY -> ChronoUnit.DAYS;
+            case WEEK -> ChronoUnit.WEEKS;
+            case MONTH -> ChronoUnit.MONTHS;
+        };
+    }
+}
@@ -0,0 +1,139 @@
+package com.psnrwanda.api.service;
+
+import com.psnrwanda.api.repository.BookingExportRepository;
+import com.psnrwanda.api.repository.projection.BookingExportRow;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.CreationHelper;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.function.LongConsumer;
+
+/**
+ * Writes the booking Excel export with POI's streaming {@link SXSSFWorkbook}.
+ * <p>
+ * Only the last {@link #ROW_WINDOW} rows are kept in memory; older rows are flushed to a compressed
+ * temporary file as bookings stream in from the database cursor, so heap use does not depend on the row count.
+ * The temporary files are removed in a {@code finally} block, including when the client disconnects mid-download.
+ * IDs are numeric cells and timestamps are date cells, so Excel sorts and filters them natively.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookingXlsxReportWriter {
+
+    /**
+     * Rows kept in memory before older rows are flushed to the temporary file
+     */
+    static final int ROW_WINDOW = 500;
+
+    private static final String SHEET_NAME = "Bookings";
+    private static final String DATE_TIME_FORMAT = "yyyy-mm-dd hh:mm:ss";
+
+    private static final String[] HEADERS = {
+            "ID", "Tracking #", "Phone Number", "Service", "Email", "Full Name", "Status", "Notes", "Created At", "Updated At"
+    };
+    private static final int[] COLUMN_WIDTHS = { 10, 14, 16, 30, 30, 24, 12, 40, 20, 20 };
+
+    private final BookingExportRepository bookingExportRepository;
+
+    /**
+     * Write the export for the bookings matching a filter
+     *
+     * @param filter Export filter
+     * @param out Output stream; not closed
+     * @param progress Called with the number of bookings written so far after every row
+     * @return Number of bookings written
+     * @throws IOException If the workbook cannot be written
+     */
+    public long write(BookingExportRepository.Filter filter, OutputStream out, LongConsumer progress) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+        try {
+            SheetPass pass = new SheetPass(workbook, progress);
+            bookingExportRepository.forEach(filter, pass::add);
+            pass.finish();
+
+            workbook.write(out);
+            out.flush();
+
+            log.info("Wrote XLSX export with {} bookings", pass.rows);
+            return pass.rows;
+        } finally {
+            // Deletes the temporary files backing the flushed rows
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    /**
+     * State of one export: the sheet, its cell styles and the next row index
+     */
+    private static final class SheetPass {
+
+        private final SXSSFSheet sheet;
+        private final LongConsumer progress;
+        private final CellStyle dateTimeStyle;
+        private long rows;
+
+        private SheetPass(SXSSFWorkbook workbook, LongConsumer progress) {
+            this.sheet = workbook.createSheet(SHEET_NAME);
+            this.progress = progress;
+
+            CreationHelper creationHelper = workbook.getCreationHelper();
+            this.dateTimeStyle = workbook.createCellStyle();
+            dateTimeStyle.setDataFormat(creationHelper.createDataFormat().getFormat(DATE_TIME_FORMAT));
+
+            Font headerFont = workbook.createFont();
+            headerFont.setBold(true);
+            CellStyle headerStyle = workbook.createCellStyle();
+            headerStyle.setFont(headerFont);
+
+            Row header = sheet.createRow(0);
+            for (int i = 0; i < HEADERS.length; i++) {
+                header.createCell(i).setCellValue(HEADERS[i]);
+                header.getCell(i).setCellStyle(headerStyle);
+                sheet.setColumnWidth(i, COLUMN_WIDTHS[i] * 256);
+            }
+            sheet.createFreezePane(0, 1);
+        }
+
+        private void add(BookingExportRow booking) {
+            Row row = sheet.createRow((int) ++rows);
+            row.createCell(0).setCellValue(booking.getId());
+            setText(row, 1, booking.getTrackingNumber());
+            setText(row, 2, booking.getPhoneNumber());
+            setText(row, 3, booking.getServiceName());
+            setText(row, 4, booking.getEmail());
+            setText(row, 5, booking.getFullName());
+            setText(row, 6, booking.getStatus());
+            setText(row, 7, booking.getNotes());
+
+            row.createCell(8).setCellValue(booking.getCreatedAt());
+            row.getCell(8).setCellStyle(dateTimeStyle);
+            if (booking.getUpdatedAt() != null) {
+                row.createCell(9).setCellValue(booking.getUpdatedAt());
+                row.getCell(9).setCellStyle(dateTimeStyle);
+            }
+            progress.accept(rows);
+        }
+
+        private void finish() {
+            sheet.setAutoFilter(new CellRangeAddress(0, (int) rows, 0, HEADERS.length - 1));
+        }
+
+        private static void setText(Row row, int column, String value) {
+            if (value != null) {
+                row.createCell(column).setCellValue(value);
+            }
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.psnrwanda.api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.psnrwanda.api.config.AppProperties;
+import com.psnrwanda.api.dto.ReportDto;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Cache of the computed dashboard statistics, shared by all admins.
+ * <p>
+ * A snapshot younger than the TTL is served as is. An older one is still served while a single background
+ * refresh recomputes it (stale-while-revalidate); only once it is older than the maximum staleness do callers
+ * wait for a new one. Concurrent callers never start more than one computation: they all join the one in flight.
+ * Every snapshot carries a strong ETag computed from its JSON form, so unchanged dashboards can be answered with 304.
+ * Invalidation starts a new generation: a computation that began before it still answers the callers that joined it,
+ * but its result is not kept, as it may predate the change that caused the invalidation.
+ */
+@Slf4j
+@Component
+public class DashboardStatsCache {
+
+    /**
+     * Computed dashboard statistics with their ETag
+     */
+    @Value
+    public static class Snapshot {
+        ReportDto.DashboardStatsDto stats;
+        /** Quoted strong ETag */
+        String etag;
+        /** System.nanoTime() when the statistics were computed */
+        long computedAt;
+    }
+
+    private final ThreadPoolTaskExecutor executor;
+    private final ObjectMapper objectMapper;
+    private final long ttlNanos;
+    private final long maxStaleNanos;
+
+    private final Object lock = new Object();
+    private volatile Snapshot snapshot;
+    /** Computation in flight, guarded by {@link #lock} */
+    private CompletableFuture<Snapshot> inFlight;
+    /** Incremented by every invalidation, guarded by {@link #lock} */
+    private long generation;
+
+    /**
+     * Constructor
+     * @param executor Background refresh pool
+     * @param objectMapper Object mapper used to derive the ETag
+     * @param appProperties Application properties
+     */
+    public DashboardStatsCache(@Qualifier("dashboardRefreshExecutor") ThreadPoolTaskExecutor executor,
+                               ObjectMapper objectMapper,
+                               AppProperties appProperties) {
+        AppProperties.DashboardCache settings = appProperties.getDashboardCache();
+        this.executor = executor;
+        this.objectMapper = objectMapper;
+        this.ttlNanos = settings.getTtl().toNanos();
+        this.maxStaleNanos = settings.getMaxStale().toNanos();
+    }
+
+    /**
+     * Get the dashboard statistics, computing them if there is no usable snapshot
+     *
+     * @param loader Computes the statistics
+     * @return Current snapshot
+     */
+    public Snapshot get(Supplier<ReportDto.DashboardStatsDto> loader) {
+        Snapshot current = snapshot;
+        if (current != null) {
+            long age = System.nanoTime() - current.getComputedAt();
+            if (age < ttlNanos) {
+                return current;
+            }
+            if (age < maxStaleNanos) {
+                load(loader, true);
+                return current;
+            }
+        }
+
+        try {
+            return load(loader, false).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Drop the current snapshot so the next call recomputes it
+     */
+    public void invalidate() {
+        synchronized (lock) {
+            generation++;
+            snapshot = null;
+            // Later callers start a computation of the new generation instead of joining this one
+            inFlight = null;
+        }
+    }
+
+    /**
+     * Join the computation in flight, or start one
+     *
+     * @param loader Computes the statistics
+     * @param background Whether a new computation runs on the refresh pool instead of the calling thread
+     * @return The computation
+     */
+    private CompletableFuture<Snapshot> load(Supplier<ReportDto.DashboardStatsDto> loader, boolean background) {
+        CompletableFuture<Snapshot> future;
+        long started;
+        synchronized (lock) {
+            if (inFlight != null) {
+                return inFlight;
+            }
+            future = new CompletableFuture<>();
+            inFlight = future;
+            started = generation;
+        }
+
+        Runnable task = () -> compute(loader, future, started);
+        if (background) {
+            try {
+                executor.execute(task);
+            } catch (TaskRejectedException e) {
+                log.warn("Dashboard refresh rejected, serving the stale snapshot", e);
+                finish(future);
+                future.completeExceptionally(e);
+            }
+        } else {
+            task.run();
+        }
+        return future;
+    }
+
+    private void compute(Supplier<ReportDto.DashboardStatsDto> loader, CompletableFuture<Snapshot> future,
+                         long started) {
+        try {
+            ReportDto.DashboardStatsDto stats = loader.get();
+            Snapshot computed = new Snapshot(stats, etag(stats), System.nanoTime());
+            synchronized (lock) {
+                if (generation == started) {
+                    snapshot = computed;
+                }
+                if (inFlight == future) {
+                    inFlight = null;
+                }
+            }
+            future.complete(computed);
+        } catch (RuntimeException e) {
+            log.error("Failed to compute dashboard statistics", e);
+            finish(future);
+            future.completeExceptionally(e);
+        }
+    }
+
+    private void finish(CompletableFuture<Snapshot> future) {
+        synchronized (lock) {
+            if (inFlight == future) {
+                inFlight = null;
+            }
+        }
+    }
+
+    private String etag(ReportDto.DashboardStatsDto stats) {
+        try {
+            return "\"" + DigestUtils.md5DigestAsHex(objectMapper.writeValueAsBytes(stats)) + "\"";
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize dashboard statistics", e);
+        }
+    }
+}
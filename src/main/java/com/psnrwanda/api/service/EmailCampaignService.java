@@ -0,0 +1,596 @@
+package com.psnrwanda.api.service;
+
+import com.psnrwanda.api.config.AppProperties;
+import com.psnrwanda.api.dto.CampaignDto;
+import com.psnrwanda.api.exception.BadRequestException;
+import com.psnrwanda.api.exception.ConflictException;
+import com.psnrwanda.api.exception.ResourceNotFoundException;
+import com.psnrwanda.api.model.Booking;
+import com.psnrwanda.api.model.EmailCampaign;
+import com.psnrwanda.api.repository.EmailCampaignRecipientRepository;
+import com.psnrwanda.api.repository.EmailCampaignRepository;
+import com.psnrwanda.api.repository.ServiceRepository;
+import com.psnrwanda.api.service.common.TokenBucket;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Service sending bulk email campaigns to a segment of customers.
+ * <p>
+ * When a campaign starts its recipients are snapshotted with a single {@code INSERT ... SELECT}, one row per
+ * distinct address, so later bookings and sign-ups do not change who receives it. The campaign worker then claims
+ * the pending recipients in keyset-paged bursts, renders the burst's emails in parallel on the render pool and
+ * sends them through the pooled mail sender in one SMTP call, at the configured campaign rate. Each recipient is
+ * marked SENDING when claimed and SENT or FAILED afterwards, and the counters and the campaign's lease are updated
+ * after every burst. A campaign whose instance stopped is resumed once its lease expires; recipients
+ * it left in SENDING are counted as UNKNOWN and not sent again, so no customer receives a campaign twice.
+ * <p>
+ * A mail server or connection failure pauses the campaign as FAILED with the undelivered recipients returned to
+ * PENDING, and an admin can resume it once the server is back.
+ */
+@Slf4j
+@Service
+public class EmailCampaignService {
+
+    private static final int MAX_ERROR_LENGTH = 2000;
+    private static final String DEFAULT_TEMPLATE = "campaign";
+    private static final String DEFAULT_RECIPIENT_NAME = "Valued Customer";
+    private static final Pattern PARAGRAPH_SEPARATOR = Pattern.compile("\\R\\s*\\R");
+
+    /**
+     * Outcome of sending one burst
+     */
+    private static class BurstResult {
+        private final List<Long> sent = new ArrayList<>();
+        private final Map<Long, String> failed = new LinkedHashMap<>();
+        /** Claimed recipients whose email never reached the mail server */
+        private final List<Long> released = new ArrayList<>();
+        /** Why the campaign has to pause, if it does */
+        private String pauseReason;
+    }
+
+    /**
+     * Rendered email of a recipient
+     */
+    @Value
+    private static class PreparedEmail {
+        Long recipientId;
+        MimeMessage message;
+    }
+
+    /**
+     * Thrown when another instance has taken over a campaign after this one let its lease expire
+     */
+    private static class LeaseLostException extends RuntimeException {
+        LeaseLostException(Long campaignId) {
+            super("Lease of campaign " + campaignId + " was lost");
+        }
+    }
+
+    private final EmailCampaignRepository campaignRepository;
+    private final EmailCampaignRecipientRepository recipientRepository;
+    private final ServiceRepository serviceRepository;
+    private final NotificationService notificationService;
+    private final EmailTemplateRenderer emailTemplateRenderer;
+    private final JavaMailSender mailSender;
+    private final ThreadPoolTaskExecutor executor;
+    private final ThreadPoolTaskExecutor renderExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final AppProperties.Campaigns settings;
+    private final TokenBucket rate;
+
+    /**
+     * Campaigns queued or running on this instance
+     */
+    private final Set<Long> scheduled = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Constructor
+     * @param campaignRepository Email campaign repository
+     * @param recipientRepository Campaign recipient repository
+     * @param serviceRepository Service repository
+     * @param notificationService Notification service, for the sender address
+     * @param emailTemplateRenderer Email template renderer
+     * @param mailSender Pooled mail sender
+     * @param executor Campaign worker
+     * @param renderExecutor Campaign render pool
+     * @param transactionManager Transaction manager
+     * @param appProperties Application properties
+     */
+    public EmailCampaignService(EmailCampaignRepository campaignRepository,
+                                EmailCampaignRecipientRepository recipientRepository,
+                                ServiceRepository serviceRepository,
+                                NotificationService notificationService,
+                                EmailTemplateRenderer emailTemplateRenderer,
+                                JavaMailSender mailSender,
+                                @Qualifier("campaignExecutor") ThreadPoolTaskExecutor executor,
+                                @Qualifier("campaignRenderExecutor") ThreadPoolTaskExecutor renderExecutor,
+                                PlatformTransactionManager transactionManager,
+                                AppProperties appProperties) {
+        this.campaignRepository = campaignRepository;
+        this.recipientRepository = recipientRepository;
+        this.serviceRepository = serviceRepository;
+        this.notificationService = notificationService;
+        this.emailTemplateRenderer = emailTemplateRenderer;
+        this.mailSender = mailSender;
+        this.executor = executor;
+        this.renderExecutor = renderExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.settings = appProperties.getCampaigns();
+        this.rate = new TokenBucket(settings.getRatePerSecond(), settings.getBurst());
+    }
+
+    /**
+     * Create a campaign and queue it for sending
+     *
+     * @param request Campaign parameters
+     * @return The queued campaign
+     * @throws BadRequestException If the segment, template or booking status is invalid
+     * @throws ResourceNotFoundException If the service does not exist
+     */
+    public CampaignDto create(CampaignDto.CreateCampaignDto request) {
+        EmailCampaign.Segment segment = parseSegment(request.getSegment());
+        String template = StringUtils.hasText(request.getTemplate()) ? request.getTemplate().trim() : DEFAULT_TEMPLATE;
+        if (!EmailTemplateRenderer.CAMPAIGN_TEMPLATES.contains(template)) {
+            throw new BadRequestException("Invalid campaign template: " + template
+                    + ". Available templates: " + String.join(", ", EmailTemplateRenderer.CAMPAIGN_TEMPLATES));
+        }
+
+        Booking.BookingStatus bookingStatus = parseBookingStatus(request.getBookingStatus());
+        if (segment == EmailCampaign.Segment.USERS && (request.getServiceId() != null || bookingStatus != null)) {
+            throw new BadRequestException("Service and booking status filters only apply to the BOOKINGS segment");
+        }
+        if (request.getServiceId() != null && !serviceRepository.existsById(request.getServiceId())) {
+            throw new ResourceNotFoundException("Service", "id", request.getServiceId());
+        }
+
+        EmailCampaign campaign = campaignRepository.save(EmailCampaign.builder()
+                .name(request.getName().trim())
+                .subject(request.getSubject().trim())
+                .message(request.getMessage())
+                .template(template)
+                .segment(segment)
+                .serviceId(request.getServiceId())
+                .bookingStatus(bookingStatus)
+                .build());
+
+        schedule(campaign.getId());
+        log.info("Queued {} email campaign {} '{}'", segment, campaign.getId(), campaign.getName());
+        return convertToDto(campaign);
+    }
+
+    /**
+     * Get campaigns
+     * @param pageable Pagination information
+     * @return Page of campaigns
+     */
+    public Page<CampaignDto> getCampaigns(Pageable pageable) {
+        return campaignRepository.findAll(pageable).map(this::convertToDto);
+    }
+
+    /**
+     * Get a campaign with its progress
+     *
+     * @param id Campaign ID
+     * @return The campaign
+     * @throws ResourceNotFoundException If the campaign does not exist
+     */
+    public CampaignDto getCampaign(Long id) {
+        return convertToDto(findCampaign(id));
+    }
+
+    /**
+     * Resume a campaign that was paused by a failure. Recipients already sent are skipped.
+     *
+     * @param id Campaign ID
+     * @return The queued campaign
+     * @throws ResourceNotFoundException If the campaign does not exist
+     * @throws ConflictException If the campaign has not failed
+     */
+    public CampaignDto resume(Long id) {
+        EmailCampaign campaign = transactionTemplate.execute(status -> {
+            EmailCampaign locked = campaignRepository.findByIdForUpdate(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Campaign", "id", id));
+            if (locked.getStatus() != EmailCampaign.Status.FAILED) {
+                throw new ConflictException("Campaign " + id + " is " + locked.getStatus().name().toLowerCase());
+            }
+            locked.setStatus(EmailCampaign.Status.QUEUED);
+            locked.setError(null);
+            locked.setCompletedAt(null);
+            return campaignRepository.save(locked);
+        });
+
+        schedule(id);
+        log.info("Resumed email campaign {}", id);
+        return convertToDto(campaign);
+    }
+
+    /**
+     * Queue the campaigns that are waiting: those the worker queue had no room for, and running campaigns
+     * whose instance stopped renewing their lease
+     */
+    @Scheduled(fixedDelayString = "${app.campaigns.resume-interval:PT1M}")
+    public void resumeCampaigns() {
+        for (Long id : campaignRepository.findRunnableIds(LocalDateTime.now())) {
+            if (!schedule(id)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Queue a campaign on the campaign worker unless it is already queued or running here
+     * @return Whether the worker accepted it
+     */
+    private boolean schedule(Long id) {
+        if (!scheduled.add(id)) {
+            return true;
+        }
+        try {
+            executor.execute(() -> run(id));
+            return true;
+        } catch (TaskRejectedException e) {
+            // Still QUEUED in the database, so the next scheduled check picks it up
+            scheduled.remove(id);
+            log.info("Campaign queue is full, campaign {} will start later", id);
+            return false;
+        }
+    }
+
+    /**
+     * Take over a campaign and send it to its remaining recipients. Runs on the campaign worker.
+     * @param id Campaign ID
+     */
+    private void run(Long id) {
+        try {
+            EmailCampaign campaign = transactionTemplate.execute(status -> start(id));
+            if (campaign != null) {
+                send(campaign);
+            }
+        } catch (LeaseLostException e) {
+            log.warn("Campaign {} was taken over by another instance, stopping here", id);
+        } catch (InterruptedException e) {
+            // Shutting down: the campaign stays RUNNING and is resumed once its lease expires
+            Thread.currentThread().interrupt();
+            log.info("Campaign {} interrupted", id);
+        } catch (Exception e) {
+            log.error("Campaign {} failed", id, e);
+            fail(id, errorMessage(e));
+        } finally {
+            scheduled.remove(id);
+        }
+    }
+
+    /**
+     * Acquire the lease of a runnable campaign, snapshotting its recipients on the first run
+     * @return The running campaign, or null if it is not runnable or another instance is starting it
+     */
+    private EmailCampaign start(Long id) {
+        EmailCampaign campaign = campaignRepository.lockById(id).orElse(null);
+        LocalDateTime now = LocalDateTime.now();
+        if (campaign == null || !isRunnable(campaign, now)) {
+            return null;
+        }
+
+        if (campaign.getTotalRecipients() == null) {
+            int total = campaign.getSegment() == EmailCampaign.Segment.USERS
+                    ? recipientRepository.snapshotUsers(id)
+                    : recipientRepository.snapshotBookings(id, campaign.getServiceId(), campaign.getBookingStatus());
+            campaign.setTotalRecipients(total);
+            campaign.setStartedAt(now);
+            log.info("Campaign {} started with {} recipients", id, total);
+        } else {
+            int unknown = recipientRepository.markInFlightUnknown(id);
+            campaign.setUnknownCount(campaign.getUnknownCount() + unknown);
+            if (unknown > 0) {
+                log.warn("Campaign {} resumed after an interruption, {} emails that were in flight are not sent again",
+                        id, unknown);
+            }
+        }
+
+        campaign.setStatus(EmailCampaign.Status.RUNNING);
+        campaign.setLeaseUntil(leaseFrom(now));
+        return campaignRepository.save(campaign);
+    }
+
+    /**
+     * Send the pending recipients burst by burst, then complete the campaign
+     */
+    private void send(EmailCampaign campaign) throws InterruptedException {
+        Long id = campaign.getId();
+        List<String> paragraphs = Arrays.stream(PARAGRAPH_SEPARATOR.split(campaign.getMessage().strip()))
+                .map(String::strip)
+                .filter(StringUtils::hasText)
+                .toList();
+
+        LocalDateTime lease = campaign.getLeaseUntil();
+        long afterId = 0;
+        List<EmailCampaignRecipientRepository.Recipient> burst;
+        // Claim no more than one SMTP call sends, so an instance stopping mid-send leaves at most one burst UNKNOWN
+        while (!(burst = recipientRepository.claimPending(id, afterId, settings.getBurst())).isEmpty()) {
+            afterId = burst.get(burst.size() - 1).getId();
+
+            BurstResult result = sendBurst(campaign, paragraphs, burst);
+            lease = recordBurst(id, lease, result);
+            log.debug("Campaign {} sent {} and failed {} of a burst of {}",
+                    id, result.sent.size(), result.failed.size(), burst.size());
+
+            if (result.pauseReason != null) {
+                throw new IllegalStateException(result.pauseReason);
+            }
+        }
+
+        complete(id, lease);
+    }
+
+    /**
+     * Render the emails of a burst in parallel and send them in one SMTP call once the rate allows
+     */
+    private BurstResult sendBurst(EmailCampaign campaign, List<String> paragraphs,
+                                  List<EmailCampaignRecipientRepository.Recipient> burst) throws InterruptedException {
+        String sender = notificationService.getFormattedFromAddress();
+        List<CompletableFuture<MimeMessage>> renders = burst.stream()
+                .map(recipient -> CompletableFuture.supplyAsync(
+                        () -> prepare(campaign, paragraphs, sender, recipient), renderExecutor))
+                .toList();
+
+        BurstResult result = new BurstResult();
+        List<PreparedEmail> emails = new ArrayList<>(burst.size());
+        for (int i = 0; i < burst.size(); i++) {
+            Long recipientId = burst.get(i).getId();
+            try {
+                emails.add(new PreparedEmail(recipientId, renders.get(i).join()));
+            } catch (CompletionException e) {
+                // Malformed address or a template error: this recipient cannot be sent, the others can
+                result.failed.put(recipientId, errorMessage(e.getCause() != null ? e.getCause() : e));
+            }
+        }
+        if (emails.isEmpty()) {
+            return result;
+        }
+
+        if (!rate.tryAcquire(emails.size(), settings.getSendTimeout())) {
+            result.pauseReason = "Campaign sending rate not available within " + settings.getSendTimeout();
+            emails.forEach(email -> result.released.add(email.getRecipientId()));
+        } else {
+            sendBatch(emails, result);
+        }
+        return result;
+    }
+
+    /**
+     * Send a burst of emails over one pooled connection and sort the recipients by outcome.
+     * Only a rejected recipient fails; any other error means the server or connection is in trouble,
+     * so the emails it did not accept are released and the campaign pauses.
+     */
+    private void sendBatch(List<PreparedEmail> batch, BurstResult result) {
+        try {
+            mailSender.send(batch.stream().map(PreparedEmail::getMessage).toArray(MimeMessage[]::new));
+            batch.forEach(email -> result.sent.add(email.getRecipientId()));
+        } catch (MailSendException e) {
+            Map<Object, Exception> failures = e.getFailedMessages();
+            for (PreparedEmail email : batch) {
+                Exception failure = failures.isEmpty() ? e : failures.get(email.getMessage());
+                if (failure == null) {
+                    result.sent.add(email.getRecipientId());
+                } else if (failure instanceof SendFailedException) {
+                    result.failed.put(email.getRecipientId(), errorMessage(failure));
+                } else {
+                    result.released.add(email.getRecipientId());
+                    result.pauseReason = "Mail server error: " + errorMessage(failure);
+                }
+            }
+        } catch (MailException e) {
+            batch.forEach(email -> result.released.add(email.getRecipientId()));
+            result.pauseReason = "Mail server error: " + errorMessage(e);
+        }
+    }
+
+    /**
+     * Build the email of one recipient. Runs on the render pool.
+     */
+    private MimeMessage prepare(EmailCampaign campaign, List<String> paragraphs, String sender,
+                                EmailCampaignRecipientRepository.Recipient recipient) {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("subject", campaign.getSubject());
+        variables.put("recipientName", StringUtils.hasText(recipient.getFullName())
+                ? recipient.getFullName() : DEFAULT_RECIPIENT_NAME);
+        variables.put("paragraphs", paragraphs);
+
+        try {
+            MimeMessage mimeMessage = mailSender.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
+            helper.setFrom(sender);
+            helper.setTo(recipient.getEmail());
+            helper.setSubject(campaign.getSubject());
+
+            // Inline images must be added after the body text
+            helper.setText(emailTemplateRenderer.render(campaign.getTemplate(), variables), true);
+            emailTemplateRenderer.addInlineAssets(helper);
+            return mimeMessage;
+        } catch (MessagingException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * Store the outcome of a burst with the campaign counters and renew the lease, in one transaction
+     * @return The renewed lease
+     */
+    private LocalDateTime recordBurst(Long id, LocalDateTime lease, BurstResult result) {
+        return transactionTemplate.execute(status -> {
+            EmailCampaign campaign = lockOwned(id, lease);
+            LocalDateTime now = LocalDateTime.now();
+
+            int sent = result.sent.isEmpty() ? 0 : recipientRepository.markSent(result.sent, now);
+            int failed = result.failed.isEmpty() ? 0 : recipientRepository.markFailed(result.failed);
+            if (!result.released.isEmpty()) {
+                recipientRepository.release(result.released);
+            }
+
+            campaign.setSentCount(campaign.getSentCount() + sent);
+            campaign.setFailedCount(campaign.getFailedCount() + failed);
+            campaign.setLeaseUntil(leaseFrom(now));
+            return campaignRepository.save(campaign).getLeaseUntil();
+        });
+    }
+
+    private void complete(Long id, LocalDateTime lease) {
+        EmailCampaign campaign = transactionTemplate.execute(status -> {
+            EmailCampaign owned = lockOwned(id, lease);
+            owned.setStatus(EmailCampaign.Status.COMPLETED);
+            owned.setCompletedAt(LocalDateTime.now());
+            owned.setLeaseUntil(null);
+            return campaignRepository.save(owned);
+        });
+        log.info("Campaign {} completed: {} sent, {} failed, {} unknown", id,
+                campaign.getSentCount(), campaign.getFailedCount(), campaign.getUnknownCount());
+    }
+
+    /**
+     * Pause a running campaign as failed; it keeps its progress and can be resumed
+     */
+    private void fail(Long id, String error) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> campaignRepository.findByIdForUpdate(id)
+                    .filter(campaign -> campaign.getStatus() == EmailCampaign.Status.RUNNING)
+                    .ifPresent(campaign -> {
+                        campaign.setStatus(EmailCampaign.Status.FAILED);
+                        campaign.setError(error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+                        campaign.setCompletedAt(LocalDateTime.now());
+                        campaign.setLeaseUntil(null);
+                        campaignRepository.save(campaign);
+                    }));
+        } catch (RuntimeException e) {
+            // The lease expires and the campaign is resumed by the scheduled check instead
+            log.error("Could not mark campaign {} as failed", id, e);
+        }
+    }
+
+    /**
+     * Lock a campaign this instance is running
+     * @throws LeaseLostException If the lease has been taken over since it was last renewed
+     */
+    private EmailCampaign lockOwned(Long id, LocalDateTime lease) {
+        EmailCampaign campaign = campaignRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new LeaseLostException(id));
+        if (campaign.getStatus() != EmailCampaign.Status.RUNNING || !lease.equals(campaign.getLeaseUntil())) {
+            throw new LeaseLostException(id);
+        }
+        return campaign;
+    }
+
+    private static boolean isRunnable(EmailCampaign campaign, LocalDateTime now) {
+        return campaign.getStatus() == EmailCampaign.Status.QUEUED
+                || (campaign.getStatus() == EmailCampaign.Status.RUNNING
+                && campaign.getLeaseUntil() != null && campaign.getLeaseUntil().isBefore(now));
+    }
+
+    /**
+     * Lease expiry, truncated so it compares equal after a round trip through the database
+     */
+    private LocalDateTime leaseFrom(LocalDateTime now) {
+        return now.plus(settings.getLease()).truncatedTo(ChronoUnit.MILLIS);
+    }
+
+    private EmailCampaign findCampaign(Long id) {
+        return campaignRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Campaign", "id", id));
+    }
+
+    private static EmailCampaign.Segment parseSegment(String segment) {
+        try {
+            return EmailCampaign.Segment.valueOf(segment.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid segment: " + segment + ". Use USERS or BOOKINGS");
+        }
+    }
+
+    private static Booking.BookingStatus parseBookingStatus(String status) {
+        if (!StringUtils.hasText(status)) {
+            return null;
+        }
+        try {
+            return Booking.BookingStatus.valueOf(status.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid status: " + status);
+        }
+    }
+
+    private static String errorMessage(Throwable e) {
+        return e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+    }
+
+    /**
+     * Convert an EmailCampaign entity to a DTO
+     * @param campaign Email campaign
+     * @return Campaign DTO
+     */
+    private CampaignDto convertToDto(EmailCampaign campaign) {
+        Integer total = campaign.getTotalRecipients();
+        int processed = campaign.getSentCount() + campaign.getFailedCount() + campaign.getUnknownCount();
+
+        Integer progress = null;
+        if (campaign.getStatus() == EmailCampaign.Status.COMPLETED) {
+            progress = 100;
+        } else if (total != null && total > 0) {
+            // Capped below 100 until the campaign has been marked complete
+            progress = Math.min(99, processed * 100 / total);
+        } else if (total != null) {
+            progress = 0;
+        }
+
+        return CampaignDto.builder()
+                .id(campaign.getId())
+                .name(campaign.getName())
+                .subject(campaign.getSubject())
+                .template(campaign.getTemplate())
+                .segment(campaign.getSegment().name())
+                .serviceId(campaign.getServiceId())
+                .bookingStatus(campaign.getBookingStatus() != null ? campaign.getBookingStatus().name() : null)
+                .status(campaign.getStatus().name())
+                .totalRecipients(total)
+                .sent(campaign.getSentCount())
+                .failed(campaign.getFailedCount())
+                .unknown(campaign.getUnknownCount())
+                .pending(total != null ? Math.max(0, total - processed) : null)
+                .progress(progress)
+                .error(campaign.getError())
+                .createdAt(campaign.getCreatedAt())
+                .startedAt(campaign.getStartedAt())
+                .completedAt(campaign.getCompletedAt())
+                .build();
+    }
+}
@@ -0,0 +1,133 @@
+package com.psnrwanda.api.service;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.util.ByteArrayDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Renders the HTML email templates and attaches their static assets.
+ * <p>
+ * The logo is read from the classpath once and every message attaches the same data source, instead of each
+ * message opening and reading the resource again. The templates are parsed into Thymeleaf's template cache at startup,
+ * so the first booking email does not pay for parsing, and each template is rendered into a buffer sized from
+ * its previous output so large emails are not copied through several growing buffers.
+ */
+@Slf4j
+@Component
+public class EmailTemplateRenderer {
+
+    /**
+     * Content ID the templates use to reference the logo ({@code cid:company-logo})
+     */
+    public static final String LOGO_CONTENT_ID = "company-logo";
+
+    private static final String LOGO_PATH = "static/images/logo.png";
+    private static final String LOGO_CONTENT_TYPE = "image/png";
+    private static final String TEMPLATE_PREFIX = "email/";
+    /**
+     * Templates an admin can choose for an email campaign
+     */
+    public static final List<String> CAMPAIGN_TEMPLATES = List.of("campaign");
+
+    private static final List<String> TEMPLATES = List.of(
+            "booking-confirmation", "booking-status-update", "admin-booking-notification", "campaign");
+    private static final int DEFAULT_SIZE_HINT = 8 * 1024;
+
+    private final TemplateEngine templateEngine;
+    /** Logo shared by every message, or null if the image is missing */
+    private final ByteArrayDataSource logo;
+    /** Largest rendered size seen per template, used to size the output buffer */
+    private final Map<String, Integer> sizeHints = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor
+     * @param templateEngine Thymeleaf template engine
+     */
+    public EmailTemplateRenderer(TemplateEngine templateEngine) {
+        this.templateEngine = templateEngine;
+        this.logo = loadLogo();
+    }
+
+    /**
+     * Parse every email template once so they are cached before the first email is sent
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long start = System.nanoTime();
+        for (String template : TEMPLATES) {
+            try {
+                render(template, Map.of());
+            } catch (RuntimeException e) {
+                log.warn("Could not precompile email template {}: {}", template, e.getMessage());
+            }
+        }
+        log.info("Precompiled {} email templates in {} ms", TEMPLATES.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Render an email template
+     *
+     * @param templateName Template name (without directory and extension)
+     * @param variables Template variables, may be null
+     * @return Rendered HTML
+     */
+    public String render(String templateName, Map<String, Object> variables) {
+        Context context = new Context(Locale.getDefault(), variables != null ? variables : Map.of());
+        StringWriter writer = newWriter(templateName);
+        templateEngine.process(TEMPLATE_PREFIX + templateName, context, writer);
+
+        int size = writer.getBuffer().length();
+        sizeHints.merge(templateName, size, Math::max);
+        return writer.toString();
+    }
+
+    /**
+     * Create the output buffer of a render, sized from the largest output of the template so far
+     *
+     * @param templateName Template name
+     * @return Empty writer
+     */
+    StringWriter newWriter(String templateName) {
+        return new StringWriter(sizeHints.getOrDefault(templateName, DEFAULT_SIZE_HINT));
+    }
+
+    /**
+     * Attach the inline assets referenced by the templates
+     *
+     * @param helper Helper of a multipart message
+     * @throws MessagingException If the assets cannot be attached
+     */
+    public void addInlineAssets(MimeMessageHelper helper) throws MessagingException {
+        if (logo != null) {
+            helper.addInline(LOGO_CONTENT_ID, logo);
+        }
+    }
+
+    private static ByteArrayDataSource loadLogo() {
+        ClassPathResource resource = new ClassPathResource(LOGO_PATH);
+        if (!resource.exists()) {
+            log.warn("Email logo {} not found, emails will be sent without it", LOGO_PATH);
+            return null;
+        }
+        try {
+            return new ByteArrayDataSource(resource.getContentAsByteArray(), LOGO_CONTENT_TYPE);
+        } catch (IOException e) {
+            log.warn("Could not read email logo {}, emails will be sent without it", LOGO_PATH, e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package com.psnrwanda.api.service;
+
+import com.psnrwanda.api.config.AppProperties;
+import com.psnrwanda.api.dto.ReportDto;
+import com.psnrwanda.api.exception.ConflictException;
+import com.psnrwanda.api.exception.FileStorageException;
+import com.psnrwanda.api.exception.ResourceNotFoundException;
+import com.psnrwanda.api.model.ExportJob;
+import com.psnrwanda.api.model.common.ExportFormat;
+import com.psnrwanda.api.repository.BookingExportRepository;
+import com.psnrwanda.api.repository.ExportJobRepository;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service running booking exports in the background.
+ * <p>
+ * A submitted job is queued on the bounded export worker pool, so the render and the database cursor it
+ * reads from are off the request thread. The file is written next to its final name and moved into place
+ * once complete, so a download never sees a partial file. The export directory must be a volume shared by
+ * every instance: the download request can reach any instance, not only the one that rendered the file.
+ * <p>
+ * Progress of the jobs held by this instance is tracked in memory and reported live; a heartbeat writes it
+ * to the job row, so other instances report it too and can tell the job is alive. The sweep fails unfinished
+ * jobs whose heartbeat stopped, e.g. because their instance died, with a conditional update, and a job only
+ * completes if it is still running, so a job failed as stalled is never completed afterwards.
+ * Finished jobs and their files are deleted by the retention sweep.
+ */
+@Slf4j
+@Service
+public class ExportJobService {
+
+    private static final int MAX_ERROR_LENGTH = 2000;
+    private static final String PART_SUFFIX = ".part";
+    private static final List<ExportJob.Status> UNFINISHED = List.of(ExportJob.Status.QUEUED, ExportJob.Status.RUNNING);
+
+    /**
+     * A finished export file ready to be sent
+     */
+    @Value
+    public static class ExportArtifact {
+        Path path;
+        /** File name offered to the client */
+        String fileName;
+        String contentType;
+    }
+
+    private final ExportJobRepository exportJobRepository;
+    private final BookingExportRepository bookingExportRepository;
+    private final ReportService reportService;
+    private final ThreadPoolTaskExecutor executor;
+    private final AppProperties appProperties;
+    private final Path directory;
+
+    /**
+     * Rows written so far by the jobs queued or running on this instance, keyed by job ID
+     */
+    private final Map<Long, AtomicLong> running = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor
+     * @param exportJobRepository Export job repository
+     * @param bookingExportRepository Booking export repository
+     * @param reportService Report service
+     * @param executor Export worker pool
+     * @param appProperties Application properties
+     * @throws FileStorageException If the export directory cannot be created
+     */
+    public ExportJobService(ExportJobRepository exportJobRepository,
+                            BookingExportRepository bookingExportRepository,
+                            ReportService reportService,
+                            @Qualifier("exportJobExecutor") ThreadPoolTaskExecutor executor,
+                            AppProperties appProperties) {
+        this.exportJobRepository = exportJobRepository;
+        this.bookingExportRepository = bookingExportRepository;
+        this.reportService = reportService;
+        this.executor = executor;
+        this.appProperties = appProperties;
+        this.directory = Paths.get(appProperties.getExportJobs().getDirectory()).toAbsolutePath().normalize();
+
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not create the directory where export files will be stored.", ex);
+        }
+        log.info("Export files are stored in {}, which must be shared by every instance", directory);
+    }
+
+    /**
+     * Queue an export
+     *
+     * @param request Export parameters
+     * @return The queued job
+     * @throws ConflictException If the export queue is full
+     */
+    public ReportDto.ExportJobDto submit(ReportDto.ExportRequestDto request) {
+        ExportFormat format = ExportFormat.parse(request.getFormat());
+        BookingExportRepository.Filter filter = reportService.createExportFilter(
+                request.getStartDate(), request.getEndDate(), request.getStatus());
+
+        ExportJob job = exportJobRepository.save(ExportJob.builder()
+                .format(format)
+                .startDate(filter.getFrom().toLocalDate())
+                .endDate(filter.getTo().toLocalDate().minusDays(1))
+                .bookingStatus(filter.getStatus())
+                .build());
+
+        Long jobId = job.getId();
+        running.put(jobId, new AtomicLong());
+        try {
+            executor.execute(() -> run(jobId));
+        } catch (TaskRejectedException e) {
+            running.remove(jobId);
+            fail(job, "Export queue is full");
+            throw new ConflictException("Too many exports are queued, please try again later");
+        }
+
+        log.info("Queued {} export job {}", format, jobId);
+        return convertToDto(job);
+    }
+
+    /**
+     * Get an export job
+     *
+     * @param id Job ID
+     * @return The job, with live progress if it is running on this instance
+     * @throws ResourceNotFoundException If the job does not exist
+     */
+    public ReportDto.ExportJobDto getJob(Long id) {
+        return convertToDto(findJob(id));
+    }
+
+    /**
+     * Get the file of a completed export job
+     *
+     * @param id Job ID
+     * @return The export file
+     * @throws ResourceNotFoundException If the job or its file does not exist
+     * @throws ConflictException If the job has not completed
+     */
+    public ExportArtifact getArtifact(Long id) {
+        ExportJob job = findJob(id);
+        if (job.getStatus() != ExportJob.Status.COMPLETED) {
+            throw new ConflictException("Export job " + id + " is " + job.getStatus().name().toLowerCase());
+        }
+
+        Path path = directory.resolve(job.getFileName());
+        if (!Files.isRegularFile(path)) {
+            log.warn("Export file {} of completed job {} is missing; is the export directory shared by every instance?",
+                    path, id);
+            throw new ResourceNotFoundException("Export file for job " + id + " no longer exists");
+        }
+
+        String fileName = "bookings_" + job.getStartDate() + "_to_" + job.getEndDate() + "." + job.getFormat().getExtension();
+        return new ExportArtifact(path, fileName, job.getFormat().getContentType());
+    }
+
+    /**
+     * Report the progress of the jobs held by this instance, which also tells the sweep they are alive
+     */
+    @Scheduled(fixedDelayString = "${app.export-jobs.heartbeat-interval:PT1M}")
+    public void heartbeat() {
+        LocalDateTime now = LocalDateTime.now();
+        running.forEach((jobId, rows) -> {
+            if (exportJobRepository.heartbeat(jobId, rows.get(), now) == 0) {
+                log.warn("Export job {} is no longer unfinished, it will not be completed", jobId);
+            }
+        });
+    }
+
+    /**
+     * Delete expired jobs with their files, and fail unfinished jobs whose instance stopped reporting on them
+     */
+    @Scheduled(fixedDelayString = "${app.export-jobs.sweep-interval:PT15M}")
+    public void sweep() {
+        LocalDateTime now = LocalDateTime.now();
+
+        List<ExportJob> expired = exportJobRepository.findByExpiresAtBefore(now);
+        for (ExportJob job : expired) {
+            if (job.getFileName() != null) {
+                deleteQuietly(directory.resolve(job.getFileName()));
+            }
+            exportJobRepository.delete(job);
+        }
+
+        LocalDateTime stalledBefore = now.minus(appProperties.getExportJobs().getStallTimeout());
+        LocalDateTime expiresAt = now.plus(appProperties.getExportJobs().getRetention());
+        int failed = 0;
+        for (ExportJob job : exportJobRepository.findByStatusInAndUpdatedAtBefore(UNFINISHED, stalledBefore)) {
+            // Only wins if the job has not reported or finished since it was read
+            if (exportJobRepository.failStalled(job.getId(), "Export stopped making progress",
+                    stalledBefore, now, expiresAt) == 1) {
+                deleteQuietly(directory.resolve(fileName(job) + PART_SUFFIX));
+                failed++;
+            }
+        }
+
+        if (!expired.isEmpty() || failed > 0) {
+            log.info("Export sweep deleted {} expired jobs and failed {} stalled jobs", expired.size(), failed);
+        }
+    }
+
+    /**
+     * Render a queued job to its file. Runs on the export worker pool.
+     * @param jobId Job ID
+     */
+    private void run(Long jobId) {
+        AtomicLong rows = running.computeIfAbsent(jobId, id -> new AtomicLong());
+        ExportJob job = exportJobRepository.findById(jobId).orElse(null);
+        if (job == null || job.getStatus() != ExportJob.Status.QUEUED) {
+            running.remove(jobId);
+            return;
+        }
+
+        String fileName = fileName(job);
+        Path part = directory.resolve(fileName + PART_SUFFIX);
+        Path target = directory.resolve(fileName);
+        try {
+            BookingExportRepository.Filter filter = new BookingExportRepository.Filter(
+                    job.getStartDate().atStartOfDay(), job.getEndDate().plusDays(1).atStartOfDay(), job.getBookingStatus());
+
+            long totalRows = bookingExportRepository.count(filter);
+            LocalDateTime startedAt = LocalDateTime.now();
+            if (exportJobRepository.start(jobId, totalRows, startedAt) == 0) {
+                log.warn("Export job {} was failed before it started", jobId);
+                return;
+            }
+            job.setStatus(ExportJob.Status.RUNNING);
+            job.setTotalRows(totalRows);
+            job.setStartedAt(startedAt);
+
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(part))) {
+                reportService.writeBookings(job.getFormat(), filter, out, rows::set);
+            }
+            Files.move(part, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            LocalDateTime now = LocalDateTime.now();
+            long fileSize = Files.size(target);
+            if (exportJobRepository.complete(jobId, rows.get(), fileName, fileSize, now,
+                    now.plus(appProperties.getExportJobs().getRetention())) == 0) {
+                log.warn("Export job {} was failed as stalled while it ran, discarding its file", jobId);
+                deleteQuietly(target);
+                return;
+            }
+
+            log.info("Export job {} wrote {} bookings ({} bytes)", jobId, rows.get(), fileSize);
+        } catch (Exception e) {
+            log.error("Export job {} failed", jobId, e);
+            deleteQuietly(part);
+            deleteQuietly(target);
+            job.setRowsWritten(rows.get());
+            fail(job, e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        } finally {
+            running.remove(jobId);
+        }
+    }
+
+    /**
+     * Mark a job failed; it is kept for the retention period so the error can be read
+     */
+    private void fail(ExportJob job, String error) {
+        LocalDateTime now = LocalDateTime.now();
+        job.setStatus(ExportJob.Status.FAILED);
+        job.setError(error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+        job.setCompletedAt(now);
+        job.setExpiresAt(now.plus(appProperties.getExportJobs().getRetention()));
+        exportJobRepository.save(job);
+    }
+
+    private ExportJob findJob(Long id) {
+        return exportJobRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Export job", "id", id));
+    }
+
+    private static String fileName(ExportJob job) {
+        return "export-" + job.getId() + "." + job.getFormat().getExtension();
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete export file {}", path, e);
+        }
+    }
+
+    /**
+     * Convert an ExportJob entity to a DTO
+     * @param job Export job
+     * @return Export job DTO
+     */
+    private ReportDto.ExportJobDto convertToDto(ExportJob job) {
+        AtomicLong live = running.get(job.getId());
+        long rowsWritten = live != null ? live.get() : job.getRowsWritten();
+
+        Integer progress = null;
+        if (job.getStatus() == ExportJob.Status.COMPLETED) {
+            progress = 100;
+        } else if (job.getTotalRows() != null && job.getTotalRows() > 0) {
+            // Capped below 100 until the file has been finished and moved into place
+            progress = (int) Math.min(99, rowsWritten * 100 / job.getTotalRows());
+        } else if (job.getTotalRows() != null) {
+            progress = 0;
+        }
+
+        return ReportDto.ExportJobDto.builder()
+                .id(job.getId())
+                .format(job.getFormat().name())
+                .status(job.getStatus().name())
+                .startDate(job.getStartDate().toString())
+                .endDate(job.getEndDate().toString())
+                .bookingStatus(job.getBookingStatus() != null ? job.getBookingStatus().name() : null)
+                .totalRows(job.getTotalRows())
+                .rowsWritten(rowsWritten)
+                .progress(progress)
+                .fileSize(job.getFileSize())
+                .error(job.getError())
+                .createdAt(job.getCreatedAt())
+                .startedAt(job.getStartedAt())
+                .completedAt(job.getCompletedAt())
+                .expiresAt(job.getExpiresAt())
+                .build();
+    }
+}
@@ -1,10 +1,14 @@
 package com.psnrwanda.api.service;
 
+import com.psnrwanda.api.event.BookingDeletedEvent;
+import com.psnrwanda.api.event.BookingEventMetrics;
 import com.psnrwanda.api.exception.FileStorageException;
 import com.psnrwanda.api.model.BookingDocument;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -24,13 +28,17 @@ import java.util.UUID;
 public class FileStorageService {
 
     private final Path fileStorageLocation;
+    private final BookingEventMetrics bookingEventMetrics;
     
     /**
      * Constructor that initializes the file storage location
      * @param uploadDir The upload directory path
+     * @param bookingEventMetrics Booking event listener runner
      * @throws FileStorageException If unable to create the directory
      */
-    public FileStorageService(@Value("${app.file.upload-dir:uploads}") String uploadDir) {
+    public FileStorageService(@Value("${app.file.upload-dir:uploads}") String uploadDir,
+                              BookingEventMetrics bookingEventMetrics) {
+        this.bookingEventMetrics = bookingEventMetrics;
         this.fileStorageLocation = Paths.get(uploadDir)
                 .toAbsolutePath().normalize();
         
@@ -106,4 +114,14 @@ public class FileStorageService {
             return false;
         }
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Delete the stored files of a deleted booking's documents once the deletion has committed
+     * @param event Booking deleted event
+     */
+    @Async("bookingEventExecutor")
+    @TransactionalEventListener
+    public void onBookingDeleted(BookingDeletedEvent event) {
+        bookingEventMetrics.handle("document-files", event, () -> event.getDocumentPaths().forEach(this::deleteFile));
+    }
+}
@@ -0,0 +1,295 @@
+package com.psnrwanda.api.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.psnrwanda.api.config.AppProperties;
+import com.psnrwanda.api.model.IdempotencyRecord;
+import com.psnrwanda.api.repository.IdempotencyRecordRepository;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Service backing the Idempotency-Key header.
+ * <p>
+ * Keys are scoped to the caller, so two clients using the same key never see each other's responses, and
+ * a key is tied to the method, path and body hash of its first request: reusing it for anything else is a
+ * {@link Outcome#MISMATCH}. Completed responses are kept in a bounded in-memory cache in front of the
+ * {@code idempotency_keys} table, whose unique (scope, key) guarantees that only one execution per key
+ * happens across all instances.
+ * Duplicates arriving while the first request is still running wait for it: on the same instance
+ * through a shared future, on other instances by polling the table.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    /**
+     * Result of trying to reserve an idempotency key
+     */
+    public enum Outcome {
+        /** The caller owns the key and must execute the request, then call {@link #finish} */
+        ACQUIRED,
+        /** The request already completed; replay the stored response */
+        REPLAY,
+        /** The key was already used for a different request (method, path or body) */
+        MISMATCH,
+        /** Another execution is still running and did not finish in time */
+        IN_PROGRESS
+    }
+
+    /**
+     * Response stored for an idempotency key
+     */
+    @Value
+    public static class StoredResponse {
+        String method;
+        String path;
+        String requestHash;
+        int status;
+        String contentType;
+        byte[] body;
+    }
+
+    /**
+     * Reservation returned by {@link #reserve}
+     */
+    @Value
+    public static class Reservation {
+        Outcome outcome;
+        StoredResponse response;
+    }
+
+    private static final long POLL_INTERVAL_MS = 200;
+
+    private final IdempotencyRecordRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final AppProperties.Idempotency settings;
+    private final Cache<String, StoredResponse> completed;
+    private final ConcurrentMap<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor
+     * @param repository Idempotency record repository
+     * @param transactionManager Transaction manager
+     * @param appProperties Application properties
+     */
+    public IdempotencyService(IdempotencyRecordRepository repository,
+                              PlatformTransactionManager transactionManager,
+                              AppProperties appProperties) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.settings = appProperties.getIdempotency();
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(settings.getCacheSize())
+                .expireAfterWrite(settings.getRetention())
+                .build();
+    }
+
+    /**
+     * Reserve an idempotency key for a request, waiting for a concurrent execution of the same key if necessary
+     *
+     * @param scope Caller the key belongs to
+     * @param key Idempotency key
+     * @param method HTTP method
+     * @param path Request path
+     * @param requestHash Hex SHA-256 of the request body
+     * @return Reservation telling the caller whether to execute or replay
+     */
+    public Reservation reserve(String scope, String key, String method, String path, String requestHash) {
+        long deadline = System.nanoTime() + settings.getInFlightTimeout().toNanos();
+        String id = scopedKey(scope, key);
+
+        while (true) {
+            StoredResponse cached = completed.getIfPresent(id);
+            if (cached != null) {
+                return replay(cached, method, path, requestHash);
+            }
+
+            CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+            CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(id, mine);
+            if (running != null) {
+                // Same key is executing on this instance: wait for its outcome
+                Optional<StoredResponse> result;
+                try {
+                    result = Optional.ofNullable(running.get(remainingNanos(deadline), TimeUnit.NANOSECONDS));
+                } catch (TimeoutException e) {
+                    return new Reservation(Outcome.IN_PROGRESS, null);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return new Reservation(Outcome.IN_PROGRESS, null);
+                } catch (ExecutionException e) {
+                    result = Optional.empty();
+                }
+                if (result.isPresent()) {
+                    return replay(result.get(), method, path, requestHash);
+                }
+                // The first execution failed and released the key; try to execute it ourselves
+                continue;
+            }
+
+            try {
+                Reservation reservation = reserveInDatabase(scope, key, method, path, requestHash, deadline);
+                if (reservation.getOutcome() != Outcome.ACQUIRED) {
+                    inFlight.remove(id, mine);
+                    mine.complete(reservation.getResponse());
+                }
+                return reservation;
+            } catch (RuntimeException e) {
+                inFlight.remove(id, mine);
+                mine.complete(null);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Record the outcome of an execution started by an {@link Outcome#ACQUIRED} reservation and wake up waiters.
+     * Only successful responses are stored; otherwise the key is released so the client can retry.
+     *
+     * @param scope Caller the key belongs to
+     * @param key Idempotency key
+     * @param response Response to store, or null to release the key
+     */
+    public void finish(String scope, String key, StoredResponse response) {
+        String id = scopedKey(scope, key);
+        try {
+            if (response != null) {
+                transactionTemplate.executeWithoutResult(status -> repository.findByClientScopeAndIdempotencyKey(scope, key)
+                        .ifPresent(record -> {
+                            record.setStatus(IdempotencyRecord.Status.COMPLETED);
+                            record.setResponseStatus(response.getStatus());
+                            record.setResponseContentType(response.getContentType());
+                            record.setResponseBody(response.getBody());
+                        }));
+                completed.put(id, response);
+            } else {
+                release(scope, key);
+            }
+        } finally {
+            CompletableFuture<StoredResponse> waiters = inFlight.remove(id);
+            if (waiters != null) {
+                waiters.complete(response);
+            }
+        }
+    }
+
+    /**
+     * Remove stored responses whose retention period has passed
+     */
+    @Scheduled(cron = "${app.idempotency.cleanup-cron:0 15 * * * *}")
+    public void deleteExpired() {
+        Integer deleted = transactionTemplate.execute(status -> repository.deleteExpired(LocalDateTime.now()));
+        if (deleted != null && deleted > 0) {
+            log.info("Deleted {} expired idempotency keys", deleted);
+        }
+    }
+
+    private Reservation reserveInDatabase(String scope, String key, String method, String path, String requestHash,
+                                          long deadline) {
+        while (true) {
+            if (tryInsert(scope, key, method, path, requestHash)) {
+                return new Reservation(Outcome.ACQUIRED, null);
+            }
+
+            Optional<IdempotencyRecord> existing = repository.findByClientScopeAndIdempotencyKey(scope, key);
+            if (existing.isEmpty()) {
+                // Released between our insert and lookup
+                continue;
+            }
+
+            IdempotencyRecord record = existing.get();
+            LocalDateTime now = LocalDateTime.now();
+            if (record.getExpiresAt().isBefore(now) || isAbandoned(record, now)) {
+                log.warn("Taking over stale idempotency key {} of {}", key, scope);
+                release(scope, key);
+                continue;
+            }
+
+            if (record.getStatus() == IdempotencyRecord.Status.COMPLETED) {
+                StoredResponse response = new StoredResponse(record.getRequestMethod(), record.getRequestPath(),
+                        record.getRequestHash(), record.getResponseStatus(), record.getResponseContentType(),
+                        record.getResponseBody());
+                completed.put(scopedKey(scope, key), response);
+                return replay(response, method, path, requestHash);
+            }
+
+            // Still executing on another instance; refuse a different request right away
+            if (!matches(record.getRequestMethod(), record.getRequestPath(), record.getRequestHash(),
+                    method, path, requestHash)) {
+                return new Reservation(Outcome.MISMATCH, null);
+            }
+            if (remainingNanos(deadline) <= 0) {
+                return new Reservation(Outcome.IN_PROGRESS, null);
+            }
+            try {
+                Thread.sleep(POLL_INTERVAL_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return new Reservation(Outcome.IN_PROGRESS, null);
+            }
+        }
+    }
+
+    private boolean tryInsert(String scope, String key, String method, String path, String requestHash) {
+        IdempotencyRecord record = IdempotencyRecord.builder()
+                .clientScope(scope)
+                .idempotencyKey(key)
+                .requestMethod(method)
+                .requestPath(path)
+                .requestHash(requestHash)
+                .status(IdempotencyRecord.Status.IN_PROGRESS)
+                .expiresAt(LocalDateTime.now().plus(settings.getRetention()))
+                .build();
+        try {
+            transactionTemplate.executeWithoutResult(status -> repository.saveAndFlush(record));
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    private void release(String scope, String key) {
+        transactionTemplate.executeWithoutResult(status -> repository.deleteByKey(scope, key));
+    }
+
+    private boolean isAbandoned(IdempotencyRecord record, LocalDateTime now) {
+        return record.getStatus() == IdempotencyRecord.Status.IN_PROGRESS
+                && record.getCreatedAt() != null
+                && record.getCreatedAt().plus(settings.getAbandonedAfter()).isBefore(now);
+    }
+
+    private static Reservation replay(StoredResponse response, String method, String path, String requestHash) {
+        if (!matches(response.getMethod(), response.getPath(), response.getRequestHash(), method, path, requestHash)) {
+            return new Reservation(Outcome.MISMATCH, null);
+        }
+        return new Reservation(Outcome.REPLAY, response);
+    }
+
+    private static boolean matches(String storedMethod, String storedPath, String storedHash,
+                                   String method, String path, String requestHash) {
+        return storedMethod.equals(method) && storedPath.equals(path) && Objects.equals(storedHash, requestHash);
+    }
+
+    private static String scopedKey(String scope, String key) {
+        return scope + '\n' + key;
+    }
+
+    private static long remainingNanos(long deadline) {
+        return Math.max(0, deadline - System.nanoTime());
+    }
+}
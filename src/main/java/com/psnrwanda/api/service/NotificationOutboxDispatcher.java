@@ -0,0 +1,241 @@
+package com.psnrwanda.api.service;
+
+import com.psnrwanda.api.config.AppProperties;
+import com.psnrwanda.api.dto.BookingDto;
+import com.psnrwanda.api.dto.NotificationDto;
+import com.psnrwanda.api.event.BookingCreatedEvent;
+import com.psnrwanda.api.event.BookingEvent;
+import com.psnrwanda.api.event.BookingEventMetrics;
+import com.psnrwanda.api.event.BookingStatusChangedEvent;
+import com.psnrwanda.api.model.OutboxNotification;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background dispatcher that delivers notifications queued in the transactional outbox.
+ * <p>
+ * Each poll claims due rows with {@code FOR UPDATE SKIP LOCKED}, so several application instances
+ * can dispatch concurrently without sending a notification twice, and hands them to the worker pool
+ * of their channel. Only as many rows are claimed as the pool's bounded queue has room for: when the
+ * workers fall behind, due notifications simply stay in the outbox until the next poll, so a backlog
+ * costs database rows rather than memory, and one slow channel never holds up the other.
+ * Besides polling, a dispatch runs as soon as a booking write that queues notifications has committed.
+ */
+@Slf4j
+@Component
+public class NotificationOutboxDispatcher {
+
+    private final NotificationOutboxService outboxService;
+    private final NotificationService notificationService;
+    private final Map<OutboxNotification.Channel, ThreadPoolTaskExecutor> executors;
+    private final AppProperties appProperties;
+    private final BookingEventMetrics bookingEventMetrics;
+
+    /** Booking events not yet covered by a dispatch; non-zero while an event-triggered dispatch runs */
+    private final AtomicInteger pendingWakeUps = new AtomicInteger();
+
+    /**
+     * Constructor
+     * @param outboxService Notification outbox service
+     * @param notificationService Notification service
+     * @param emailExecutor Email worker pool
+     * @param smsExecutor SMS worker pool
+     * @param appProperties Application properties
+     * @param bookingEventMetrics Booking event listener runner
+     */
+    public NotificationOutboxDispatcher(NotificationOutboxService outboxService,
+                                        NotificationService notificationService,
+                                        @Qualifier("notificationEmailExecutor") ThreadPoolTaskExecutor emailExecutor,
+                                        @Qualifier("notificationSmsExecutor") ThreadPoolTaskExecutor smsExecutor,
+                                        AppProperties appProperties,
+                                        BookingEventMetrics bookingEventMetrics) {
+        this.outboxService = outboxService;
+        this.notificationService = notificationService;
+        this.executors = new EnumMap<>(Map.of(
+                OutboxNotification.Channel.EMAIL, emailExecutor,
+                OutboxNotification.Channel.SMS, smsExecutor));
+        this.appProperties = appProperties;
+        this.bookingEventMetrics = bookingEventMetrics;
+    }
+
+    /**
+     * Dispatch right after a booking write that queued notifications has committed, instead of waiting
+     * for the next poll. At most one such dispatch runs at a time; it goes round again if more events
+     * arrived meanwhile, so a burst of bookings costs a few dispatches rather than one each.
+     * Events folded into a running dispatch are timed with the outcome coalesced.
+     * @param event Booking event
+     */
+    @Async("bookingEventExecutor")
+    @TransactionalEventListener(classes = {BookingCreatedEvent.class, BookingStatusChangedEvent.class})
+    public void onBookingEvent(BookingEvent event) {
+        bookingEventMetrics.handle("notification-dispatch", event, () -> {
+            if (pendingWakeUps.getAndIncrement() > 0) {
+                return false;
+            }
+            try {
+                int covered;
+                do {
+                    covered = pendingWakeUps.get();
+                    dispatch();
+                } while (!pendingWakeUps.compareAndSet(covered, 0));
+                return true;
+            } catch (RuntimeException e) {
+                // Let the next event start a dispatch again; the scheduled poll retries meanwhile
+                pendingWakeUps.set(0);
+                throw e;
+            }
+        });
+    }
+
+    /**
+     * Hand due notifications of every channel to their workers, as far as the workers have room
+     */
+    @Scheduled(fixedDelayString = "${app.notification.outbox.poll-interval:PT2S}")
+    public void dispatch() {
+        executors.forEach(this::dispatch);
+    }
+
+    /**
+     * Turn buffered provider notifications into digests, one full digest after another while enough are waiting
+     */
+    @Scheduled(fixedDelayString = "${app.notification.digest.check-interval:PT5S}")
+    public void flushDigests() {
+        int maxBookings = appProperties.getNotification().getDigest().getMaxBookings();
+        while (outboxService.flushDigest() >= maxBookings) {
+            log.debug("Flushed a full provider digest, checking for more");
+        }
+    }
+
+    /**
+     * Claim due notifications of one channel, batch by batch, until none are left or its queue is full
+     * @param channel Delivery channel
+     * @param executor Worker pool of the channel
+     */
+    private void dispatch(OutboxNotification.Channel channel, ThreadPoolTaskExecutor executor) {
+        int batchSize = appProperties.getNotification().getOutbox().getBatchSize();
+        // SMS go to the gateway several per call, so one task delivers a whole chunk
+        int perTask = channel == OutboxNotification.Channel.SMS ? notificationService.getMaxSmsBatchSize() : 1;
+
+        while (true) {
+            int room = executor.getThreadPoolExecutor().getQueue().remainingCapacity();
+            if (room == 0) {
+                log.debug("{} notification workers are saturated, leaving due notifications in the outbox", channel);
+                return;
+            }
+
+            int limit = (int) Math.min(batchSize, (long) room * perTask);
+            List<OutboxNotification> batch = outboxService.claimDue(channel, limit);
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            log.debug("Dispatching {} {} notifications", batch.size(), channel);
+            for (int from = 0; from < batch.size(); from += perTask) {
+                List<OutboxNotification> chunk = batch.subList(from, Math.min(from + perTask, batch.size()));
+                try {
+                    executor.execute(() -> {
+                        if (!isEnabled(channel)) {
+                            chunk.forEach(notification -> outboxService.markSkipped(notification.getId(),
+                                    channel + " notifications are disabled"));
+                        } else if (channel == OutboxNotification.Channel.SMS) {
+                            deliverSms(chunk);
+                        } else {
+                            chunk.forEach(this::deliver);
+                        }
+                    });
+                } catch (TaskRejectedException e) {
+                    chunk.forEach(notification -> outboxService.release(notification.getId()));
+                }
+            }
+
+            if (batch.size() < limit) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Deliver a single claimed email notification and record the outcome
+     * @param notification Claimed outbox notification
+     */
+    private void deliver(OutboxNotification notification) {
+        try {
+            String recipient = notification.getRecipient();
+            NotificationDto.NotificationResponseDto response = switch (notification.getType()) {
+                case BOOKING_CONFIRMATION ->
+                        notificationService.sendBookingConfirmation(outboxService.readBooking(notification), recipient);
+                case ADMIN_BOOKING_NOTIFICATION ->
+                        notificationService.sendAdminBookingNotification(outboxService.readBooking(notification), recipient);
+                case ADMIN_BOOKING_DIGEST ->
+                        notificationService.sendAdminBookingDigest(outboxService.readBookings(notification), recipient);
+                default -> throw new IllegalStateException("Not an email notification: " + notification.getType());
+            };
+            recordOutcome(notification, response);
+        } catch (Exception e) {
+            outboxService.markFailed(notification.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Deliver claimed SMS notifications in one gateway call, or one by one if the gateway refuses the batch,
+     * and record the outcome of each
+     * @param notifications Claimed outbox notifications, at most the SMS batch size
+     */
+    private void deliverSms(List<OutboxNotification> notifications) {
+        List<OutboxNotification> sending = new ArrayList<>(notifications.size());
+        List<NotificationDto.SmsNotificationDto> messages = new ArrayList<>(notifications.size());
+        for (OutboxNotification notification : notifications) {
+            try {
+                BookingDto booking = outboxService.readBooking(notification);
+                messages.add(switch (notification.getType()) {
+                    case BOOKING_CONFIRMATION_SMS ->
+                            notificationService.createBookingConfirmationSms(booking, notification.getRecipient());
+                    case BOOKING_STATUS_SMS ->
+                            notificationService.createBookingStatusSms(booking, notification.getRecipient());
+                    default -> throw new IllegalStateException("Not an SMS notification: " + notification.getType());
+                });
+                sending.add(notification);
+            } catch (Exception e) {
+                outboxService.markFailed(notification.getId(), e.getMessage());
+            }
+        }
+
+        if (sending.isEmpty()) {
+            return;
+        }
+        List<NotificationDto.NotificationResponseDto> responses = notificationService.sendSmsBatch(messages);
+        for (int i = 0; i < sending.size(); i++) {
+            recordOutcome(sending.get(i), responses.get(i));
+        }
+    }
+
+    /**
+     * A disabled channel is a final outcome for its notifications, not a failure to retry
+     * @param channel Delivery channel
+     * @return Whether the channel sends at all
+     */
+    private boolean isEnabled(OutboxNotification.Channel channel) {
+        return channel == OutboxNotification.Channel.SMS
+                ? notificationService.isSmsEnabled() : notificationService.isMailEnabled();
+    }
+
+    private void recordOutcome(OutboxNotification notification, NotificationDto.NotificationResponseDto response) {
+        if (response.isSuccess()) {
+            outboxService.markSent(notification.getId());
+        } else {
+            outboxService.markFailed(notification.getId(), response.getMessage());
+        }
+    }
+}
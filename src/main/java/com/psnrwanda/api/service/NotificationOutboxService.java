@@ -0,0 +1,367 @@
+package com.psnrwanda.api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.psnrwanda.api.config.AppProperties;
+import com.psnrwanda.api.dto.BookingDto;
+import com.psnrwanda.api.dto.NotificationDto;
+import com.psnrwanda.api.exception.ConflictException;
+import com.psnrwanda.api.exception.ResourceNotFoundException;
+import com.psnrwanda.api.model.NotificationDeadLetter;
+import com.psnrwanda.api.model.OutboxNotification;
+import com.psnrwanda.api.model.common.PhoneNumbers;
+import com.psnrwanda.api.repository.NotificationDeadLetterRepository;
+import com.psnrwanda.api.repository.OutboxNotificationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Service for writing and claiming notifications in the transactional outbox.
+ * Failed deliveries are retried with jittered exponential backoff; notifications that exhaust their
+ * attempts are moved to the dead-letter table, from which admins can replay them.
+ * <p>
+ * In digest mode, provider notifications of non-urgent bookings are buffered in the outbox and later
+ * flushed into a single summary email, so the buffer survives restarts like any other outbox row.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class NotificationOutboxService {
+
+    private static final int MAX_ERROR_LENGTH = 2000;
+    private static final TypeReference<List<BookingDto>> BOOKING_LIST = new TypeReference<>() {};
+
+    private final OutboxNotificationRepository repository;
+    private final NotificationDeadLetterRepository deadLetterRepository;
+    private final NotificationService notificationService;
+    private final AppProperties appProperties;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Queue the booking confirmation for the client and the new booking notification for the provider when
+     * mail is enabled, plus an SMS confirmation to the client's phone when SMS is enabled. In digest mode the provider
+     * notification of a non-urgent booking is buffered for the next digest instead.
+     * Must be called inside the transaction that creates the booking so that both commit or roll back together.
+     *
+     * @param booking Booking DTO
+     * @param clientEmail Client email
+     * @param urgent Whether the provider must be notified immediately, even in digest mode
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueBookingConfirmation(BookingDto booking, String clientEmail, boolean urgent) {
+        String payload = toPayload(booking);
+        // With mail disabled the emails could only fail until they are dead-lettered
+        if (notificationService.isMailEnabled()) {
+            enqueue(OutboxNotification.NotificationType.BOOKING_CONFIRMATION, clientEmail, booking.getId(), payload);
+
+            boolean buffered = appProperties.getNotification().getDigest().isEnabled() && !urgent;
+            enqueue(OutboxNotification.NotificationType.ADMIN_BOOKING_NOTIFICATION,
+                    notificationService.getProviderEmail(), booking.getId(), payload,
+                    buffered ? OutboxNotification.DeliveryStatus.BUFFERED : OutboxNotification.DeliveryStatus.PENDING);
+        }
+
+        if (appProperties.getSms().isEnabled() && booking.getPhoneNumber() != null && !booking.getPhoneNumber().isBlank()) {
+            enqueue(OutboxNotification.NotificationType.BOOKING_CONFIRMATION_SMS,
+                    PhoneNumbers.normalize(booking.getPhoneNumber()), booking.getId(), payload);
+        }
+    }
+
+    /**
+     * Queue an SMS telling the client about a status change of their booking, when SMS is enabled.
+     * Must be called inside the transaction that changes the booking.
+     *
+     * @param booking Booking DTO with its new status
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueBookingStatusUpdate(BookingDto booking) {
+        if (appProperties.getSms().isEnabled() && booking.getPhoneNumber() != null && !booking.getPhoneNumber().isBlank()) {
+            enqueue(OutboxNotification.NotificationType.BOOKING_STATUS_SMS,
+                    PhoneNumbers.normalize(booking.getPhoneNumber()), booking.getId(), toPayload(booking));
+        }
+    }
+
+    /**
+     * Flush buffered provider notifications into a digest once enough bookings are waiting or the oldest
+     * has waited long enough. Whatever is still buffered is flushed right away when digest mode is off.
+     *
+     * @return Number of buffered notifications flushed
+     */
+    @Transactional
+    public int flushDigest() {
+        AppProperties.Notification.Digest settings = appProperties.getNotification().getDigest();
+
+        List<OutboxNotification> buffered = repository.lockBuffered(settings.getMaxBookings());
+        if (buffered.isEmpty()) {
+            return 0;
+        }
+
+        LocalDateTime dueBefore = LocalDateTime.now().minus(settings.getMaxDelay());
+        boolean due = !settings.isEnabled()
+                || buffered.size() >= settings.getMaxBookings()
+                || !buffered.get(0).getCreatedAt().isAfter(dueBefore);
+        if (!due) {
+            return 0;
+        }
+
+        // Each payload is a booking JSON object, so joining them gives the JSON array of the digest
+        Map<String, List<OutboxNotification>> byRecipient = buffered.stream()
+                .collect(Collectors.groupingBy(OutboxNotification::getRecipient, LinkedHashMap::new, Collectors.toList()));
+        byRecipient.forEach((recipient, notifications) -> enqueue(
+                OutboxNotification.NotificationType.ADMIN_BOOKING_DIGEST, recipient, null,
+                notifications.stream().map(OutboxNotification::getPayload).collect(Collectors.joining(",", "[", "]"))));
+        repository.deleteAll(buffered);
+
+        log.info("Flushed {} buffered booking notifications into {} digests", buffered.size(), byRecipient.size());
+        return buffered.size();
+    }
+
+    /**
+     * Lock a batch of due notifications of a channel and lease them to the caller.
+     * The lease is committed immediately so the delivery work happens outside any transaction.
+     *
+     * @param channel Delivery channel
+     * @param limit Maximum number of notifications to claim
+     * @return Claimed notifications
+     */
+    @Transactional
+    public List<OutboxNotification> claimDue(OutboxNotification.Channel channel, int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime leaseExpiry = now.plus(appProperties.getNotification().getOutbox().getLease());
+
+        List<OutboxNotification> claimed = repository.lockDue(channel.name(), now, limit);
+        claimed.forEach(notification -> {
+            notification.setStatus(OutboxNotification.DeliveryStatus.PROCESSING);
+            notification.setAttempts(notification.getAttempts() + 1);
+            notification.setNextAttemptAt(leaseExpiry);
+        });
+
+        return claimed;
+    }
+
+    /**
+     * Give back a claimed notification that could not be handed to a worker, without counting an attempt
+     * @param id Outbox notification ID
+     */
+    @Transactional
+    public void release(Long id) {
+        repository.findById(id).ifPresent(notification -> {
+            notification.setStatus(OutboxNotification.DeliveryStatus.PENDING);
+            notification.setAttempts(notification.getAttempts() - 1);
+            notification.setNextAttemptAt(LocalDateTime.now());
+        });
+    }
+
+    /**
+     * Record a successful delivery
+     * @param id Outbox notification ID
+     */
+    @Transactional
+    public void markSent(Long id) {
+        repository.findById(id).ifPresent(notification -> {
+            notification.setStatus(OutboxNotification.DeliveryStatus.SENT);
+            notification.setSentAt(LocalDateTime.now());
+            notification.setLastError(null);
+        });
+    }
+
+    /**
+     * Record that a notification was not delivered because its channel is disabled. Retrying could not
+     * change that, so the notification is closed instead of counting as a failure.
+     * @param id Outbox notification ID
+     * @param reason Why it was skipped
+     */
+    @Transactional
+    public void markSkipped(Long id, String reason) {
+        repository.findById(id).ifPresent(notification -> {
+            notification.setStatus(OutboxNotification.DeliveryStatus.SKIPPED);
+            notification.setLastError(truncate(reason));
+            log.info("Skipped {} notification {} to {}: {}", notification.getType(), id, notification.getRecipient(), reason);
+        });
+    }
+
+    /**
+     * Record a failed delivery and schedule a retry with jittered exponential backoff,
+     * or move the notification to the dead-letter table once the maximum number of attempts has been reached
+     *
+     * @param id Outbox notification ID
+     * @param error Failure description
+     */
+    @Transactional
+    public void markFailed(Long id, String error) {
+        AppProperties.Notification.Outbox settings = appProperties.getNotification().getOutbox();
+
+        repository.findById(id).ifPresent(notification -> {
+            notification.setLastError(truncate(error));
+
+            if (notification.getAttempts() >= settings.getMaxAttempts()) {
+                deadLetter(notification);
+                log.error("Giving up on {} notification {} to {} after {} attempts: {}",
+                        notification.getType(), id, notification.getRecipient(), notification.getAttempts(), error);
+                return;
+            }
+
+            Duration backoff = backoff(notification.getAttempts(), settings);
+            notification.setStatus(OutboxNotification.DeliveryStatus.PENDING);
+            notification.setNextAttemptAt(LocalDateTime.now().plus(backoff));
+            log.warn("Delivery of {} notification {} failed (attempt {}), retrying in {}s: {}",
+                    notification.getType(), id, notification.getAttempts(), backoff.toSeconds(), error);
+        });
+    }
+
+    /**
+     * Get the notifications that exhausted their delivery attempts
+     *
+     * @param includeReplayed Whether to include dead letters that have already been replayed
+     * @param pageable Pagination information
+     * @return Page of dead letters
+     */
+    @Transactional(readOnly = true)
+    public Page<NotificationDto.DeadLetterDto> getDeadLetters(boolean includeReplayed, Pageable pageable) {
+        Page<NotificationDeadLetter> page = includeReplayed
+                ? deadLetterRepository.findAll(pageable)
+                : deadLetterRepository.findByReplayedAtIsNull(pageable);
+        return page.map(this::convertToDto);
+    }
+
+    /**
+     * Queue a dead-lettered notification again with a fresh set of attempts
+     *
+     * @param id Dead letter ID
+     * @return The replayed dead letter
+     * @throws ResourceNotFoundException If the dead letter does not exist
+     * @throws ConflictException If it has already been replayed
+     */
+    @Transactional
+    public NotificationDto.DeadLetterDto replayDeadLetter(Long id) {
+        NotificationDeadLetter deadLetter = deadLetterRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Dead letter", "id", id));
+        if (deadLetter.getReplayedAt() != null) {
+            throw new ConflictException("Dead letter " + id + " has already been replayed");
+        }
+
+        enqueue(deadLetter.getType(), deadLetter.getRecipient(), deadLetter.getBookingId(), deadLetter.getPayload());
+        deadLetter.setReplayedAt(LocalDateTime.now());
+        log.info("Replaying dead-lettered {} notification {} to {}", deadLetter.getType(), id, deadLetter.getRecipient());
+        return convertToDto(deadLetter);
+    }
+
+    /**
+     * Read the booking payload of an outbox notification
+     * @param notification Outbox notification
+     * @return Booking DTO
+     */
+    public BookingDto readBooking(OutboxNotification notification) {
+        try {
+            return objectMapper.readValue(notification.getPayload(), BookingDto.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable payload in outbox notification " + notification.getId(), e);
+        }
+    }
+
+    /**
+     * Read the bookings of a digest notification
+     * @param notification Outbox notification
+     * @return Booking DTOs
+     */
+    public List<BookingDto> readBookings(OutboxNotification notification) {
+        try {
+            return objectMapper.readValue(notification.getPayload(), BOOKING_LIST);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable payload in outbox notification " + notification.getId(), e);
+        }
+    }
+
+    private void enqueue(OutboxNotification.NotificationType type, String recipient, Long bookingId, String payload) {
+        enqueue(type, recipient, bookingId, payload, OutboxNotification.DeliveryStatus.PENDING);
+    }
+
+    private void enqueue(OutboxNotification.NotificationType type, String recipient, Long bookingId, String payload,
+                         OutboxNotification.DeliveryStatus status) {
+        repository.save(OutboxNotification.builder()
+                .type(type)
+                .status(status)
+                .channel(type.getChannel())
+                .recipient(recipient)
+                .bookingId(bookingId)
+                .payload(payload)
+                .nextAttemptAt(LocalDateTime.now())
+                .build());
+    }
+
+    private void deadLetter(OutboxNotification notification) {
+        deadLetterRepository.save(NotificationDeadLetter.builder()
+                .outboxId(notification.getId())
+                .type(notification.getType())
+                .channel(notification.getChannel())
+                .recipient(notification.getRecipient())
+                .bookingId(notification.getBookingId())
+                .payload(notification.getPayload())
+                .attempts(notification.getAttempts())
+                .lastError(notification.getLastError())
+                .failedAt(LocalDateTime.now())
+                .build());
+        repository.delete(notification);
+    }
+
+    private String toPayload(BookingDto booking) {
+        try {
+            return objectMapper.writeValueAsString(booking);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize booking " + booking.getId() + " for the outbox", e);
+        }
+    }
+
+    /**
+     * Exponential backoff, capped, of which a random part of up to a half is taken off so that
+     * notifications failing together (e.g. during a mail server outage) do not all retry at the same moment
+     */
+    private static Duration backoff(int attempts, AppProperties.Notification.Outbox settings) {
+        long multiplier = 1L << Math.min(attempts - 1, 20);
+        Duration backoff = settings.getInitialBackoff().multipliedBy(multiplier);
+        if (backoff.compareTo(settings.getMaxBackoff()) > 0) {
+            backoff = settings.getMaxBackoff();
+        }
+        long millis = backoff.toMillis();
+        return Duration.ofMillis(millis - ThreadLocalRandom.current().nextLong(millis / 2 + 1));
+    }
+
+    /**
+     * Convert a NotificationDeadLetter entity to a DTO
+     * @param deadLetter Dead letter
+     * @return Dead letter DTO
+     */
+    private NotificationDto.DeadLetterDto convertToDto(NotificationDeadLetter deadLetter) {
+        return NotificationDto.DeadLetterDto.builder()
+                .id(deadLetter.getId())
+                .type(deadLetter.getType().name())
+                .channel(deadLetter.getChannel().name())
+                .recipient(deadLetter.getRecipient())
+                .bookingId(deadLetter.getBookingId())
+                .attempts(deadLetter.getAttempts())
+                .lastError(deadLetter.getLastError())
+                .failedAt(deadLetter.getFailedAt())
+                .replayedAt(deadLetter.getReplayedAt())
+                .build();
+    }
+
+    private static String truncate(String error) {
+        if (error == null || error.length() <= MAX_ERROR_LENGTH) {
+            return error;
+        }
+        return error.substring(0, MAX_ERROR_LENGTH);
+    }
+}
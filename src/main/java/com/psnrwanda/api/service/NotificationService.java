@@ -2,22 +2,23 @@ package com.psnrwanda.api.service;
 
 import com.psnrwanda.api.dto.BookingDto;
 import com.psnrwanda.api.dto.NotificationDto;
+import com.psnrwanda.api.exception.SmsGatewayException;
+import com.psnrwanda.api.model.common.PhoneNumbers;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.ClassPathResource;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
-import org.thymeleaf.TemplateEngine;
-import org.thymeleaf.context.Context;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -33,7 +34,7 @@ public class NotificationService {
     @Value("${spring.mail.enabled:false}")
     private boolean mailEnabled;
     
-    @Value("${notification.sms.enabled:false}")
+    @Value("${app.sms.enabled:false}")
     private boolean smsEnabled;
     
     @Value("${spring.mail.username:info@psnrwanda.com}")
@@ -46,7 +47,8 @@ public class NotificationService {
     private String providerEmail;
     
     private final JavaMailSender emailSender;
-    private final TemplateEngine templateEngine;
+    private final EmailTemplateRenderer emailTemplateRenderer;
+    private final SmsGatewayClient smsGatewayClient;
     
     /**
      * Send SMS notification
@@ -56,21 +58,54 @@ public class NotificationService {
      */
     public NotificationDto.NotificationResponseDto sendSms(NotificationDto.SmsNotificationDto smsDto) {
         log.info("Sending SMS to {}", smsDto.getPhoneNumber());
-        
+        return sendSmsBatch(List.of(smsDto)).get(0);
+    }
+    
+    /**
+     * Send several SMS notifications in a single gateway call. The gateway accepts or refuses a call as a whole,
+     * so when it refuses the content of a batch, e.g. because of one invalid phone number, every message is sent
+     * again on its own and only the offending ones fail.
+     * 
+     * @param smsDtos SMS notification DTOs, at most {@link #getMaxSmsBatchSize()}
+     * @return Notification response DTO of each message, in order
+     */
+    public List<NotificationDto.NotificationResponseDto> sendSmsBatch(List<NotificationDto.SmsNotificationDto> smsDtos) {
         if (!smsEnabled) {
-            log.warn("SMS notifications are disabled. Message to {} was not sent.", smsDto.getPhoneNumber());
-            return createResponse(false, "SMS notifications are currently disabled", LocalDateTime.now());
+            log.warn("SMS notifications are disabled. {} messages were not sent.", smsDtos.size());
+            return Collections.nCopies(smsDtos.size(),
+                    createResponse(false, "SMS notifications are currently disabled", LocalDateTime.now()));
         }
         
+        List<NotificationDto.SmsGatewayMessageDto> messages = smsDtos.stream()
+                .map(sms -> NotificationDto.SmsGatewayMessageDto.builder()
+                        .to(PhoneNumbers.normalize(sms.getPhoneNumber()))
+                        .text(sms.getMessage())
+                        .build())
+                .toList();
         try {
-            // Integration with SMS service would go here
-            // For now, we'll just log the message
-            log.info("SMS Content: {}", smsDto.getMessage());
-            
-            // Simulate SMS sending success
+            smsGatewayClient.send(messages);
+            return Collections.nCopies(smsDtos.size(), createResponse(true, "SMS sent successfully", LocalDateTime.now()));
+        } catch (SmsGatewayException e) {
+            if (!e.isRejected() || messages.size() == 1) {
+                log.error("Failed to send {} SMS: {}", smsDtos.size(), e.getMessage());
+                return Collections.nCopies(smsDtos.size(),
+                        createResponse(false, "Failed to send SMS: " + e.getMessage(), LocalDateTime.now()));
+            }
+            log.warn("SMS gateway refused a batch of {}, sending them one by one: {}", messages.size(), e.getMessage());
+            return messages.stream().map(this::sendSingleSms).toList();
+        } catch (Exception e) {
+            log.error("Failed to send {} SMS: {}", smsDtos.size(), e.getMessage());
+            return Collections.nCopies(smsDtos.size(),
+                    createResponse(false, "Failed to send SMS: " + e.getMessage(), LocalDateTime.now()));
+        }
+    }
+    
+    private NotificationDto.NotificationResponseDto sendSingleSms(NotificationDto.SmsGatewayMessageDto message) {
+        try {
+            smsGatewayClient.send(List.of(message));
             return createResponse(true, "SMS sent successfully", LocalDateTime.now());
         } catch (Exception e) {
-            log.error("Failed to send SMS to {}: {}", smsDto.getPhoneNumber(), e.getMessage());
+            log.error("Failed to send SMS to {}: {}", message.getTo(), e.getMessage());
             return createResponse(false, "Failed to send SMS: " + e.getMessage(), LocalDateTime.now());
         }
     }
@@ -131,17 +166,10 @@ public class NotificationService {
             helper.setTo(to);
             helper.setSubject(subject);
             
-            // Process template
-            Context context = new Context();
-            if (variables != null) {
-                variables.forEach(context::setVariable);
-            }
-            
-            // Add logo as inline image
-            helper.addInline("company-logo", new ClassPathResource("static/images/logo.png"));
-            
-            String htmlContent = templateEngine.process("email/" + templateName, context);
+            // Inline images must be added after the body text
+            String htmlContent = emailTemplateRenderer.render(templateName, variables);
             helper.setText(htmlContent, true);
+            emailTemplateRenderer.addInlineAssets(helper);
             
             emailSender.send(mimeMessage);
             
@@ -188,6 +216,37 @@ public class NotificationService {
         return sendEmail(emailDto);
     }
     
+    /**
+     * Create the booking confirmation SMS for a client
+     * 
+     * @param booking Booking DTO
+     * @param phoneNumber Client phone number
+     * @return SMS notification DTO
+     */
+    public NotificationDto.SmsNotificationDto createBookingConfirmationSms(BookingDto booking, String phoneNumber) {
+        return NotificationDto.SmsNotificationDto.builder()
+                .phoneNumber(phoneNumber)
+                .message("PSN RWANDA: booking " + booking.getTrackingNumber() + " received. Track it at "
+                        + appUrl + "/booking/track?number=" + booking.getTrackingNumber())
+                .build();
+    }
+    
+    /**
+     * Create the booking status update SMS for a client
+     * 
+     * @param booking Booking DTO with its new status
+     * @param phoneNumber Client phone number
+     * @return SMS notification DTO
+     */
+    public NotificationDto.SmsNotificationDto createBookingStatusSms(BookingDto booking, String phoneNumber) {
+        String status = booking.getStatus() != null ? booking.getStatus().replace('_', ' ').toLowerCase() : "updated";
+        return NotificationDto.SmsNotificationDto.builder()
+                .phoneNumber(phoneNumber)
+                .message("PSN RWANDA: booking " + booking.getTrackingNumber() + " is now " + status + ". Track it at "
+                        + appUrl + "/booking/track?number=" + booking.getTrackingNumber())
+                .build();
+    }
+    
     /**
      * Send booking status update email to client
      * 
@@ -264,6 +323,33 @@ public class NotificationService {
         return sendEmail(emailDto);
     }
     
+    /**
+     * Send a summary of several new bookings to admin
+     * 
+     * @param bookings Booking DTOs, oldest first
+     * @param adminEmail Admin email
+     * @return Notification response DTO
+     */
+    public NotificationDto.NotificationResponseDto sendAdminBookingDigest(List<BookingDto> bookings, String adminEmail) {
+        if (adminEmail == null || adminEmail.isEmpty()) {
+            log.warn("Cannot send admin booking digest: email is missing");
+            return createResponse(false, "Admin email address is missing", LocalDateTime.now());
+        }
+        
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("bookings", bookings);
+        variables.put("adminUrl", appUrl + "/admin/bookings");
+        
+        NotificationDto.EmailNotificationDto emailDto = NotificationDto.EmailNotificationDto.builder()
+                .email(adminEmail)
+                .subject("PSN RWANDA - " + bookings.size() + " New Bookings")
+                .template("admin-booking-notification")
+                .templateVariables(variables)
+                .build();
+        
+        return sendEmail(emailDto);
+    }
+    
     /**
      * Send booking confirmation email to both client and provider
      * 
@@ -327,6 +413,28 @@ public class NotificationService {
         }
     }
     
+    /**
+     * @return Whether email notifications are sent at all
+     */
+    public boolean isMailEnabled() {
+        return mailEnabled;
+    }
+    
+    /**
+     * @return Whether SMS notifications are sent at all
+     */
+    public boolean isSmsEnabled() {
+        return smsEnabled;
+    }
+    
+    /**
+     * Get the largest number of SMS sent in one gateway call
+     * @return Maximum SMS batch size
+     */
+    public int getMaxSmsBatchSize() {
+        return smsGatewayClient.getMaxBatchSize();
+    }
+    
     /**
      * Get the provider email address
      * @return Provider email address
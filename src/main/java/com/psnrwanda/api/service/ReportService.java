@@ -1,23 +1,29 @@
 package com.psnrwanda.api.service;
 
-import com.psnrwanda.api.dto.BookingDto;
+import com.opencsv.CSVWriter;
 import com.psnrwanda.api.dto.ReportDto;
+import com.psnrwanda.api.exception.BadRequestException;
+import com.psnrwanda.api.exception.ResourceNotFoundException;
 import com.psnrwanda.api.model.Booking;
-import com.psnrwanda.api.repository.BookingRepository;
+import com.psnrwanda.api.model.common.ExportFormat;
+import com.psnrwanda.api.repository.BookingExportRepository;
 import com.psnrwanda.api.repository.ServiceRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
 import java.util.stream.Collectors;
 
 /**
@@ -31,34 +37,55 @@ public class ReportService {
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
     private static final DateTimeFormatter CSV_DATETIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     
-    private final BookingRepository bookingRepository;
+    private static final String[] CSV_HEADER = {
+            "ID", "Phone Number", "Service", "Email", "Full Name", "Status", "Notes", "Created At", "Updated At"
+    };
+    
     private final ServiceRepository serviceRepository;
-    private final BookingService bookingService;
+    private final BookingExportRepository bookingExportRepository;
+    private final BookingPdfReportWriter bookingPdfReportWriter;
+    private final BookingXlsxReportWriter bookingXlsxReportWriter;
+    private final BookingCounters bookingCounters;
+    private final BookingTrendService bookingTrendService;
+    private final DashboardStatsCache dashboardStatsCache;
+    private final TurnaroundAnalyticsService turnaroundAnalyticsService;
+    
+    /**
+     * Get the dashboard statistics from the shared cache, with their ETag
+     * 
+     * @return Cached dashboard statistics
+     */
+    public DashboardStatsCache.Snapshot getCachedDashboardStats() {
+        return dashboardStatsCache.get(this::getDashboardStats);
+    }
     
     /**
-     * Get dashboard statistics
+     * Get dashboard statistics.
+     * Booking counts come from the in-memory {@link BookingCounters}; only the services table is queried.
      * 
      * @return Dashboard statistics DTO
      */
     @Transactional(readOnly = true)
     public ReportDto.DashboardStatsDto getDashboardStats() {
-        long totalBookings = bookingRepository.count();
-        long pendingBookings = bookingRepository.countByStatus(Booking.BookingStatus.PENDING);
-        long completedBookings = bookingRepository.countByStatus(Booking.BookingStatus.COMPLETED);
-        long totalServices = serviceRepository.count();
-        long activeServices = serviceRepository.findByActiveTrue().size();
+        Map<Booking.BookingStatus, Long> countsByStatus = bookingCounters.countsByStatus();
+        Map<Long, Long> countsByService = bookingCounters.countsByService();
         
-        Map<String, Long> bookingsByStatus = Arrays.stream(Booking.BookingStatus.values())
-                .collect(Collectors.toMap(
-                        Enum::name,
-                        status -> bookingRepository.countByStatus(status)
-                ));
+        long totalBookings = bookingCounters.total();
+        long pendingBookings = countsByStatus.get(Booking.BookingStatus.PENDING);
+        long completedBookings = countsByStatus.get(Booking.BookingStatus.COMPLETED);
         
-        Map<String, Long> bookingsByService = new HashMap<>();
-        serviceRepository.findAll().forEach(service -> {
-            long count = bookingRepository.findByServiceId(service.getId()).size();
-            bookingsByService.put(service.getTitle(), count);
-        });
+        // Sorted maps keep the JSON, and so the dashboard ETag, stable while the counts are unchanged
+        Map<String, Long> bookingsByStatus = countsByStatus.entrySet().stream()
+                .collect(Collectors.toMap(entry -> entry.getKey().name(), Map.Entry::getValue,
+                        Long::sum, TreeMap::new));
+        
+        List<com.psnrwanda.api.model.Service> services = serviceRepository.findAll();
+        long totalServices = services.size();
+        long activeServices = services.stream().filter(com.psnrwanda.api.model.Service::isActive).count();
+        
+        Map<String, Long> bookingsByService = new TreeMap<>();
+        services.forEach(service ->
+                bookingsByService.put(service.getTitle(), countsByService.getOrDefault(service.getId(), 0L)));
         
         List<ReportDto.BookingTrendDto> bookingTrends = getBookingTrendsForLastDays(30);
         
@@ -75,53 +102,157 @@ public class ReportService {
     }
     
     /**
-     * Export bookings as CSV
+     * Build the export filter from request parameters.
+     * Called before streaming starts, so invalid parameters still produce a normal error response.
      * 
-     * @param startDate Start date (yyyy-MM-dd)
-     * @param endDate End date (yyyy-MM-dd)
+     * @param startDate Start date (yyyy-MM-dd), inclusive; defaults to one month ago
+     * @param endDate End date (yyyy-MM-dd), inclusive; defaults to today
      * @param status Optional status filter
-     * @return CSV content as string
+     * @return Export filter
      */
-    @Transactional(readOnly = true)
-    public String exportBookingsAsCsv(String startDate, String endDate, String status) {
-        List<BookingDto> bookings = getBookingsForExport(startDate, endDate, status);
+    public BookingExportRepository.Filter createExportFilter(String startDate, String endDate, String status) {
+        LocalDate start = startDate != null ? LocalDate.parse(startDate, DATE_FORMATTER) : LocalDate.now().minusMonths(1);
+        LocalDate end = endDate != null ? LocalDate.parse(endDate, DATE_FORMATTER) : LocalDate.now();
+        if (end.isBefore(start)) {
+            throw new BadRequestException("End date must not be before start date");
+        }
         
-        StringBuilder csv = new StringBuilder();
-        csv.append("ID,Phone Number,Service,Email,Full Name,Status,Notes,Created At,Updated At\n");
+        return new BookingExportRepository.Filter(start.atStartOfDay(), end.plusDays(1).atStartOfDay(), parseStatus(status));
+    }
+    
+    /**
+     * Stream bookings in an export format.
+     * Rows are written as they are read from the database cursor, so memory use does not depend on the row count.
+     * 
+     * @param format Export format
+     * @param filter Export filter
+     * @param out Output stream; flushed but not closed
+     * @param progress Called with the number of bookings written so far after every row
+     * @return Number of bookings written
+     * @throws IOException If writing fails
+     */
+    public long writeBookings(ExportFormat format, BookingExportRepository.Filter filter, OutputStream out,
+                              LongConsumer progress) throws IOException {
+        return switch (format) {
+            case CSV -> writeBookingsAsCsv(filter, out, progress);
+            case XLSX -> bookingXlsxReportWriter.write(filter, out, progress);
+            case PDF -> bookingPdfReportWriter.write(filter, out, progress);
+        };
+    }
+    
+    /**
+     * Stream bookings as CSV
+     * 
+     * @param filter Export filter
+     * @param out Output stream; flushed but not closed
+     * @param progress Called with the number of bookings written so far after every row
+     * @return Number of bookings written
+     * @throws IOException If writing fails
+     */
+    private long writeBookingsAsCsv(BookingExportRepository.Filter filter, OutputStream out,
+                                    LongConsumer progress) throws IOException {
+        CSVWriter csv = new CSVWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+        csv.writeNext(CSV_HEADER);
         
-        bookings.forEach(booking -> {
-            csv.append(booking.getId()).append(",");
-            csv.append(booking.getPhoneNumber()).append(",");
-            csv.append(booking.getServiceName()).append(",");
-            csv.append(booking.getEmail() != null ? booking.getEmail() : "").append(",");
-            csv.append(booking.getFullName() != null ? booking.getFullName() : "").append(",");
-            csv.append(booking.getStatus()).append(",");
-            csv.append(booking.getNotes() != null ? "\"" + booking.getNotes().replace("\"", "\"\"") + "\"" : "").append(",");
-            csv.append(booking.getCreatedAt()).append(",");
-            csv.append(booking.getUpdatedAt() != null ? booking.getUpdatedAt() : "").append("\n");
+        AtomicLong rows = new AtomicLong();
+        bookingExportRepository.forEach(filter, booking -> {
+            csv.writeNext(new String[] {
+                    String.valueOf(booking.getId()),
+                    booking.getPhoneNumber(),
+                    booking.getServiceName(),
+                    booking.getEmail(),
+                    booking.getFullName(),
+                    booking.getStatus(),
+                    booking.getNotes(),
+                    booking.getCreatedAt().format(CSV_DATETIME_FORMATTER),
+                    booking.getUpdatedAt() != null ? booking.getUpdatedAt().format(CSV_DATETIME_FORMATTER) : null
+            });
+            progress.accept(rows.incrementAndGet());
         });
         
-        return csv.toString();
+        csv.flush();
+        if (csv.checkError()) {
+            throw new IOException("Failed to write CSV export");
+        }
+        return rows.get();
     }
     
     /**
-     * Export bookings as PDF
-     * Note: This is a stub implementation. Actual PDF generation would require a library like iText or PDFBox.
+     * Get booking trends for a date range
      * 
-     * @param startDate Start date (yyyy-MM-dd)
-     * @param endDate End date (yyyy-MM-dd)
+     * @param startDate Start date (yyyy-MM-dd), defaults to 30 days ago
+     * @param endDate End date (yyyy-MM-dd), defaults to today
+     * @param granularity Bucket size: day, week or month
+     * @param serviceId Optional service filter
      * @param status Optional status filter
-     * @return PDF content as byte array
+     * @return List of booking trend DTOs, one per bucket
      */
     @Transactional(readOnly = true)
-    public byte[] exportBookingsAsPdf(String startDate, String endDate, String status) {
-        // This is a placeholder for PDF generation
-        // In a real implementation, you would use a PDF library to generate the PDF
+    public List<ReportDto.BookingTrendDto> getBookingTrends(String startDate, String endDate, String granularity,
+                                                           Long serviceId, String status) {
+        LocalDate end = endDate != null ? LocalDate.parse(endDate, DATE_FORMATTER) : LocalDate.now();
+        LocalDate start = startDate != null ? LocalDate.parse(startDate, DATE_FORMATTER) : end.minusDays(29);
         
-        log.info("Generating PDF report for bookings from {} to {}", startDate, endDate);
+        BookingTrendService.Granularity bucket;
+        try {
+            bucket = BookingTrendService.Granularity.valueOf(granularity.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid granularity: " + granularity);
+        }
         
-        // Return dummy PDF content
-        return "PDF report for bookings".getBytes();
+        return bookingTrendService.getTrends(start, end, bucket, serviceId, parseStatus(status));
+    }
+    
+    /**
+     * Rebuild the daily booking statistics behind the trends from the bookings table
+     * 
+     * @return Number of rollup rows written
+     */
+    public int rebuildBookingTrends() {
+        int rows = bookingTrendService.rebuild();
+        dashboardStatsCache.invalidate();
+        return rows;
+    }
+    
+    /**
+     * Get booking turnaround times per service from the latency histograms
+     * 
+     * @param serviceId Optional service filter
+     * @return Turnaround percentiles per service, in service ID order
+     */
+    @Transactional(readOnly = true)
+    public List<ReportDto.ServiceTurnaroundDto> getTurnaroundTimes(Long serviceId) {
+        List<com.psnrwanda.api.model.Service> services;
+        if (serviceId != null) {
+            services = List.of(serviceRepository.findById(serviceId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Service", "id", serviceId)));
+        } else {
+            services = serviceRepository.findAll(Sort.by("id"));
+        }
+        
+        Map<Long, TurnaroundAnalyticsService.ServiceLatencies> latencies = turnaroundAnalyticsService.getLatencies(serviceId);
+        ReportDto.LatencyDto none = ReportDto.LatencyDto.builder().count(0).build();
+        
+        return services.stream()
+                .map(service -> {
+                    TurnaroundAnalyticsService.ServiceLatencies serviceLatencies = latencies.get(service.getId());
+                    return ReportDto.ServiceTurnaroundDto.builder()
+                            .serviceId(service.getId())
+                            .serviceName(service.getTitle())
+                            .timeToComplete(serviceLatencies != null ? serviceLatencies.getTimeToComplete() : none)
+                            .timeInStatus(serviceLatencies != null ? serviceLatencies.getTimeInStatus() : Map.of())
+                            .build();
+                })
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Rebuild the turnaround latency histograms from the booking status history
+     * 
+     * @return Number of histogram rows written
+     */
+    public int rebuildTurnaroundTimes() {
+        return turnaroundAnalyticsService.rebuild();
     }
     
     /**
@@ -131,51 +262,25 @@ public class ReportService {
      * @return List of booking trend DTOs
      */
     private List<ReportDto.BookingTrendDto> getBookingTrendsForLastDays(int days) {
-        List<ReportDto.BookingTrendDto> trends = new ArrayList<>();
-        
         LocalDate today = LocalDate.now();
-        for (int i = days - 1; i >= 0; i--) {
-            LocalDate date = today.minusDays(i);
-            LocalDateTime start = date.atStartOfDay();
-            LocalDateTime end = date.plusDays(1).atStartOfDay().minusSeconds(1);
-            
-            // Count bookings for this day (this is a simplified approach)
-            // In a real application, you'd use a repository method with date criteria
-            long count = 0; // bookingRepository.countByCreatedAtBetween(start, end);
-            
-            trends.add(ReportDto.BookingTrendDto.builder()
-                    .date(date.format(DATE_FORMATTER))
-                    .count(count)
-                    .build());
-        }
-        
-        return trends;
+        return bookingTrendService.getTrends(today.minusDays(days - 1L), today,
+                BookingTrendService.Granularity.DAY, null, null);
     }
     
     /**
-     * Get bookings for export
+     * Parse an optional booking status
      * 
-     * @param startDate Start date (yyyy-MM-dd)
-     * @param endDate End date (yyyy-MM-dd)
-     * @param status Optional status filter
-     * @return List of booking DTOs
+     * @param status Status name, case insensitive; null or empty for none
+     * @return Booking status, or null
      */
-    private List<BookingDto> getBookingsForExport(String startDate, String endDate, String status) {
-        // Parse dates
-        LocalDate start = startDate != null ? LocalDate.parse(startDate, DATE_FORMATTER) : LocalDate.now().minusMonths(1);
-        LocalDate end = endDate != null ? LocalDate.parse(endDate, DATE_FORMATTER) : LocalDate.now();
-        
-        // Get all bookings for now (pagination would be applied in a real implementation)
-        Pageable pageable = PageRequest.of(0, 1000, Sort.by("createdAt").descending());
-        Page<BookingDto> bookingsPage;
-        
-        if (status != null && !status.isEmpty()) {
-            bookingsPage = bookingService.getBookingsByStatus(status, pageable);
-        } else {
-            bookingsPage = bookingService.getAllBookings(pageable);
+    private static Booking.BookingStatus parseStatus(String status) {
+        if (status == null || status.isEmpty()) {
+            return null;
+        }
+        try {
+            return Booking.BookingStatus.valueOf(status.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid status: " + status);
         }
-        
-        // Filter by date (this is simplified; in a real application, you'd include date criteria in the repository query)
-        return bookingsPage.getContent();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,114 @@
+package com.psnrwanda.api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.psnrwanda.api.config.AppProperties;
+import com.psnrwanda.api.dto.NotificationDto;
+import com.psnrwanda.api.exception.SmsGatewayException;
+import com.psnrwanda.api.service.common.TokenBucket;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+
+/**
+ * HTTP client of the SMS gateway.
+ * <p>
+ * Messages are posted as JSON ({@code {"messages": [{"to": ..., "text": ...}]}}) to the configured API URL
+ * with the API key as bearer token; any 2xx response means the gateway accepted every message of the call,
+ * and a 400 or 422 that it refused the whole call, typically because one of the phone numbers is invalid.
+ * One {@link HttpClient} is shared by all senders, so connections stay open between calls and are
+ * multiplexed over HTTP/2 where the gateway supports it. Up to the maximum batch size messages go in one
+ * call, and every message takes a token from a bucket sized to the provider quota, so bursts wait here
+ * instead of being throttled or rejected by the provider.
+ */
+@Slf4j
+@Component
+public class SmsGatewayClient {
+
+    private final AppProperties.Sms settings;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+    private final TokenBucket quota;
+
+    /**
+     * Constructor
+     * @param appProperties Application properties
+     * @param objectMapper Object mapper used to write request bodies
+     */
+    public SmsGatewayClient(AppProperties appProperties, ObjectMapper objectMapper) {
+        this.settings = appProperties.getSms();
+        this.objectMapper = objectMapper;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(settings.getConnectTimeout())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+        this.quota = new TokenBucket(settings.getRatePerSecond(), settings.getBurst());
+    }
+
+    /**
+     * @return Largest number of messages sent in one call
+     */
+    public int getMaxBatchSize() {
+        return Math.max(1, Math.min(settings.getMaxBatchSize(), settings.getBurst()));
+    }
+
+    /**
+     * Send messages in a single gateway call
+     *
+     * @param messages Messages, at most {@link #getMaxBatchSize()}
+     * @throws SmsGatewayException If the quota is not available in time or the gateway does not accept the call;
+     *         {@link SmsGatewayException#isRejected()} tells whether the gateway refused the messages themselves
+     */
+    public void send(List<NotificationDto.SmsGatewayMessageDto> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        if (messages.size() > getMaxBatchSize()) {
+            throw new IllegalArgumentException("At most " + getMaxBatchSize() + " messages can be sent in one call");
+        }
+
+        try {
+            if (!quota.tryAcquire(messages.size(), settings.getQuotaTimeout())) {
+                throw new SmsGatewayException("SMS quota exhausted, " + messages.size() + " messages not sent");
+            }
+
+            HttpRequest request = HttpRequest.newBuilder(URI.create(settings.getApiUrl()))
+                    .timeout(settings.getRequestTimeout())
+                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + settings.getApiKey())
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(toJson(messages)))
+                    .build();
+
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() / 100 != 2) {
+                throw new SmsGatewayException("SMS gateway answered " + response.statusCode() + ": " + response.body(),
+                        response.statusCode());
+            }
+            log.debug("SMS gateway accepted {} messages over {}", messages.size(), response.version());
+        } catch (IOException e) {
+            throw new SmsGatewayException("SMS gateway request failed: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SmsGatewayException("Interrupted while sending SMS", e);
+        }
+    }
+
+    private byte[] toJson(List<NotificationDto.SmsGatewayMessageDto> messages) {
+        try {
+            return objectMapper.writeValueAsBytes(NotificationDto.SmsGatewayRequestDto.builder()
+                    .messages(messages)
+                    .build());
+        } catch (JsonProcessingException e) {
+            throw new SmsGatewayException("Could not serialize SMS request", e);
+        }
+    }
+}
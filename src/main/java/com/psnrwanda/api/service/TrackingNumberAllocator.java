@@ -0,0 +1,111 @@
+package com.psnrwanda.api.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Allocates booking tracking numbers from the {@code booking_tracking_number_seq} PostgreSQL sequence.
+ * <p>
+ * The sequence is incremented by {@link #BLOCK_SIZE}, so every {@code nextval} call reserves a whole block
+ * of numbers for this instance. Numbers inside a block are handed out from an in-memory {@link AtomicLong},
+ * which means allocating a tracking number normally needs neither a lock nor a database round trip, and
+ * several application replicas can allocate concurrently without ever producing the same number.
+ * When a block runs out, the threads that notice refill it under a lock, and only the first of them
+ * reserves a new block; the others find it installed and allocate from it.
+ * Numbers left unused in a block (for example on shutdown) are simply skipped, so tracking numbers are
+ * unique and increasing per instance but not gap-free.
+ */
+@Slf4j
+@Component
+public class TrackingNumberAllocator {
+
+    /**
+     * Must match the INCREMENT BY of booking_tracking_number_seq (see V6 migration)
+     */
+    static final int BLOCK_SIZE = 50;
+
+    private static final String TRACKING_NUMBER_PREFIX = "PSN-";
+    private static final String NEXT_BLOCK_SQL = "SELECT nextval('booking_tracking_number_seq')";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Object refillLock = new Object();
+    private volatile Block currentBlock = Block.EXHAUSTED;
+
+    /**
+     * Constructor
+     * @param jdbcTemplate JDBC template used to reserve blocks from the sequence
+     */
+    public TrackingNumberAllocator(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Allocate the next tracking number
+     * @return The tracking number in format PSN-001
+     */
+    public String nextTrackingNumber() {
+        return format(nextValue());
+    }
+
+    /**
+     * Allocate the next raw tracking number value
+     * @return The numeric part of the next tracking number
+     */
+    public long nextValue() {
+        while (true) {
+            Block block = currentBlock;
+            long value = block.next.getAndIncrement();
+            if (value < block.limit) {
+                return value;
+            }
+
+            // Block exhausted: reserve a new one, unless another thread already replaced it while we waited
+            synchronized (refillLock) {
+                if (currentBlock == block) {
+                    currentBlock = reserveBlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Format a raw tracking number value
+     * @param value The numeric part
+     * @return The tracking number with prefix and leading zeros: PSN-001, PSN-002, etc.
+     */
+    public static String format(long value) {
+        return String.format("%s%03d", TRACKING_NUMBER_PREFIX, value);
+    }
+
+    /**
+     * Reserve a new block of numbers from the database sequence
+     * @return The reserved block
+     */
+    private Block reserveBlock() {
+        Long start = jdbcTemplate.queryForObject(NEXT_BLOCK_SQL, Long.class);
+        if (start == null) {
+            throw new IllegalStateException("Tracking number sequence returned no value");
+        }
+        log.debug("Reserved tracking number block [{}, {})", start, start + BLOCK_SIZE);
+        return new Block(start, start + BLOCK_SIZE);
+    }
+
+    /**
+     * Half-open range [next, limit) of reserved tracking number values
+     */
+    private static final class Block {
+
+        private static final Block EXHAUSTED = new Block(0, 0);
+
+        private final AtomicLong next;
+        private final long limit;
+
+        private Block(long start, long limit) {
+            this.next = new AtomicLong(start);
+            this.limit = limit;
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.psnrwanda.api.service;
+
+import com.psnrwanda.api.dto.ReportDto;
+import com.psnrwanda.api.model.Booking;
+import jakarta.annotation.PostConstruct;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Service maintaining per-service booking latency histograms in {@code booking_latency_histograms}.
+ * <p>
+ * Every status transition adds one sample for the time spent in the status being left and, when the
+ * booking is completed, one for the time from creation to completion. Samples go into log-scale buckets
+ * (bucket {@code b} holds durations up to {@code 1.1^b} seconds), so a histogram has a few hundred rows at
+ * most however many bookings it covers and percentiles read from it are accurate to within 10%.
+ * Turnaround queries read only the histograms, never the status history. Empty histograms are filled from
+ * the status history at startup, so the bucket formula is defined here only, not in the migrations.
+ */
+@Slf4j
+@Service
+public class TurnaroundAnalyticsService {
+
+    /**
+     * Latency being measured
+     */
+    public enum Metric {
+        /** Time spent in a status before leaving it */
+        TIME_IN_STATUS,
+        /** Time from creation to completion */
+        TIME_TO_COMPLETE
+    }
+
+    /**
+     * Histogram bucket key
+     */
+    @Value
+    public static class Key {
+        Long serviceId;
+        Metric metric;
+        Booking.BookingStatus status;
+        int bucket;
+    }
+
+    private static final double BUCKET_BASE = 1.1;
+    private static final double LOG_BUCKET_BASE = Math.log(BUCKET_BASE);
+    private static final Comparator<Key> KEY_ORDER = Comparator.comparing(Key::getServiceId)
+            .thenComparing(Key::getMetric)
+            .thenComparing(Key::getStatus)
+            .thenComparingInt(Key::getBucket);
+
+    private static final String UPSERT_SQL = "INSERT INTO booking_latency_histograms " +
+            "(service_id, metric, status, bucket, sample_count) VALUES (?, ?, ?, ?, 1) " +
+            "ON CONFLICT (service_id, metric, status, bucket) " +
+            "DO UPDATE SET sample_count = booking_latency_histograms.sample_count + 1";
+    private static final String SELECT_SQL = "SELECT service_id, metric, status, bucket, sample_count " +
+            "FROM booking_latency_histograms";
+    private static final String SERVICE_FILTER_SQL = " WHERE service_id = ?";
+    private static final String ORDER_SQL = " ORDER BY service_id, metric, status, bucket";
+    private static final String DELETE_ALL_SQL = "DELETE FROM booking_latency_histograms";
+    private static final String ANY_HISTOGRAM_SQL = "SELECT EXISTS (SELECT 1 FROM booking_latency_histograms)";
+    private static final String LOCK_SQL = "LOCK TABLE booking_latency_histograms IN EXCLUSIVE MODE";
+    private static final String BUCKET_SQL = "CEIL(LN(GREATEST(FLOOR(EXTRACT(EPOCH FROM %s)), 1)) / LN(" + BUCKET_BASE + "))::int";
+    private static final String REBUILD_SQL = "INSERT INTO booking_latency_histograms " +
+            "(service_id, metric, status, bucket, sample_count) " +
+            "SELECT service_id, metric, status, bucket, count(*) FROM (" +
+            "SELECT service_id, 'TIME_IN_STATUS' AS metric, from_status AS status, " +
+            String.format(BUCKET_SQL, "changed_at - entered_at") + " AS bucket " +
+            "FROM (SELECT service_id, from_status, changed_at, " +
+            "LAG(changed_at) OVER (PARTITION BY booking_id ORDER BY changed_at, id) AS entered_at " +
+            "FROM booking_status_history) transitions " +
+            "WHERE from_status IS NOT NULL AND entered_at IS NOT NULL " +
+            "UNION ALL " +
+            "SELECT service_id, 'TIME_TO_COMPLETE', 'COMPLETED', " +
+            String.format(BUCKET_SQL, "changed_at - created_at") + " " +
+            "FROM (SELECT service_id, from_status, to_status, changed_at, " +
+            "MIN(changed_at) OVER (PARTITION BY booking_id) AS created_at " +
+            "FROM booking_status_history) transitions " +
+            "WHERE to_status = 'COMPLETED' AND from_status IS NOT NULL" +
+            ") samples GROUP BY service_id, metric, status, bucket";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Constructor
+     * @param jdbcTemplate JDBC template
+     * @param transactionManager Transaction manager used for the startup backfill
+     */
+    public TurnaroundAnalyticsService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Add the samples for a status transition. Must run in the transaction that changes the booking.
+     *
+     * @param serviceId Service ID
+     * @param oldStatus Status being left
+     * @param newStatus Status being entered
+     * @param enteredAt When the booking entered the old status
+     * @param createdAt When the booking was created
+     * @param changedAt When the transition happened
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordTransition(Long serviceId, Booking.BookingStatus oldStatus, Booking.BookingStatus newStatus,
+                                 LocalDateTime enteredAt, LocalDateTime createdAt, LocalDateTime changedAt) {
+        List<Key> samples = new ArrayList<>(2);
+        samples.add(new Key(serviceId, Metric.TIME_IN_STATUS, oldStatus, bucket(enteredAt, changedAt)));
+        if (newStatus == Booking.BookingStatus.COMPLETED) {
+            samples.add(new Key(serviceId, Metric.TIME_TO_COMPLETE, newStatus, bucket(createdAt, changedAt)));
+        }
+
+        // Fixed order so concurrent transitions lock histogram rows in the same sequence
+        samples.sort(KEY_ORDER);
+        jdbcTemplate.batchUpdate(UPSERT_SQL, samples, samples.size(), (ps, key) -> {
+            ps.setLong(1, key.getServiceId());
+            ps.setString(2, key.getMetric().name());
+            ps.setString(3, key.getStatus().name());
+            ps.setInt(4, key.getBucket());
+        });
+    }
+
+    /**
+     * Rebuild all histograms from the status history
+     * @return Number of histogram rows written
+     */
+    @Transactional
+    public int rebuild() {
+        // Block transitions while the histograms are recomputed so no sample is lost
+        jdbcTemplate.execute(LOCK_SQL);
+        jdbcTemplate.update(DELETE_ALL_SQL);
+        int rows = jdbcTemplate.update(REBUILD_SQL);
+        log.info("Rebuilt booking latency histograms: {} rows", rows);
+        return rows;
+    }
+
+    /**
+     * Fill the histograms from the status history if they are empty, as they are after the migration creating
+     * them. Runs before this instance serves requests, so none of its own transitions can make the table look
+     * filled first; instances starting together take the table lock in turn, so only the first one fills them.
+     */
+    @PostConstruct
+    public void backfill() {
+        if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(ANY_HISTOGRAM_SQL, Boolean.class))) {
+            return;
+        }
+        Integer rows = transactionTemplate.execute(status -> {
+            jdbcTemplate.execute(LOCK_SQL);
+            if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(ANY_HISTOGRAM_SQL, Boolean.class))) {
+                return 0;
+            }
+            return jdbcTemplate.update(REBUILD_SQL);
+        });
+        if (rows != null && rows > 0) {
+            log.info("Filled booking latency histograms from the status history: {} rows", rows);
+        }
+    }
+
+    /**
+     * Get latency percentiles per service
+     *
+     * @param serviceId Optional service filter
+     * @return Latencies by service ID, in service ID order
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, ServiceLatencies> getLatencies(Long serviceId) {
+        String sql = SELECT_SQL + (serviceId != null ? SERVICE_FILTER_SQL : "") + ORDER_SQL;
+        Object[] args = serviceId != null ? new Object[] { serviceId } : new Object[0];
+
+        Map<Long, Map<Metric, Map<Booking.BookingStatus, Histogram>>> histograms = new LinkedHashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            histograms.computeIfAbsent(rs.getLong("service_id"), id -> new TreeMap<>())
+                    .computeIfAbsent(Metric.valueOf(rs.getString("metric")), metric -> new TreeMap<>())
+                    .computeIfAbsent(Booking.BookingStatus.valueOf(rs.getString("status")), status -> new Histogram())
+                    .add(rs.getInt("bucket"), rs.getLong("sample_count"));
+        }, args);
+
+        Map<Long, ServiceLatencies> latencies = new LinkedHashMap<>();
+        histograms.forEach((id, metrics) -> {
+            Map<Booking.BookingStatus, Histogram> completion = metrics.getOrDefault(Metric.TIME_TO_COMPLETE, Map.of());
+            Map<String, ReportDto.LatencyDto> timeInStatus = new LinkedHashMap<>();
+            metrics.getOrDefault(Metric.TIME_IN_STATUS, Map.of())
+                    .forEach((status, histogram) -> timeInStatus.put(status.name(), histogram.toDto()));
+
+            Histogram toComplete = completion.get(Booking.BookingStatus.COMPLETED);
+            latencies.put(id, new ServiceLatencies(toComplete != null ? toComplete.toDto() : Histogram.EMPTY, timeInStatus));
+        });
+        return latencies;
+    }
+
+    /**
+     * Latency percentiles of one service
+     */
+    @Value
+    public static class ServiceLatencies {
+        ReportDto.LatencyDto timeToComplete;
+        /** Time spent in each status, by status name */
+        Map<String, ReportDto.LatencyDto> timeInStatus;
+    }
+
+    /**
+     * Bucket of a duration
+     * @param from Start of the duration
+     * @param to End of the duration
+     * @return Smallest {@code b} with {@code duration <= 1.1^b} seconds; durations under a second go in bucket 0
+     */
+    static int bucket(LocalDateTime from, LocalDateTime to) {
+        long seconds = Math.max(Duration.between(from, to).getSeconds(), 1);
+        return (int) Math.ceil(Math.log(seconds) / LOG_BUCKET_BASE);
+    }
+
+    /**
+     * Upper bound of a bucket in seconds
+     */
+    private static long upperBound(int bucket) {
+        return Math.round(Math.pow(BUCKET_BASE, bucket));
+    }
+
+    /**
+     * One histogram read back from the table
+     */
+    private static final class Histogram {
+
+        private static final ReportDto.LatencyDto EMPTY = ReportDto.LatencyDto.builder().count(0).build();
+
+        private final TreeMap<Integer, Long> buckets = new TreeMap<>();
+        private long total;
+
+        private void add(int bucket, long count) {
+            buckets.merge(bucket, count, Long::sum);
+            total += count;
+        }
+
+        private ReportDto.LatencyDto toDto() {
+            if (total == 0) {
+                return EMPTY;
+            }
+            return ReportDto.LatencyDto.builder()
+                    .count(total)
+                    .p50Seconds(percentile(0.50))
+                    .p90Seconds(percentile(0.90))
+                    .p99Seconds(percentile(0.99))
+                    .build();
+        }
+
+        private long percentile(double quantile) {
+            long rank = Math.max(1, (long) Math.ceil(quantile * total));
+            long seen = 0;
+            for (Map.Entry<Integer, Long> entry : buckets.entrySet()) {
+                seen += entry.getValue();
+                if (seen >= rank) {
+                    return upperBound(entry.getKey());
+                }
+            }
+            return upperBound(buckets.lastKey());
+        }
+    }
+}
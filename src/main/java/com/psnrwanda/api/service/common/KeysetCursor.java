@@ -0,0 +1,67 @@
+package com.psnrwanda.api.service.common;
+
+import com.psnrwanda.api.exception.BadRequestException;
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in a listing ordered by (createdAt DESC, id DESC), exchanged with clients as an opaque string.
+ * A page continues with the rows strictly after the last row of the previous page.
+ */
+@Value
+public class KeysetCursor {
+
+    /**
+     * Cursor positioned before the newest row, i.e. at the start of the listing
+     */
+    public static final KeysetCursor FIRST = new KeysetCursor(LocalDateTime.of(9999, 12, 31, 0, 0), Long.MAX_VALUE);
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Creation time of the last row returned
+     */
+    LocalDateTime createdAt;
+
+    /**
+     * ID of the last row returned
+     */
+    Long id;
+
+    /**
+     * Decode a cursor received from a client
+     * @param value Opaque cursor; null or blank means the first page
+     * @return Decoded cursor
+     * @throws BadRequestException If the cursor is malformed
+     */
+    public static KeysetCursor decode(String value) {
+        if (value == null || value.isBlank()) {
+            return FIRST;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(value.trim()), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            return new KeysetCursor(LocalDateTime.parse(decoded.substring(0, separator)),
+                    Long.parseLong(decoded.substring(separator + 1)));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            // NumberFormatException and Base64 errors are IllegalArgumentExceptions too
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    /**
+     * Encode this cursor for a client
+     * @return Opaque cursor
+     */
+    public String encode() {
+        String raw = createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,68 @@
+package com.psnrwanda.api.service.common;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket rate limiter.
+ * <p>
+ * The bucket refills continuously at a fixed rate up to its capacity, which is the largest burst allowed.
+ * A caller that finds too few tokens reserves them against the future refill and sleeps until they are due,
+ * outside the lock, so waiting callers are served in arrival order and never hold each other up.
+ */
+public class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+
+    /** Available tokens; negative while callers are waiting for reserved tokens */
+    private double tokens;
+    private long lastRefill;
+
+    /**
+     * Constructor
+     * @param ratePerSecond Tokens added per second
+     * @param capacity Maximum number of tokens, i.e. the largest burst
+     */
+    public TokenBucket(double ratePerSecond, int capacity) {
+        if (ratePerSecond <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("Token bucket rate and capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.tokensPerNano = ratePerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.tokens = capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Take tokens, waiting until they are available
+     *
+     * @param permits Number of tokens, at most the capacity
+     * @param timeout Longest acceptable wait
+     * @return Whether the tokens were taken; false, without taking any, if they would not be available in time
+     * @throws InterruptedException If interrupted while waiting
+     */
+    public boolean tryAcquire(int permits, Duration timeout) throws InterruptedException {
+        if (permits > capacity) {
+            throw new IllegalArgumentException("Cannot take " + permits + " tokens from a bucket of " + (int) capacity);
+        }
+
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+            lastRefill = now;
+
+            waitNanos = tokens >= permits ? 0 : (long) Math.ceil((permits - tokens) / tokensPerNano);
+            if (waitNanos > timeout.toNanos()) {
+                return false;
+            }
+            tokens -= permits;
+        }
+
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+        return true;
+    }
+}
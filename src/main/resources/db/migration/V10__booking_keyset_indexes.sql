@@ -0,0 +1,10 @@
+-- Indexes matching the (created_at DESC, id DESC) order of the booking listings,
+-- so cursor pages are read with an index seek on (created_at, id) < (?, ?) at any depth
+
+CREATE INDEX idx_bookings_created_at_id ON bookings(created_at DESC, id DESC);
+
+CREATE INDEX idx_bookings_status_created_at_id ON bookings(status, created_at DESC, id DESC);
+
+CREATE INDEX idx_bookings_user_created_at_id ON bookings(user_id, created_at DESC, id DESC);
+
+CREATE INDEX idx_bookings_phone_created_at_id ON bookings(phone_number, created_at DESC, id DESC);
@@ -0,0 +1,29 @@
+-- Normalized (E.164) phone number for tracking lookups, so that 0788..., 250788... and +250 788...
+-- match the same bookings. The rules mirror com.psnrwanda.api.model.common.PhoneNumbers.
+
+ALTER TABLE bookings ADD COLUMN phone_normalized VARCHAR(20);
+
+UPDATE bookings b
+SET phone_normalized = CASE
+        WHEN p.digits = '' THEN btrim(b.phone_number)
+        WHEN p.has_plus THEN '+' || p.digits
+        WHEN p.digits LIKE '00%' THEN '+' || substr(p.digits, 3)
+        WHEN p.digits ~ '^250[0-9]{9}$' THEN '+' || p.digits
+        WHEN p.digits ~ '^0[0-9]{9}$' THEN '+250' || substr(p.digits, 2)
+        WHEN p.digits ~ '^[0-9]{9}$' THEN '+250' || p.digits
+        ELSE p.digits
+    END
+FROM (
+    SELECT id,
+           btrim(phone_number) LIKE '+%' AS has_plus,
+           regexp_replace(phone_number, '[^0-9]', '', 'g') AS digits
+    FROM bookings
+) p
+WHERE p.id = b.id;
+
+ALTER TABLE bookings ALTER COLUMN phone_normalized SET NOT NULL;
+
+-- Replaces the raw phone_number index from V10: tracking now always filters on the normalized number
+DROP INDEX IF EXISTS idx_bookings_phone_created_at_id;
+
+CREATE INDEX idx_bookings_phone_normalized_created_at_id ON bookings(phone_normalized, created_at DESC, id DESC);
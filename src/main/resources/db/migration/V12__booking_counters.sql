@@ -0,0 +1,14 @@
+-- Snapshot of booking counts per service and status, used to warm the in-memory dashboard counters
+-- on startup and rewritten by every periodic reconciliation
+CREATE TABLE booking_counters (
+    service_id BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    booking_count BIGINT NOT NULL,
+    reconciled_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (service_id, status)
+);
+
+INSERT INTO booking_counters (service_id, status, booking_count, reconciled_at)
+SELECT service_id, status, count(*), NOW()
+FROM bookings
+GROUP BY service_id, status;
@@ -0,0 +1,14 @@
+-- Daily rollup of bookings by creation date, service and current status.
+-- Maintained in the same transaction as booking writes; trend queries read only this table.
+CREATE TABLE booking_daily_stats (
+    stat_date DATE NOT NULL,
+    service_id BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    booking_count BIGINT NOT NULL,
+    PRIMARY KEY (stat_date, service_id, status)
+);
+
+INSERT INTO booking_daily_stats (stat_date, service_id, status, booking_count)
+SELECT created_at::date, service_id, status, count(*)
+FROM bookings
+GROUP BY created_at::date, service_id, status;
@@ -0,0 +1,29 @@
+-- Booking exports rendered in the background and downloaded later
+CREATE SEQUENCE export_job_seq INCREMENT BY 50 MINVALUE 1;
+
+CREATE TABLE export_jobs (
+    id BIGINT PRIMARY KEY DEFAULT nextval('export_job_seq'),
+    format VARCHAR(10) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    start_date DATE NOT NULL,
+    end_date DATE NOT NULL,
+    booking_status VARCHAR(20),
+    total_rows BIGINT,
+    rows_written BIGINT NOT NULL DEFAULT 0,
+    file_name VARCHAR(255),
+    file_size BIGINT,
+    error TEXT,
+    started_at TIMESTAMP,
+    completed_at TIMESTAMP,
+    expires_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP,
+    created_by VARCHAR(50),
+    updated_by VARCHAR(50)
+);
+
+ALTER SEQUENCE export_job_seq OWNED BY export_jobs.id;
+
+-- The retention sweep looks for finished jobs past their expiry and for unfinished jobs that stalled
+CREATE INDEX idx_export_jobs_expires_at ON export_jobs(expires_at) WHERE expires_at IS NOT NULL;
+CREATE INDEX idx_export_jobs_unfinished ON export_jobs(created_at) WHERE status IN ('QUEUED', 'RUNNING');
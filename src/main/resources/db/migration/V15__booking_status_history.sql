@@ -0,0 +1,41 @@
+-- Append-only log of booking status transitions, written in the same transaction as the change.
+-- booking_id is deliberately not a foreign key: the history of a deleted booking is kept.
+CREATE SEQUENCE booking_status_history_seq INCREMENT BY 50 MINVALUE 1;
+
+CREATE TABLE booking_status_history (
+    id BIGINT PRIMARY KEY DEFAULT nextval('booking_status_history_seq'),
+    booking_id BIGINT NOT NULL,
+    service_id BIGINT NOT NULL,
+    from_status VARCHAR(20),
+    to_status VARCHAR(20) NOT NULL,
+    changed_at TIMESTAMP NOT NULL,
+    changed_by VARCHAR(50)
+);
+
+ALTER SEQUENCE booking_status_history_seq OWNED BY booking_status_history.id;
+
+CREATE INDEX idx_booking_status_history_booking ON booking_status_history(booking_id, changed_at);
+
+-- Existing bookings only have their creation time and last update, so their history is approximated
+-- as created (PENDING) at created_at and moved to the current status at updated_at
+INSERT INTO booking_status_history (booking_id, service_id, from_status, to_status, changed_at, changed_by)
+SELECT id, service_id, NULL, 'PENDING', created_at, created_by
+FROM bookings;
+
+INSERT INTO booking_status_history (booking_id, service_id, from_status, to_status, changed_at, changed_by)
+SELECT id, service_id, 'PENDING', status, GREATEST(COALESCE(updated_at, created_at), created_at), updated_by
+FROM bookings
+WHERE status <> 'PENDING';
+
+-- Log-scale latency histograms per service, maintained on every transition.
+-- metric is TIME_IN_STATUS (time spent in status before leaving it) or TIME_TO_COMPLETE (status = COMPLETED).
+-- Bucket b counts durations in (1.1^(b-1), 1.1^b] seconds, so percentiles are accurate to within 10%.
+-- Filled from the history above by TurnaroundAnalyticsService on the first startup, which owns the bucket formula.
+CREATE TABLE booking_latency_histograms (
+    service_id BIGINT NOT NULL,
+    metric VARCHAR(20) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    bucket INT NOT NULL,
+    sample_count BIGINT NOT NULL,
+    PRIMARY KEY (service_id, metric, status, bucket)
+);
@@ -0,0 +1,44 @@
+-- Notifications are dispatched per channel, each by its own worker pool
+ALTER TABLE notification_outbox ADD COLUMN channel VARCHAR(10) NOT NULL DEFAULT 'EMAIL';
+ALTER TABLE notification_outbox ALTER COLUMN channel DROP DEFAULT;
+
+DROP INDEX idx_notification_outbox_due;
+CREATE INDEX idx_notification_outbox_due ON notification_outbox(channel, next_attempt_at)
+    WHERE status IN ('PENDING', 'PROCESSING');
+
+-- Notifications that exhausted their attempts, kept until an admin replays them
+CREATE SEQUENCE notification_dead_letter_seq INCREMENT BY 50 MINVALUE 1;
+
+CREATE TABLE notification_dead_letter (
+    id BIGINT PRIMARY KEY DEFAULT nextval('notification_dead_letter_seq'),
+    outbox_id BIGINT NOT NULL,
+    notification_type VARCHAR(50) NOT NULL,
+    channel VARCHAR(10) NOT NULL,
+    recipient VARCHAR(255) NOT NULL,
+    booking_id BIGINT,
+    payload TEXT NOT NULL,
+    attempts INT NOT NULL,
+    last_error TEXT,
+    failed_at TIMESTAMP NOT NULL,
+    replayed_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP,
+    created_by VARCHAR(50),
+    updated_by VARCHAR(50)
+);
+
+ALTER SEQUENCE notification_dead_letter_seq OWNED BY notification_dead_letter.id;
+
+-- Admins list the notifications still waiting to be replayed, most recent first
+CREATE INDEX idx_notification_dead_letter_pending ON notification_dead_letter(failed_at)
+    WHERE replayed_at IS NULL;
+
+-- Move the notifications that already gave up
+INSERT INTO notification_dead_letter (outbox_id, notification_type, channel, recipient, booking_id, payload,
+                                      attempts, last_error, failed_at, created_at)
+SELECT id, notification_type, channel, recipient, booking_id, payload,
+       attempts, last_error, COALESCE(updated_at, created_at), NOW()
+FROM notification_outbox
+WHERE status = 'FAILED';
+
+DELETE FROM notification_outbox WHERE status = 'FAILED';
@@ -0,0 +1,3 @@
+-- Provider notifications waiting to be flushed into a digest are kept in the outbox as BUFFERED rows
+CREATE INDEX idx_notification_outbox_buffered ON notification_outbox(created_at)
+    WHERE status = 'BUFFERED';
@@ -0,0 +1,54 @@
+-- Bulk email campaigns sent to a segment of customers
+CREATE SEQUENCE email_campaign_seq INCREMENT BY 50 MINVALUE 1;
+
+CREATE TABLE email_campaigns (
+    id BIGINT PRIMARY KEY DEFAULT nextval('email_campaign_seq'),
+    name VARCHAR(100) NOT NULL,
+    subject VARCHAR(200) NOT NULL,
+    template VARCHAR(50) NOT NULL,
+    message TEXT NOT NULL,
+    segment VARCHAR(20) NOT NULL,
+    service_id BIGINT REFERENCES services(id),
+    booking_status VARCHAR(20),
+    status VARCHAR(20) NOT NULL,
+    total_recipients INTEGER,
+    sent_count INTEGER NOT NULL DEFAULT 0,
+    failed_count INTEGER NOT NULL DEFAULT 0,
+    unknown_count INTEGER NOT NULL DEFAULT 0,
+    lease_until TIMESTAMP,
+    error TEXT,
+    started_at TIMESTAMP,
+    completed_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP,
+    created_by VARCHAR(50),
+    updated_by VARCHAR(50)
+);
+
+ALTER SEQUENCE email_campaign_seq OWNED BY email_campaigns.id;
+
+CREATE INDEX idx_email_campaigns_unfinished ON email_campaigns(id) WHERE status IN ('QUEUED', 'RUNNING');
+
+-- Recipients are snapshotted once when a campaign starts, one row per address.
+-- A row is moved to SENDING before its email is handed to the mail server, so after a crash
+-- rows still SENDING are marked UNKNOWN instead of being sent a second time.
+CREATE SEQUENCE email_campaign_recipient_seq INCREMENT BY 50 MINVALUE 1;
+
+CREATE TABLE email_campaign_recipients (
+    id BIGINT PRIMARY KEY DEFAULT nextval('email_campaign_recipient_seq'),
+    campaign_id BIGINT NOT NULL REFERENCES email_campaigns(id) ON DELETE CASCADE,
+    email VARCHAR(100) NOT NULL,
+    full_name VARCHAR(100),
+    status VARCHAR(10) NOT NULL DEFAULT 'PENDING',
+    error TEXT,
+    sent_at TIMESTAMP
+);
+
+ALTER SEQUENCE email_campaign_recipient_seq OWNED BY email_campaign_recipients.id;
+
+CREATE UNIQUE INDEX uk_email_campaign_recipients_email ON email_campaign_recipients(campaign_id, lower(email));
+
+-- Keyset paging over the recipients still to be sent
+CREATE INDEX idx_email_campaign_recipients_pending ON email_campaign_recipients(campaign_id, id) WHERE status = 'PENDING';
+
+CREATE INDEX idx_email_campaign_recipients_sending ON email_campaign_recipients(campaign_id) WHERE status = 'SENDING';
@@ -0,0 +1,10 @@
+-- Idempotency keys are scoped to the caller (user name, or client IP for anonymous requests), so two
+-- clients picking the same key never see each other's responses, and remember a SHA-256 of the request
+-- body so a key reused for a different payload is refused instead of replayed.
+-- Existing keys cannot be attributed to a caller; they get an empty scope and simply expire.
+ALTER TABLE idempotency_keys ADD COLUMN client_scope VARCHAR(100) NOT NULL DEFAULT '';
+ALTER TABLE idempotency_keys ALTER COLUMN client_scope DROP DEFAULT;
+ALTER TABLE idempotency_keys ADD COLUMN request_hash VARCHAR(64);
+
+ALTER TABLE idempotency_keys DROP CONSTRAINT idempotency_keys_idempotency_key_key;
+ALTER TABLE idempotency_keys ADD CONSTRAINT uk_idempotency_keys_scope_key UNIQUE (client_scope, idempotency_key);
@@ -0,0 +1,4 @@
+-- Instances refresh updated_at of the export jobs they hold; the sweep fails unfinished jobs that stopped
+-- being refreshed, so the partial index follows updated_at instead of created_at
+DROP INDEX idx_export_jobs_unfinished;
+CREATE INDEX idx_export_jobs_unfinished ON export_jobs(updated_at) WHERE status IN ('QUEUED', 'RUNNING');
@@ -0,0 +1,16 @@
+-- Sequence backing booking tracking numbers (PSN-001, PSN-002, ...)
+-- Each nextval reserves a block of 50 numbers that the application hands out in memory,
+-- so INCREMENT BY must match TrackingNumberAllocator.BLOCK_SIZE
+CREATE SEQUENCE booking_tracking_number_seq START WITH 1 INCREMENT BY 50 MINVALUE 1;
+
+-- Continue after the highest numeric tracking number already issued
+SELECT setval(
+    'booking_tracking_number_seq',
+    COALESCE(
+        (SELECT MAX(CAST(SUBSTRING(tracking_number FROM 5) AS BIGINT))
+         FROM bookings
+         WHERE tracking_number ~ '^PSN-[0-9]+$'),
+        0
+    ) + 1,
+    false
+);
@@ -0,0 +1,21 @@
+-- Transactional outbox for notifications triggered by booking writes
+CREATE TABLE notification_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    notification_type VARCHAR(50) NOT NULL,
+    recipient VARCHAR(255) NOT NULL,
+    booking_id BIGINT,
+    payload TEXT NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL,
+    last_error TEXT,
+    sent_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP,
+    created_by VARCHAR(50),
+    updated_by VARCHAR(50)
+);
+
+-- Dispatchers only ever scan rows that still need delivery
+CREATE INDEX idx_notification_outbox_due ON notification_outbox(next_attempt_at)
+    WHERE status IN ('PENDING', 'PROCESSING');
@@ -0,0 +1,40 @@
+-- Replace BIGSERIAL identity columns with per-entity sequences incremented by 50.
+-- Hibernate reserves a block of 50 IDs per nextval (pooled-lo optimizer), which lets it batch inserts.
+-- Sequence names follow Hibernate's implicit naming: <entity name>_seq.
+-- Column defaults are switched to the new sequences so raw inserts (e.g. COPY imports) stay consistent.
+
+CREATE SEQUENCE user_seq INCREMENT BY 50 MINVALUE 1;
+SELECT setval('user_seq', COALESCE((SELECT MAX(id) FROM users), 0) + 1, false);
+ALTER TABLE users ALTER COLUMN id SET DEFAULT nextval('user_seq');
+ALTER SEQUENCE user_seq OWNED BY users.id;
+DROP SEQUENCE users_id_seq;
+
+CREATE SEQUENCE service_seq INCREMENT BY 50 MINVALUE 1;
+SELECT setval('service_seq', COALESCE((SELECT MAX(id) FROM services), 0) + 1, false);
+ALTER TABLE services ALTER COLUMN id SET DEFAULT nextval('service_seq');
+ALTER SEQUENCE service_seq OWNED BY services.id;
+DROP SEQUENCE services_id_seq;
+
+CREATE SEQUENCE booking_seq INCREMENT BY 50 MINVALUE 1;
+SELECT setval('booking_seq', COALESCE((SELECT MAX(id) FROM bookings), 0) + 1, false);
+ALTER TABLE bookings ALTER COLUMN id SET DEFAULT nextval('booking_seq');
+ALTER SEQUENCE booking_seq OWNED BY bookings.id;
+DROP SEQUENCE bookings_id_seq;
+
+CREATE SEQUENCE company_seq INCREMENT BY 50 MINVALUE 1;
+SELECT setval('company_seq', COALESCE((SELECT MAX(id) FROM company), 0) + 1, false);
+ALTER TABLE company ALTER COLUMN id SET DEFAULT nextval('company_seq');
+ALTER SEQUENCE company_seq OWNED BY company.id;
+DROP SEQUENCE company_id_seq;
+
+CREATE SEQUENCE booking_document_seq INCREMENT BY 50 MINVALUE 1;
+SELECT setval('booking_document_seq', COALESCE((SELECT MAX(id) FROM booking_documents), 0) + 1, false);
+ALTER TABLE booking_documents ALTER COLUMN id SET DEFAULT nextval('booking_document_seq');
+ALTER SEQUENCE booking_document_seq OWNED BY booking_documents.id;
+DROP SEQUENCE booking_documents_id_seq;
+
+CREATE SEQUENCE outbox_notification_seq INCREMENT BY 50 MINVALUE 1;
+SELECT setval('outbox_notification_seq', COALESCE((SELECT MAX(id) FROM notification_outbox), 0) + 1, false);
+ALTER TABLE notification_outbox ALTER COLUMN id SET DEFAULT nextval('outbox_notification_seq');
+ALTER SEQUENCE outbox_notification_seq OWNED BY notification_outbox.id;
+DROP SEQUENCE notification_outbox_id_seq;
@@ -0,0 +1,22 @@
+-- Stored responses for requests carrying an Idempotency-Key header
+CREATE SEQUENCE idempotency_record_seq INCREMENT BY 50 MINVALUE 1;
+
+CREATE TABLE idempotency_keys (
+    id BIGINT PRIMARY KEY DEFAULT nextval('idempotency_record_seq'),
+    idempotency_key VARCHAR(255) NOT NULL UNIQUE,
+    request_method VARCHAR(10) NOT NULL,
+    request_path VARCHAR(255) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    response_status INT,
+    response_content_type VARCHAR(255),
+    response_body BYTEA,
+    expires_at TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP,
+    created_by VARCHAR(50),
+    updated_by VARCHAR(50)
+);
+
+ALTER SEQUENCE idempotency_record_seq OWNED BY idempotency_keys.id;
+
+CREATE INDEX idx_idempotency_keys_expires_at ON idempotency_keys(expires_at);
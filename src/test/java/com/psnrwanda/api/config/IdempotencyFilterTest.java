@@ -0,0 +1,142 @@
+package com.psnrwanda.api.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.psnrwanda.api.service.IdempotencyService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockMultipartHttpServletRequest;
+import org.springframework.mock.web.MockPart;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IdempotencyFilterTest {
+
+    private static final String PATH = "/api/v1/bookings/public";
+
+    private IdempotencyService idempotencyService;
+    private IdempotencyFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = mock(IdempotencyService.class);
+        when(idempotencyService.reserve(anyString(), anyString(), anyString(), anyString(), anyString()))
+                .thenReturn(new IdempotencyService.Reservation(IdempotencyService.Outcome.ACQUIRED, null));
+        filter = new IdempotencyFilter(idempotencyService, new ObjectMapper());
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void anonymousKeysAreScopedByClientIpAndTheBodyStillReachesTheController() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(jsonRequest("{\"phoneNumber\":\"0788123456\"}"), new MockHttpServletResponse(), chain);
+
+        verify(idempotencyService).reserve(eq("ip:10.0.0.1"), eq("key-1"), eq("POST"), eq(PATH), anyString());
+        assertThat(chain.getRequest().getInputStream().readAllBytes())
+                .asString(StandardCharsets.UTF_8).isEqualTo("{\"phoneNumber\":\"0788123456\"}");
+    }
+
+    @Test
+    void authenticatedKeysAreScopedByUser() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "alice", null, AuthorityUtils.createAuthorityList("ROLE_USER")));
+
+        filter.doFilter(jsonRequest("{}"), new MockHttpServletResponse(), new MockFilterChain());
+
+        verify(idempotencyService).reserve(eq("user:alice"), eq("key-1"), eq("POST"), eq(PATH), anyString());
+    }
+
+    @Test
+    void differentBodiesHashDifferently() throws Exception {
+        filter.doFilter(jsonRequest("{\"a\":1}"), new MockHttpServletResponse(), new MockFilterChain());
+        filter.doFilter(jsonRequest("{\"a\":2}"), new MockHttpServletResponse(), new MockFilterChain());
+        filter.doFilter(jsonRequest("{\"a\":1}"), new MockHttpServletResponse(), new MockFilterChain());
+
+        ArgumentCaptor<String> hashes = ArgumentCaptor.forClass(String.class);
+        verify(idempotencyService, times(3))
+                .reserve(anyString(), anyString(), anyString(), anyString(), hashes.capture());
+        List<String> values = hashes.getAllValues();
+        assertThat(values.get(0)).hasSize(64).isNotEqualTo(values.get(1)).isEqualTo(values.get(2));
+    }
+
+    @Test
+    void multipartBodiesAreHashedFromTheirParts() throws Exception {
+        filter.doFilter(multipartRequest("scan.pdf", "content"), new MockHttpServletResponse(), new MockFilterChain());
+        filter.doFilter(multipartRequest("scan.pdf", "other content"), new MockHttpServletResponse(), new MockFilterChain());
+        filter.doFilter(multipartRequest("scan.pdf", "content"), new MockHttpServletResponse(), new MockFilterChain());
+
+        ArgumentCaptor<String> hashes = ArgumentCaptor.forClass(String.class);
+        verify(idempotencyService, times(3))
+                .reserve(anyString(), anyString(), anyString(), anyString(), hashes.capture());
+        List<String> values = hashes.getAllValues();
+        assertThat(values.get(0)).isNotEqualTo(values.get(1)).isEqualTo(values.get(2));
+    }
+
+    @Test
+    void mismatchIsAnsweredWith422() throws Exception {
+        when(idempotencyService.reserve(anyString(), anyString(), anyString(), anyString(), anyString()))
+                .thenReturn(new IdempotencyService.Reservation(IdempotencyService.Outcome.MISMATCH, null));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(jsonRequest("{}"), response, chain);
+
+        assertThat(response.getStatus()).isEqualTo(422);
+        assertThat(chain.getRequest()).isNull();
+        verify(idempotencyService, never()).finish(anyString(), anyString(), any());
+    }
+
+    @Test
+    void registeredAfterTheSecurityFilterChain() {
+        FilterRegistrationBean<IdempotencyFilter> registration = new WebConfig()
+                .idempotencyFilter(idempotencyService, new ObjectMapper(), new SecurityProperties());
+
+        // The security chain must have authenticated the caller before the key is scoped to them
+        assertThat(registration.getOrder()).isGreaterThan(SecurityProperties.DEFAULT_FILTER_ORDER);
+    }
+
+    private static MockHttpServletRequest jsonRequest(String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", PATH);
+        request.setRemoteAddr("10.0.0.1");
+        request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "key-1");
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private static MockHttpServletRequest multipartRequest(String fileName, String content) {
+        MockMultipartHttpServletRequest request = new MockMultipartHttpServletRequest();
+        request.setRequestURI("/api/v1/documents/upload");
+        request.setRemoteAddr("10.0.0.1");
+        request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "key-1");
+        request.setContentType("multipart/form-data; boundary=" + System.nanoTime());
+        MockPart part = new MockPart("file", fileName, content.getBytes(StandardCharsets.UTF_8));
+        request.addPart(part);
+        return request;
+    }
+}
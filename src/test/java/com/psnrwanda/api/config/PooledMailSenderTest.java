@@ -0,0 +1,200 @@
+package com.psnrwanda.api.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PooledMailSenderTest {
+
+    private static final int POOL_SIZE = 3;
+
+    private FakeSmtpServer server;
+    private PooledMailSender sender;
+    private MeterRegistry registry;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new FakeSmtpServer();
+        sender = newPooledSender(Duration.ofSeconds(5), 1000);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        sender.destroy();
+        server.close();
+    }
+
+    @Test
+    void sequentialSendsReuseOneConnection() throws Exception {
+        for (int i = 0; i < 50; i++) {
+            sender.send(message(sender, i));
+        }
+
+        assertThat(server.getMessages()).isEqualTo(50);
+        assertThat(server.getConnections()).isEqualTo(1);
+        assertThat(counter("mail.pool.connections.created")).isEqualTo(1);
+        assertThat(counter("mail.pool.connections.reused")).isEqualTo(49);
+        assertThat(counter("mail.pool.messages.sent")).isEqualTo(50);
+    }
+
+    @Test
+    void concurrentSendsNeverOpenMoreThanThePoolSize() throws Exception {
+        int threads = 8;
+        int perThread = 50;
+
+        sendInParallel(sender, threads, perThread);
+
+        assertThat(server.getMessages()).isEqualTo(threads * perThread);
+        assertThat(server.getConnections()).isLessThanOrEqualTo(POOL_SIZE);
+        assertThat(counter("mail.pool.connections.created"))
+                .isEqualTo(server.getConnections())
+                .isLessThanOrEqualTo(POOL_SIZE);
+        assertThat(counter("mail.pool.messages.sent")).isEqualTo(threads * perThread);
+        assertThat(gauge("mail.pool.connections.active")).isZero();
+    }
+
+    @Test
+    void poolingAvoidsTheConnectionSetupPerMessage() throws Exception {
+        int threads = 4;
+        int perThread = 25;
+
+        sendInParallel(sender, threads, perThread);
+        int pooledConnections = server.getConnections();
+
+        // The stock sender opens and closes a connection for every call
+        JavaMailSenderImpl stock = new JavaMailSenderImpl();
+        stock.setHost("localhost");
+        stock.setPort(server.getPort());
+        sendInParallel(stock, threads, perThread);
+        int stockConnections = server.getConnections() - pooledConnections;
+
+        assertThat(pooledConnections).isLessThanOrEqualTo(POOL_SIZE);
+        assertThat(stockConnections).isEqualTo(threads * perThread);
+    }
+
+    @Test
+    void connectionIsRetiredAfterMaxMessages() throws Exception {
+        sender.destroy();
+        sender = newPooledSender(Duration.ofSeconds(5), 10);
+
+        for (int i = 0; i < 25; i++) {
+            sender.send(message(sender, i));
+        }
+
+        assertThat(server.getMessages()).isEqualTo(25);
+        assertThat(counter("mail.pool.connections.created")).isEqualTo(3);
+        assertThat(counter("mail.pool.connections.discarded")).isEqualTo(2);
+    }
+
+    @Test
+    void droppedConnectionIsValidatedAndReplaced() throws Exception {
+        sender.destroy();
+        // Validate every idle connection before reuse
+        sender = newPooledSender(Duration.ZERO, 1000);
+
+        sender.send(message(sender, 1));
+        server.dropConnections();
+        sender.send(message(sender, 2));
+
+        assertThat(server.getMessages()).isEqualTo(2);
+        assertThat(counter("mail.pool.connections.created")).isEqualTo(2);
+        assertThat(counter("mail.pool.connections.discarded")).isEqualTo(1);
+    }
+
+    @Test
+    void connectionFailingMidSendIsDiscarded() throws Exception {
+        sender.send(message(sender, 1));
+        server.dropConnections();
+
+        // Reused without validation (idle for less than validate-after-idle): the send fails on the dead socket
+        assertThatThrownBy(() -> sender.send(message(sender, 2))).isInstanceOf(MailSendException.class);
+        assertThat(counter("mail.pool.connections.discarded")).isEqualTo(1);
+        assertThat(gauge("mail.pool.connections.idle")).isZero();
+
+        sender.send(message(sender, 3));
+        assertThat(server.getMessages()).isEqualTo(2);
+        assertThat(counter("mail.pool.connections.created")).isEqualTo(2);
+    }
+
+    private PooledMailSender newPooledSender(Duration validateAfterIdle, int maxMessagesPerConnection) {
+        AppProperties.Notification.MailPool settings = new AppProperties.Notification.MailPool();
+        settings.setMaxConnections(POOL_SIZE);
+        settings.setMaxMessagesPerConnection(maxMessagesPerConnection);
+        settings.setValidateAfterIdle(validateAfterIdle);
+        settings.setBorrowTimeout(Duration.ofSeconds(10));
+
+        PooledMailSender pooled = new PooledMailSender(settings);
+        pooled.setHost("localhost");
+        pooled.setPort(server.getPort());
+        Properties properties = new Properties();
+        properties.put("mail.smtp.connectiontimeout", "5000");
+        properties.put("mail.smtp.timeout", "5000");
+        pooled.setJavaMailProperties(properties);
+
+        registry = new SimpleMeterRegistry();
+        pooled.bindTo(registry);
+        return pooled;
+    }
+
+    private static void sendInParallel(JavaMailSenderImpl mailSender, int threads, int perThread) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        mailSender.send(message(mailSender, thread * perThread + i));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static MimeMessage message(JavaMailSenderImpl mailSender, int i) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, false, "UTF-8");
+        helper.setFrom("noreply@psnrwanda.com");
+        helper.setTo("customer" + i + "@example.com");
+        helper.setSubject("Booking " + i);
+        helper.setText("Your booking has been received.");
+        return message;
+    }
+
+    private double counter(String name) {
+        return registry.get(name).functionCounter().count();
+    }
+
+    private double gauge(String name) {
+        return registry.get(name).gauge().value();
+    }
+}
@@ -0,0 +1,94 @@
+package com.psnrwanda.api.repository;
+
+import com.psnrwanda.api.model.ExportJob;
+import com.psnrwanda.api.model.common.ExportFormat;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Status changes are conditional, so an instance completing a job and another failing it as stalled
+ * cannot overwrite each other.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+class ExportJobRepositoryTest {
+
+    private static final List<ExportJob.Status> UNFINISHED = List.of(ExportJob.Status.QUEUED, ExportJob.Status.RUNNING);
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private ExportJobRepository repository;
+
+    @Test
+    void jobThatStoppedReportingIsFailedAndCannotCompleteAfterwards() {
+        Long id = runningJobLastUpdated(LocalDateTime.now().minusMinutes(30));
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime stalledBefore = now.minusMinutes(10);
+
+        assertThat(repository.findByStatusInAndUpdatedAtBefore(UNFINISHED, stalledBefore))
+                .extracting(ExportJob::getId).containsExactly(id);
+        assertThat(repository.failStalled(id, "Export stopped making progress", stalledBefore, now, now.plusDays(1)))
+                .isEqualTo(1);
+        assertThat(repository.complete(id, 100, "export-1.csv", 2048, now, now.plusDays(1))).isZero();
+
+        entityManager.clear();
+        ExportJob job = repository.findById(id).orElseThrow();
+        assertThat(job.getStatus()).isEqualTo(ExportJob.Status.FAILED);
+        assertThat(job.getFileName()).isNull();
+    }
+
+    @Test
+    void jobThatReportedMeanwhileIsNotFailed() {
+        Long id = runningJobLastUpdated(LocalDateTime.now().minusMinutes(30));
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime stalledBefore = now.minusMinutes(10);
+
+        // The sweep read the job as stalled, then its instance reported progress
+        assertThat(repository.heartbeat(id, 40, now)).isEqualTo(1);
+
+        assertThat(repository.failStalled(id, "Export stopped making progress", stalledBefore, now, now.plusDays(1)))
+                .isZero();
+        assertThat(repository.complete(id, 100, "export-1.csv", 2048, now, now.plusDays(1))).isEqualTo(1);
+
+        entityManager.clear();
+        ExportJob job = repository.findById(id).orElseThrow();
+        assertThat(job.getStatus()).isEqualTo(ExportJob.Status.COMPLETED);
+        assertThat(job.getRowsWritten()).isEqualTo(100);
+    }
+
+    @Test
+    void heartbeatOfAFinishedJobIsRefused() {
+        Long id = runningJobLastUpdated(LocalDateTime.now());
+        LocalDateTime now = LocalDateTime.now();
+        repository.complete(id, 100, "export-1.csv", 2048, now, now.plusDays(1));
+
+        assertThat(repository.heartbeat(id, 100, now)).isZero();
+        assertThat(repository.start(id, 100, now)).isZero();
+    }
+
+    private Long runningJobLastUpdated(LocalDateTime updatedAt) {
+        ExportJob job = entityManager.persistAndFlush(ExportJob.builder()
+                .format(ExportFormat.CSV)
+                .startDate(LocalDate.now().minusDays(30))
+                .endDate(LocalDate.now())
+                .build());
+        repository.start(job.getId(), 100, LocalDateTime.now());
+        entityManager.getEntityManager()
+                .createNativeQuery("UPDATE export_jobs SET updated_at = :updatedAt WHERE id = :id")
+                .setParameter("updatedAt", updatedAt)
+                .setParameter("id", job.getId())
+                .executeUpdate();
+        entityManager.clear();
+        return job.getId();
+    }
+}
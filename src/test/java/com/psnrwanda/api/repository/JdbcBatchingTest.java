@@ -0,0 +1,176 @@
+package com.psnrwanda.api.repository;
+
+import com.psnrwanda.api.model.Booking;
+import com.psnrwanda.api.model.BookingDocument;
+import com.psnrwanda.api.model.Service;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.util.ClassUtils;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Entities use pooled sequences, so Hibernate assigns IDs in memory and sends the inserts of a table
+ * as JDBC batches instead of one statement per row. The data source is wrapped to count what reaches JDBC.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+class JdbcBatchingTest {
+
+    private static final AtomicInteger insertBatches = new AtomicInteger();
+    private static final AtomicInteger batchedInserts = new AtomicInteger();
+    private static final AtomicInteger singleInserts = new AtomicInteger();
+
+    @TestConfiguration
+    static class CountingDataSourceConfig {
+
+        @Bean
+        static BeanPostProcessor countingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof DataSource)) {
+                        return bean;
+                    }
+                    return proxy(bean, ClassUtils.getAllInterfaces(bean), (target, method, args) ->
+                            method.getName().equals("getConnection")
+                                    ? countConnection((Connection) invoke(bean, method, args))
+                                    : invoke(bean, method, args));
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private BookingDocumentRepository bookingDocumentRepository;
+
+    private Service service;
+
+    @BeforeEach
+    void setUp() {
+        service = entityManager.persistAndFlush(Service.builder().title("Notary Services").build());
+    }
+
+    @Test
+    void documentInsertsAreSentAsOneBatch() {
+        Booking booking = entityManager.persistAndFlush(newBooking(0));
+        resetCounters();
+
+        List<BookingDocument> documents = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            documents.add(newDocument(booking, i));
+        }
+        bookingDocumentRepository.saveAll(documents);
+        entityManager.flush();
+
+        assertThat(batchedInserts.get()).isEqualTo(20);
+        assertThat(insertBatches.get()).isEqualTo(1);
+        assertThat(singleInserts.get()).isZero();
+    }
+
+    @Test
+    void cascadedInsertsAreGroupedPerTable() {
+        resetCounters();
+
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Booking booking = newBooking(i);
+            for (int d = 0; d < 3; d++) {
+                booking.addDocument(newDocument(null, d));
+            }
+            bookings.add(booking);
+        }
+        bookingRepository.saveAll(bookings);
+        entityManager.flush();
+
+        assertThat(batchedInserts.get()).isEqualTo(20);
+        // With order_inserts the bookings and the documents go out as one batch each, not interleaved
+        assertThat(insertBatches.get()).isEqualTo(2);
+        assertThat(singleInserts.get()).isZero();
+    }
+
+    private Booking newBooking(int i) {
+        Booking booking = new Booking();
+        booking.setTrackingNumber("PSN-B" + i);
+        booking.setPhoneNumber("+250788000" + String.format("%03d", i));
+        booking.setService(service);
+        return booking;
+    }
+
+    private static BookingDocument newDocument(Booking booking, int i) {
+        return BookingDocument.builder()
+                .fileName("document-" + i + ".pdf")
+                .filePath("uploads/document-" + i + ".pdf")
+                .fileType("application/pdf")
+                .fileSize(1024L)
+                .booking(booking)
+                .build();
+    }
+
+    private static void resetCounters() {
+        insertBatches.set(0);
+        batchedInserts.set(0);
+        singleInserts.set(0);
+    }
+
+    private static Connection countConnection(Connection connection) {
+        return proxy(connection, new Class<?>[]{Connection.class}, (target, method, args) -> {
+            Object result = invoke(connection, method, args);
+            if (method.getName().equals("prepareStatement") && isInsert((String) args[0])) {
+                return countInserts((PreparedStatement) result);
+            }
+            return result;
+        });
+    }
+
+    private static PreparedStatement countInserts(PreparedStatement statement) {
+        return proxy(statement, new Class<?>[]{PreparedStatement.class}, (target, method, args) -> {
+            switch (method.getName()) {
+                case "addBatch" -> batchedInserts.incrementAndGet();
+                case "executeBatch" -> insertBatches.incrementAndGet();
+                case "executeUpdate", "execute" -> singleInserts.incrementAndGet();
+                default -> { }
+            }
+            return invoke(statement, method, args);
+        });
+    }
+
+    private static boolean isInsert(String sql) {
+        return sql.trim().toLowerCase(Locale.ROOT).startsWith("insert");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Object target, Class<?>[] interfaces, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(JdbcBatchingTest.class.getClassLoader(), interfaces, handler);
+    }
+
+    private static Object invoke(Object target, java.lang.reflect.Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.psnrwanda.api.service;
+
+import com.psnrwanda.api.model.Booking;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BookingCountersTest {
+
+    private static final long SERVICE_ID = 1L;
+
+    @Test
+    void bookingCommittedDuringTheRecountIsKept() {
+        FakeDatabase database = new FakeDatabase(5);
+        BookingCounters counters = new BookingCounters(database, mock(PlatformTransactionManager.class));
+        for (int i = 0; i < 5; i++) {
+            counters.recordCreated(SERVICE_ID, Booking.BookingStatus.PENDING);
+        }
+        // Commits after the GROUP BY took its snapshot, so the recount does not include it
+        database.duringQuery = () -> counters.recordCreated(SERVICE_ID, Booking.BookingStatus.PENDING);
+
+        counters.reconcile();
+
+        assertThat(counters.total()).isEqualTo(6);
+        assertThat(counters.countsByStatus()).containsEntry(Booking.BookingStatus.PENDING, 6L);
+    }
+
+    @Test
+    void driftIsCorrectedFromTheRecount() {
+        FakeDatabase database = new FakeDatabase(7);
+        BookingCounters counters = new BookingCounters(database, mock(PlatformTransactionManager.class));
+        // Two bookings were created by another instance
+        for (int i = 0; i < 5; i++) {
+            counters.recordCreated(SERVICE_ID, Booking.BookingStatus.PENDING);
+        }
+
+        counters.reconcile();
+        counters.recordCreated(SERVICE_ID, Booking.BookingStatus.PENDING);
+
+        assertThat(counters.total()).isEqualTo(8);
+        assertThat(counters.countsByService()).containsEntry(SERVICE_ID, 8L);
+    }
+
+    /**
+     * Answers the GROUP BY with a fixed count of pending bookings of one service and ignores snapshot writes
+     */
+    private static final class FakeDatabase extends JdbcTemplate {
+
+        private final long pendingBookings;
+        private Runnable duringQuery = () -> { };
+
+        private FakeDatabase(long pendingBookings) {
+            this.pendingBookings = pendingBookings;
+        }
+
+        @Override
+        public void query(String sql, RowCallbackHandler handler) {
+            duringQuery.run();
+            try {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getLong("service_id")).thenReturn(SERVICE_ID);
+                when(rs.getString("status")).thenReturn(Booking.BookingStatus.PENDING.name());
+                when(rs.getLong("booking_count")).thenReturn(pendingBookings);
+                handler.processRow(rs);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            return new int[batchArgs.size()];
+        }
+
+        @Override
+        public int update(String sql, Object... args) {
+            return 0;
+        }
+    }
+}
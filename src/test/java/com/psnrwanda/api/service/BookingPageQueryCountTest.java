@@ -0,0 +1,112 @@
+package com.psnrwanda.api.service;
+
+import com.psnrwanda.api.dto.BookingDto;
+import com.psnrwanda.api.model.Booking;
+import com.psnrwanda.api.model.BookingDocument;
+import com.psnrwanda.api.model.Service;
+import com.psnrwanda.api.repository.BookingDocumentRepository;
+import com.psnrwanda.api.repository.BookingRepository;
+import com.psnrwanda.api.repository.ServiceRepository;
+import com.psnrwanda.api.repository.UserRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * A page of bookings is read from projections: one query for the rows, one count and one query for the
+ * documents of the whole page, however many rows the page has.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+class BookingPageQueryCountTest {
+
+    private static final int PAGE_SIZE = 100;
+    private static final int BOOKINGS = 150;
+    private static final int DOCUMENTS_PER_BOOKING = 2;
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private BookingDocumentRepository bookingDocumentRepository;
+    @Autowired
+    private ServiceRepository serviceRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    private BookingService bookingService;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        bookingService = new BookingService(bookingRepository, serviceRepository, userRepository,
+                bookingDocumentRepository, mock(FileStorageService.class), mock(NotificationOutboxService.class),
+                mock(TrackingNumberAllocator.class), mock(BookingTrackingCache.class), mock(BookingCounters.class),
+                mock(BookingTrendService.class), mock(BookingStatusHistoryService.class),
+                mock(ApplicationEventPublisher.class));
+
+        Service service = entityManager.persist(Service.builder().title("Notary Services").build());
+        for (int i = 0; i < BOOKINGS; i++) {
+            Booking booking = new Booking();
+            booking.setTrackingNumber(TrackingNumberAllocator.format(i + 1));
+            booking.setPhoneNumber("0788" + String.format("%06d", i));
+            booking.setFullName("Customer " + i);
+            booking.setService(service);
+            for (int d = 0; d < DOCUMENTS_PER_BOOKING; d++) {
+                booking.addDocument(BookingDocument.builder()
+                        .fileName("document-" + d + ".pdf")
+                        .filePath("uploads/" + i + "/document-" + d + ".pdf")
+                        .fileType("application/pdf")
+                        .fileSize(1024L)
+                        .build());
+            }
+            entityManager.persist(booking);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void pageOfBookingsRunsAFixedNumberOfStatements() {
+        Page<BookingDto> page = bookingService.getAllBookings(
+                PageRequest.of(0, PAGE_SIZE, Sort.by("createdAt").descending()));
+
+        assertThat(page.getContent()).hasSize(PAGE_SIZE);
+        assertThat(page.getTotalElements()).isEqualTo(BOOKINGS);
+        assertThat(page.getContent()).allSatisfy(booking ->
+                assertThat(booking.getDocuments()).hasSize(DOCUMENTS_PER_BOOKING));
+
+        // Rows, count and documents; no per-row service, user or document queries
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getCollectionFetchCount()).isZero();
+    }
+
+    @Test
+    void statementCountDoesNotGrowWithPageSize() {
+        bookingService.getAllBookings(PageRequest.of(0, 10, Sort.by("createdAt").descending()));
+        long smallPage = statistics.getPrepareStatementCount();
+        statistics.clear();
+
+        bookingService.getAllBookings(PageRequest.of(0, PAGE_SIZE, Sort.by("createdAt").descending()));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(smallPage);
+    }
+}
@@ -0,0 +1,140 @@
+package com.psnrwanda.api.service;
+
+import com.psnrwanda.api.dto.BookingDto;
+import com.psnrwanda.api.model.Booking;
+import com.psnrwanda.api.model.Service;
+import com.psnrwanda.api.repository.BookingDocumentRepository;
+import com.psnrwanda.api.repository.BookingRepository;
+import com.psnrwanda.api.repository.ServiceRepository;
+import com.psnrwanda.api.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Public bookings created in parallel, each in its own transaction, get distinct tracking numbers from the
+ * database sequence, continuing after the numbers issued before the sequence was introduced.
+ * Runs without a test transaction so every booking commits as it does in production.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BookingTrackingNumberTest {
+
+    private static final int THREADS = 8;
+    private static final int PER_THREAD = 40;
+    private static final int EXISTING_BOOKINGS = 5;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private BookingDocumentRepository bookingDocumentRepository;
+    @Autowired
+    private ServiceRepository serviceRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private BookingService bookingService;
+    private TransactionTemplate transactionTemplate;
+    private Long serviceId;
+
+    @BeforeEach
+    void setUp() {
+        // The schema comes from the entity mappings in this profile, so create the sequence as V6 does
+        jdbcTemplate.execute("CREATE SEQUENCE booking_tracking_number_seq START WITH 1 INCREMENT BY "
+                + TrackingNumberAllocator.BLOCK_SIZE + " MINVALUE 1");
+
+        Service service = serviceRepository.save(Service.builder().title("Notary Services").active(true).build());
+        serviceId = service.getId();
+        for (int i = 1; i <= EXISTING_BOOKINGS; i++) {
+            Booking booking = new Booking();
+            booking.setTrackingNumber(TrackingNumberAllocator.format(i));
+            booking.setPhoneNumber("0788000000");
+            booking.setService(service);
+            bookingRepository.save(booking);
+        }
+        // V6 seeds the sequence to continue after the highest tracking number already issued
+        jdbcTemplate.execute("ALTER SEQUENCE booking_tracking_number_seq RESTART WITH " + (EXISTING_BOOKINGS + 1));
+
+        bookingService = new BookingService(bookingRepository, serviceRepository, userRepository,
+                bookingDocumentRepository, mock(FileStorageService.class), mock(NotificationOutboxService.class),
+                new TrackingNumberAllocator(jdbcTemplate), mock(BookingTrackingCache.class),
+                mock(BookingCounters.class), mock(BookingTrendService.class),
+                mock(BookingStatusHistoryService.class), mock(ApplicationEventPublisher.class));
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingRepository.deleteAll();
+        serviceRepository.deleteAll();
+        jdbcTemplate.execute("DROP SEQUENCE booking_tracking_number_seq");
+    }
+
+    @Test
+    void concurrentPublicBookingsGetDistinctTrackingNumbers() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<List<String>>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                Callable<List<String>> task = () -> {
+                    start.await();
+                    List<String> numbers = new ArrayList<>();
+                    for (int i = 0; i < PER_THREAD; i++) {
+                        numbers.add(transactionTemplate.execute(status -> bookingService
+                                .createPublicBooking(request()).getBooking().getTrackingNumber()));
+                    }
+                    return numbers;
+                };
+                futures.add(pool.submit(task));
+            }
+            start.countDown();
+
+            List<String> issued = new ArrayList<>();
+            for (Future<List<String>> future : futures) {
+                issued.addAll(future.get(60, TimeUnit.SECONDS));
+            }
+
+            assertThat(issued).hasSize(THREADS * PER_THREAD).doesNotHaveDuplicates();
+            assertThat(issued).allSatisfy(number -> assertThat(Long.parseLong(number.substring("PSN-".length())))
+                    .isGreaterThan(EXISTING_BOOKINGS));
+            assertThat(bookingRepository.count()).isEqualTo(EXISTING_BOOKINGS + THREADS * PER_THREAD);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private BookingDto.CreateBookingDto request() {
+        return BookingDto.CreateBookingDto.builder()
+                .serviceId(serviceId)
+                .phoneNumber("0788123456")
+                .fullName("Jean Uwimana")
+                .build();
+    }
+}
@@ -0,0 +1,109 @@
+package com.psnrwanda.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.psnrwanda.api.config.AppProperties;
+import com.psnrwanda.api.dto.ReportDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DashboardStatsCacheTest {
+
+    private ThreadPoolTaskExecutor executor;
+    private DashboardStatsCache cache;
+
+    @BeforeEach
+    void setUp() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.initialize();
+        cache = new DashboardStatsCache(executor, new ObjectMapper(), new AppProperties());
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void snapshotIsReusedWithinTheTtl() {
+        AtomicLong bookings = new AtomicLong();
+        Supplier<ReportDto.DashboardStatsDto> loader = () -> stats(bookings.incrementAndGet());
+
+        assertThat(cache.get(loader).getStats().getTotalBookings()).isEqualTo(1);
+        assertThat(cache.get(loader).getStats().getTotalBookings()).isEqualTo(1);
+    }
+
+    @Test
+    void computationStartedBeforeAnInvalidationIsNotKept() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicLong bookings = new AtomicLong();
+        Supplier<ReportDto.DashboardStatsDto> loader = () -> {
+            long value = bookings.incrementAndGet();
+            if (value == 1) {
+                loading.countDown();
+                await(release);
+            }
+            return stats(value);
+        };
+
+        // Reads the database, then a booking changes and invalidates the cache before the result is stored
+        CompletableFuture<DashboardStatsCache.Snapshot> early = CompletableFuture.supplyAsync(() -> cache.get(loader));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        cache.invalidate();
+        release.countDown();
+
+        assertThat(early.get(5, TimeUnit.SECONDS).getStats().getTotalBookings()).isEqualTo(1);
+        assertThat(cache.get(loader).getStats().getTotalBookings()).isEqualTo(2);
+        assertThat(cache.get(loader).getStats().getTotalBookings()).isEqualTo(2);
+    }
+
+    @Test
+    void callerAfterAnInvalidationDoesNotJoinTheOlderComputation() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicLong bookings = new AtomicLong();
+        Supplier<ReportDto.DashboardStatsDto> loader = () -> {
+            long value = bookings.incrementAndGet();
+            if (value == 1) {
+                loading.countDown();
+                await(release);
+            }
+            return stats(value);
+        };
+
+        CompletableFuture<DashboardStatsCache.Snapshot> early = CompletableFuture.supplyAsync(() -> cache.get(loader));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        cache.invalidate();
+
+        assertThat(cache.get(loader).getStats().getTotalBookings()).isEqualTo(2);
+        release.countDown();
+        assertThat(early.get(5, TimeUnit.SECONDS).getStats().getTotalBookings()).isEqualTo(1);
+        assertThat(cache.get(loader).getStats().getTotalBookings()).isEqualTo(2);
+    }
+
+    private static ReportDto.DashboardStatsDto stats(long totalBookings) {
+        return ReportDto.DashboardStatsDto.builder().totalBookings(totalBookings).build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Loader was not released");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.psnrwanda.api.service;
+
+import com.psnrwanda.api.dto.BookingDto;
+import jakarta.activation.DataSource;
+import jakarta.mail.BodyPart;
+import jakarta.mail.Multipart;
+import jakarta.mail.Part;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import jakarta.mail.internet.MimePart;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EmailTemplateRendererTest {
+
+    private TemplateEngine templateEngine;
+    /** Output buffers created by the renderer, with their initial capacity */
+    private final List<StringWriter> writers = new ArrayList<>();
+    private final List<Integer> initialCapacities = new ArrayList<>();
+    private EmailTemplateRenderer renderer;
+
+    @BeforeEach
+    void setUp() {
+        // Same resolution and caching as Spring Boot's Thymeleaf auto-configuration
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        resolver.setCacheable(true);
+
+        templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+        renderer = new EmailTemplateRenderer(templateEngine) {
+            @Override
+            StringWriter newWriter(String templateName) {
+                StringWriter writer = super.newWriter(templateName);
+                writers.add(writer);
+                initialCapacities.add(writer.getBuffer().capacity());
+                return writer;
+            }
+        };
+    }
+
+    @Test
+    void rendersTheSameHtmlAsTheTemplateEngine() {
+        Map<String, Object> variables = Map.of("subject", "Holiday opening hours", "recipientName", "Customer",
+                "paragraphs", List.of("Our offices will be open on the public holiday."));
+
+        assertThat(renderer.render("campaign", variables)).isEqualTo(renderDirectly("campaign", variables));
+        // Rendered again with a size hint in place
+        assertThat(renderer.render("campaign", variables)).isEqualTo(renderDirectly("campaign", variables));
+    }
+
+    @Test
+    void bookingConfirmationsRenderIntoASizedBufferAndShareTheLogo() throws Exception {
+        JavaMailSender mailSender = mock(JavaMailSender.class);
+        Session session = Session.getInstance(new Properties());
+        when(mailSender.createMimeMessage()).thenAnswer(invocation -> new MimeMessage(session));
+        NotificationService notificationService = new NotificationService(mailSender, renderer,
+                mock(SmsGatewayClient.class));
+        ReflectionTestUtils.setField(notificationService, "mailEnabled", true);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(notificationService.sendBookingConfirmation(booking(), "client@example.com").isSuccess())
+                    .isTrue();
+        }
+
+        ArgumentCaptor<MimeMessage> sent = ArgumentCaptor.forClass(MimeMessage.class);
+        verify(mailSender, times(3)).send(sent.capture());
+
+        assertThat(writers).hasSize(3);
+        for (int i = 0; i < writers.size(); i++) {
+            // The whole email fits the buffer it was given, so it was never copied into a larger one
+            assertThat(writers.get(i).getBuffer().capacity()).isEqualTo(initialCapacities.get(i));
+        }
+        // After the first render the buffer is sized from its output
+        int length = writers.get(0).getBuffer().length();
+        assertThat(initialCapacities.subList(1, 3)).containsOnly(length);
+
+        List<DataSource> logos = sent.getAllValues().stream().map(EmailTemplateRendererTest::logo).toList();
+        assertThat(logos).doesNotContainNull();
+        assertThat(logos.get(1)).isSameAs(logos.get(0));
+        assertThat(logos.get(2)).isSameAs(logos.get(0));
+    }
+
+    @Test
+    void warmUpRendersEveryTemplate() {
+        renderer.warmUp();
+
+        for (String template : List.of("booking-confirmation", "booking-status-update", "admin-booking-notification")) {
+            assertThat(renderer.render(template, null)).contains("<html");
+        }
+    }
+
+    private String renderDirectly(String templateName, Map<String, Object> variables) {
+        return templateEngine.process("email/" + templateName, new Context(Locale.getDefault(), variables));
+    }
+
+    private static BookingDto booking() {
+        return BookingDto.builder()
+                .trackingNumber("PSN-2024-000123")
+                .fullName("Jean Uwimana")
+                .serviceName("Notarisation")
+                .status("PENDING")
+                .createdAt("2024-05-01 09:30:00")
+                .build();
+    }
+
+    /**
+     * @return Data source of the inline logo of a message
+     */
+    private static DataSource logo(MimeMessage message) {
+        try {
+            return findInline(message);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static DataSource findInline(Part part) throws Exception {
+        if (part instanceof MimePart mimePart
+                && ("<" + EmailTemplateRenderer.LOGO_CONTENT_ID + ">").equals(mimePart.getContentID())) {
+            return part.getDataHandler().getDataSource();
+        }
+        if (part.getContent() instanceof Multipart multipart) {
+            for (int i = 0; i < multipart.getCount(); i++) {
+                BodyPart child = multipart.getBodyPart(i);
+                DataSource found = findInline(child);
+                if (found != null) {
+                    return found;
+                }
+            }
+        }
+        return null;
+    }
+}
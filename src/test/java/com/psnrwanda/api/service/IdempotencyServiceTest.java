@@ -0,0 +1,101 @@
+package com.psnrwanda.api.service;
+
+import com.psnrwanda.api.config.AppProperties;
+import com.psnrwanda.api.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs without a test transaction: the service commits its own reservations, as it does in production,
+ * and relies on the unique (scope, key) constraint to detect duplicates.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdempotencyServiceTest {
+
+    private static final String PATH = "/api/v1/bookings/public";
+
+    @Autowired
+    private IdempotencyRecordRepository repository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final AppProperties appProperties = new AppProperties();
+    private IdempotencyService service;
+
+    @BeforeEach
+    void setUp() {
+        service = newService();
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAll();
+    }
+
+    @Test
+    void sameKeyFromDifferentCallersIsNotShared() {
+        assertThat(service.reserve("ip:10.0.0.1", "key-1", "POST", PATH, "a").getOutcome())
+                .isEqualTo(IdempotencyService.Outcome.ACQUIRED);
+        service.finish("ip:10.0.0.1", "key-1", stored("a", "first"));
+
+        IdempotencyService.Reservation other = service.reserve("user:alice", "key-1", "POST", PATH, "a");
+
+        assertThat(other.getOutcome()).isEqualTo(IdempotencyService.Outcome.ACQUIRED);
+        assertThat(repository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void retryWithTheSameBodyIsReplayed() {
+        service.reserve("ip:10.0.0.1", "key-1", "POST", PATH, "a");
+        service.finish("ip:10.0.0.1", "key-1", stored("a", "first"));
+
+        IdempotencyService.Reservation retry = service.reserve("ip:10.0.0.1", "key-1", "POST", PATH, "a");
+
+        assertThat(retry.getOutcome()).isEqualTo(IdempotencyService.Outcome.REPLAY);
+        assertThat(new String(retry.getResponse().getBody(), StandardCharsets.UTF_8)).isEqualTo("first");
+    }
+
+    @Test
+    void keyReusedWithADifferentBodyIsAMismatch() {
+        service.reserve("ip:10.0.0.1", "key-1", "POST", PATH, "a");
+        service.finish("ip:10.0.0.1", "key-1", stored("a", "first"));
+
+        assertThat(service.reserve("ip:10.0.0.1", "key-1", "POST", PATH, "b").getOutcome())
+                .isEqualTo(IdempotencyService.Outcome.MISMATCH);
+        // Another instance without the response in its cache reads the hash from the table
+        assertThat(newService().reserve("ip:10.0.0.1", "key-1", "POST", PATH, "b").getOutcome())
+                .isEqualTo(IdempotencyService.Outcome.MISMATCH);
+        assertThat(newService().reserve("ip:10.0.0.1", "key-1", "POST", PATH, "a").getOutcome())
+                .isEqualTo(IdempotencyService.Outcome.REPLAY);
+    }
+
+    @Test
+    void differentBodyDoesNotWaitForARunningExecution() {
+        service.reserve("ip:10.0.0.1", "key-1", "POST", PATH, "a");
+
+        assertThat(newService().reserve("ip:10.0.0.1", "key-1", "POST", PATH, "b").getOutcome())
+                .isEqualTo(IdempotencyService.Outcome.MISMATCH);
+    }
+
+    private IdempotencyService newService() {
+        return new IdempotencyService(repository, transactionManager, appProperties);
+    }
+
+    private static IdempotencyService.StoredResponse stored(String requestHash, String body) {
+        return new IdempotencyService.StoredResponse("POST", PATH, requestHash, 201, "application/json",
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,136 @@
+package com.psnrwanda.api.service;
+
+import com.psnrwanda.api.config.AppProperties;
+import com.psnrwanda.api.dto.NotificationDto;
+import com.psnrwanda.api.event.BookingCreatedEvent;
+import com.psnrwanda.api.event.BookingEventMetrics;
+import com.psnrwanda.api.model.Booking;
+import com.psnrwanda.api.model.OutboxNotification;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationOutboxDispatcherTest {
+
+    private NotificationOutboxService outboxService;
+    private NotificationService notificationService;
+    private ThreadPoolTaskExecutor emailExecutor;
+    private ThreadPoolTaskExecutor smsExecutor;
+    private NotificationOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        outboxService = mock(NotificationOutboxService.class);
+        notificationService = mock(NotificationService.class);
+        when(notificationService.getMaxSmsBatchSize()).thenReturn(20);
+        when(outboxService.claimDue(any(), anyInt())).thenReturn(List.of());
+
+        emailExecutor = executor();
+        smsExecutor = executor();
+        dispatcher = new NotificationOutboxDispatcher(outboxService, notificationService, emailExecutor, smsExecutor,
+                new AppProperties(), mock(BookingEventMetrics.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        emailExecutor.shutdown();
+        smsExecutor.shutdown();
+    }
+
+    @Test
+    void notificationsOfADisabledChannelAreSkippedNotFailed() {
+        when(notificationService.isMailEnabled()).thenReturn(false);
+        when(outboxService.claimDue(eq(OutboxNotification.Channel.EMAIL), anyInt()))
+                .thenReturn(List.of(notification(1L, OutboxNotification.NotificationType.BOOKING_CONFIRMATION)))
+                .thenReturn(List.of());
+
+        dispatcher.dispatch();
+
+        verify(outboxService, timeout(5000)).markSkipped(eq(1L), anyString());
+        verify(outboxService, never()).markFailed(anyLong(), anyString());
+        verify(notificationService, never()).sendBookingConfirmation(any(), any());
+    }
+
+    @Test
+    void notificationsOfAnEnabledChannelAreDelivered() {
+        when(notificationService.isSmsEnabled()).thenReturn(true);
+        when(outboxService.claimDue(eq(OutboxNotification.Channel.SMS), anyInt()))
+                .thenReturn(List.of(notification(2L, OutboxNotification.NotificationType.BOOKING_CONFIRMATION_SMS)))
+                .thenReturn(List.of());
+        when(notificationService.sendSmsBatch(any()))
+                .thenReturn(List.of(NotificationDto.NotificationResponseDto.builder().success(true).build()));
+
+        dispatcher.dispatch();
+
+        verify(outboxService, timeout(5000)).markSent(2L);
+        verify(outboxService, never()).markSkipped(anyLong(), anyString());
+    }
+
+    @Test
+    void eventsFoldedIntoARunningDispatchAreTimedAsCoalesced() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        dispatcher = new NotificationOutboxDispatcher(outboxService, notificationService, emailExecutor, smsExecutor,
+                new AppProperties(), new BookingEventMetrics(registry));
+        CountDownLatch dispatching = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(outboxService.claimDue(eq(OutboxNotification.Channel.EMAIL), anyInt()))
+                .thenAnswer(invocation -> {
+                    dispatching.countDown();
+                    release.await(5, TimeUnit.SECONDS);
+                    return List.of();
+                })
+                .thenReturn(List.of());
+
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() -> dispatcher.onBookingEvent(event(1L)));
+        assertThat(dispatching.await(5, TimeUnit.SECONDS)).isTrue();
+        dispatcher.onBookingEvent(event(2L));
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+
+        assertThat(registry.get("booking.events.listener").tag("outcome", "success").timer().count()).isEqualTo(1);
+        assertThat(registry.get("booking.events.listener").tag("outcome", "coalesced").timer().count()).isEqualTo(1);
+    }
+
+    private static BookingCreatedEvent event(Long bookingId) {
+        return new BookingCreatedEvent(bookingId, TrackingNumberAllocator.format(bookingId), 1L,
+                Booking.BookingStatus.PENDING);
+    }
+
+    private static OutboxNotification notification(Long id, OutboxNotification.NotificationType type) {
+        OutboxNotification notification = OutboxNotification.builder()
+                .type(type)
+                .channel(type.getChannel())
+                .recipient(type.getChannel() == OutboxNotification.Channel.SMS ? "+250788123456" : "client@example.com")
+                .bookingId(10L)
+                .build();
+        notification.setId(id);
+        return notification;
+    }
+
+    private static ThreadPoolTaskExecutor executor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setQueueCapacity(10);
+        executor.initialize();
+        return executor;
+    }
+}
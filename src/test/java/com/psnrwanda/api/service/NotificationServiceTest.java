@@ -0,0 +1,85 @@
+package com.psnrwanda.api.service;
+
+import com.psnrwanda.api.dto.NotificationDto;
+import com.psnrwanda.api.exception.SmsGatewayException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class NotificationServiceTest {
+
+    private SmsGatewayClient smsGatewayClient;
+    private NotificationService notificationService;
+
+    @BeforeEach
+    void setUp() {
+        smsGatewayClient = mock(SmsGatewayClient.class);
+        notificationService = new NotificationService(mock(JavaMailSender.class), mock(EmailTemplateRenderer.class),
+                smsGatewayClient);
+        ReflectionTestUtils.setField(notificationService, "smsEnabled", true);
+    }
+
+    @Test
+    void sendsNormalizedNumbersInOneCall() {
+        List<NotificationDto.NotificationResponseDto> responses = notificationService.sendSmsBatch(List.of(
+                sms("0788 123 456"), sms("250788654321")));
+
+        assertThat(responses).hasSize(2).allSatisfy(response -> assertThat(response.isSuccess()).isTrue());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<NotificationDto.SmsGatewayMessageDto>> sent = ArgumentCaptor.forClass(List.class);
+        verify(smsGatewayClient).send(sent.capture());
+        assertThat(sent.getValue()).extracting(NotificationDto.SmsGatewayMessageDto::getTo)
+                .containsExactly("+250788123456", "+250788654321");
+    }
+
+    @Test
+    void refusedBatchFallsBackToSingleSendsSoOnlyTheInvalidNumberFails() {
+        doAnswer(invocation -> {
+            List<NotificationDto.SmsGatewayMessageDto> messages = invocation.getArgument(0);
+            if (messages.stream().anyMatch(message -> message.getTo().equals("12345"))) {
+                throw new SmsGatewayException("SMS gateway answered 400: invalid number", 400);
+            }
+            return null;
+        }).when(smsGatewayClient).send(anyList());
+
+        List<NotificationDto.NotificationResponseDto> responses = notificationService.sendSmsBatch(List.of(
+                sms("0788123456"), sms("12345"), sms("0788654321")));
+
+        assertThat(responses).extracting(NotificationDto.NotificationResponseDto::isSuccess)
+                .containsExactly(true, false, true);
+        // The batch, then each message on its own
+        verify(smsGatewayClient, times(4)).send(anyList());
+    }
+
+    @Test
+    void gatewayOutageFailsTheBatchWithoutSingleSends() {
+        doAnswer(invocation -> {
+            throw new SmsGatewayException("SMS gateway answered 503: unavailable", 503);
+        }).when(smsGatewayClient).send(anyList());
+
+        List<NotificationDto.NotificationResponseDto> responses = notificationService.sendSmsBatch(List.of(
+                sms("0788123456"), sms("0788654321")));
+
+        assertThat(responses).extracting(NotificationDto.NotificationResponseDto::isSuccess)
+                .containsExactly(false, false);
+        verify(smsGatewayClient, times(1)).send(anyList());
+    }
+
+    private static NotificationDto.SmsNotificationDto sms(String phoneNumber) {
+        return NotificationDto.SmsNotificationDto.builder()
+                .phoneNumber(phoneNumber)
+                .message("PSN RWANDA: booking received")
+                .build();
+    }
+}
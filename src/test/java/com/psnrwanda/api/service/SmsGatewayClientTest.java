@@ -0,0 +1,155 @@
+package com.psnrwanda.api.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.psnrwanda.api.config.AppProperties;
+import com.psnrwanda.api.dto.NotificationDto;
+import com.psnrwanda.api.exception.SmsGatewayException;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SmsGatewayClientTest {
+
+    private static final String API_KEY = "test-key";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<JsonNode> bodies = new CopyOnWriteArrayList<>();
+    private final List<String> authorizations = new CopyOnWriteArrayList<>();
+
+    private HttpServer server;
+    /** Status the gateway answers with */
+    private volatile int status = 200;
+    private AppProperties appProperties;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/sms", exchange -> {
+            authorizations.add(exchange.getRequestHeaders().getFirst("Authorization"));
+            bodies.add(objectMapper.readTree(exchange.getRequestBody()));
+            byte[] response = (status == 200 ? "{\"accepted\": 1}" : "{\"error\": \"refused\"}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        });
+        server.start();
+
+        appProperties = new AppProperties();
+        AppProperties.Sms sms = appProperties.getSms();
+        sms.setApiKey(API_KEY);
+        sms.setApiUrl("http://localhost:" + server.getAddress().getPort() + "/sms");
+        sms.setMaxBatchSize(5);
+        sms.setBurst(5);
+        sms.setRatePerSecond(10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void postsTheBatchAsOneJsonCallWithBearerAuth() {
+        SmsGatewayClient client = new SmsGatewayClient(appProperties, objectMapper);
+
+        client.send(messages(3));
+
+        assertThat(bodies).hasSize(1);
+        JsonNode sent = bodies.get(0).get("messages");
+        assertThat(sent).hasSize(3);
+        assertThat(sent.get(0).get("to").asText()).isEqualTo("+250788000000");
+        assertThat(sent.get(2).get("text").asText()).isEqualTo("Message 2");
+        assertThat(authorizations).containsExactly("Bearer " + API_KEY);
+    }
+
+    @Test
+    void refusedBatchIsReportedAsRejected() {
+        SmsGatewayClient client = new SmsGatewayClient(appProperties, objectMapper);
+        status = 400;
+
+        assertThatThrownBy(() -> client.send(messages(2)))
+                .isInstanceOfSatisfying(SmsGatewayException.class, e -> {
+                    assertThat(e.getStatus()).isEqualTo(400);
+                    assertThat(e.isRejected()).isTrue();
+                })
+                .hasMessageContaining("refused");
+    }
+
+    @Test
+    void serverAndAuthErrorsAreNotRejections() {
+        SmsGatewayClient client = new SmsGatewayClient(appProperties, objectMapper);
+
+        for (int code : new int[]{401, 429, 503}) {
+            status = code;
+            assertThatThrownBy(() -> client.send(messages(1)))
+                    .isInstanceOfSatisfying(SmsGatewayException.class, e -> {
+                        assertThat(e.getStatus()).isEqualTo(code);
+                        assertThat(e.isRejected()).isFalse();
+                    });
+        }
+    }
+
+    @Test
+    void batchLargerThanTheBurstIsRefusedBeforeSending() {
+        appProperties.getSms().setMaxBatchSize(20);
+        SmsGatewayClient client = new SmsGatewayClient(appProperties, objectMapper);
+
+        assertThat(client.getMaxBatchSize()).isEqualTo(5);
+        assertThatThrownBy(() -> client.send(messages(6))).isInstanceOf(IllegalArgumentException.class);
+        assertThat(bodies).isEmpty();
+    }
+
+    @Test
+    void sendsArePacedToTheQuota() {
+        SmsGatewayClient client = new SmsGatewayClient(appProperties, objectMapper);
+
+        // The first burst of 5 goes out at once, the next 15 messages at 10 per second
+        long start = System.nanoTime();
+        for (int i = 0; i < 4; i++) {
+            client.send(messages(5));
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        assertThat(bodies).hasSize(4);
+        assertThat(elapsed).isGreaterThanOrEqualTo(Duration.ofMillis(1400)).isLessThan(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void sendFailsWithoutCallingTheGatewayWhenQuotaIsNotAvailableInTime() {
+        appProperties.getSms().setQuotaTimeout(Duration.ofMillis(100));
+        SmsGatewayClient client = new SmsGatewayClient(appProperties, objectMapper);
+
+        client.send(messages(5));
+
+        assertThatThrownBy(() -> client.send(messages(5)))
+                .isInstanceOf(SmsGatewayException.class)
+                .hasMessageContaining("quota");
+        assertThat(bodies).hasSize(1);
+    }
+
+    private static List<NotificationDto.SmsGatewayMessageDto> messages(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> NotificationDto.SmsGatewayMessageDto.builder()
+                        .to("+250788" + String.format("%06d", i))
+                        .text("Message " + i)
+                        .build())
+                .toList();
+    }
+}
@@ -0,0 +1,121 @@
+package com.psnrwanda.api.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrackingNumberAllocatorTest {
+
+    private static final int THREADS = 16;
+    private static final int PER_THREAD = 2_000;
+
+    @Test
+    void concurrentAllocationsNeverRepeat() throws Exception {
+        FakeSequence sequence = new FakeSequence(1);
+        TrackingNumberAllocator allocator = new TrackingNumberAllocator(sequence);
+
+        Set<String> issued = allocateInParallel(List.of(allocator));
+
+        assertThat(issued).hasSize(THREADS * PER_THREAD);
+        // Each exhausted block is refilled exactly once, so no reserved numbers are thrown away
+        assertThat(sequence.calls.get()).isEqualTo(THREADS * PER_THREAD / TrackingNumberAllocator.BLOCK_SIZE);
+    }
+
+    @Test
+    void replicasSharingTheSequenceNeverRepeat() throws Exception {
+        FakeSequence sequence = new FakeSequence(1);
+        List<TrackingNumberAllocator> replicas = List.of(
+                new TrackingNumberAllocator(sequence),
+                new TrackingNumberAllocator(sequence),
+                new TrackingNumberAllocator(sequence));
+
+        Set<String> issued = allocateInParallel(replicas);
+
+        assertThat(issued).hasSize(THREADS * PER_THREAD);
+    }
+
+    @Test
+    void numbersKeepIncreasingPastThreeDigits() {
+        TrackingNumberAllocator allocator = new TrackingNumberAllocator(new FakeSequence(998));
+
+        List<String> numbers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            numbers.add(allocator.nextTrackingNumber());
+        }
+
+        assertThat(numbers).containsExactly("PSN-998", "PSN-999", "PSN-1000", "PSN-1001");
+        // PSN-1000 sorts before PSN-999 as a string, so the allocator must never derive the next number from text
+        assertThat(allocator.nextValue()).isEqualTo(1002);
+    }
+
+    @Test
+    void formatPadsToThreeDigits() {
+        assertThat(TrackingNumberAllocator.format(1)).isEqualTo("PSN-001");
+        assertThat(TrackingNumberAllocator.format(999)).isEqualTo("PSN-999");
+        assertThat(TrackingNumberAllocator.format(1000)).isEqualTo("PSN-1000");
+    }
+
+    private static Set<String> allocateInParallel(List<TrackingNumberAllocator> allocators) throws Exception {
+        Set<String> issued = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicates = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                TrackingNumberAllocator allocator = allocators.get(t % allocators.size());
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < PER_THREAD; i++) {
+                        if (!issued.add(allocator.nextTrackingNumber())) {
+                            duplicates.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(duplicates.get()).isZero();
+        return issued;
+    }
+
+    /**
+     * Stands in for booking_tracking_number_seq: every nextval returns the start of the next block of 50
+     */
+    private static final class FakeSequence extends JdbcTemplate {
+
+        private final AtomicInteger calls = new AtomicInteger();
+        private long next;
+
+        private FakeSequence(long start) {
+            this.next = start;
+        }
+
+        @Override
+        public synchronized <T> T queryForObject(String sql, Class<T> requiredType) {
+            calls.incrementAndGet();
+            long value = next;
+            next += TrackingNumberAllocator.BLOCK_SIZE;
+            return requiredType.cast(value);
+        }
+    }
+}